@@ -1,5 +1,8 @@
 package com.example.biblioteca.api;
 
+import com.example.biblioteca.dto.CursorPage;
+import com.example.biblioteca.dto.MultiGetResult;
+import com.example.biblioteca.dto.SugestaoDTO;
 import com.example.biblioteca.dto.AssuntoDTO;
 import com.example.biblioteca.service.AssuntoService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,9 +12,13 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/assuntos")
@@ -22,17 +29,74 @@ public class AssuntoController {
     private AssuntoService assuntoService;
 
     @Operation(summary = "Lista todos os assuntos", description = "Retorna uma lista paginada de assuntos")
+    @ApiResponse(responseCode = "200", description = "Página de assuntos, com ETag da coleção")
+    @ApiResponse(responseCode = "304", description = "A coleção não mudou desde o ETag informado em If-None-Match")
     @GetMapping
-    public ResponseEntity<Page<AssuntoDTO>> getAllAssuntos(Pageable pageable) {
-        return ResponseEntity.ok(assuntoService.findAll(pageable));
+    public ResponseEntity<Page<AssuntoDTO>> getAllAssuntos(Pageable pageable, WebRequest request) {
+        long versao = assuntoService.findVersaoColecao();
+        if (ETags.notModified(request, () -> versao)) {
+            return null;
+        }
+        return ETags.ok(assuntoService.findAll(pageable), versao);
+    }
+
+    @Operation(summary = "Lista assuntos por cursor",
+            description = "Paginação por cursor, ordenada por descrição: informe after vazio na primeira chamada e, nas seguintes, o nextCursor da resposta anterior. Não calcula o total")
+    @ApiResponse(responseCode = "200", description = "Página de assuntos")
+    @ApiResponse(responseCode = "400", description = "Cursor inválido")
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPage<AssuntoDTO>> getAllAssuntosAfter(@RequestParam String after, @RequestParam(defaultValue = "20") int size,
+                                                                      WebRequest request) {
+        long versao = assuntoService.findVersaoColecao();
+        if (ETags.notModified(request, () -> versao)) {
+            return null;
+        }
+        return ETags.ok(assuntoService.findAll(after, size), versao);
+    }
+
+    @Operation(summary = "Obtém vários assuntos por ID",
+            description = "Retorna os assuntos dos ids informados (ex.: ids=1,2,3) na ordem pedida e lista em missingIds os que não existem. "
+                    + "Até " + MultiGetResult.MAX_IDS + " ids; para listas longas use POST /lookup")
+    @ApiResponse(responseCode = "200", description = "Assuntos encontrados e ids inexistentes, com ETag da coleção")
+    @ApiResponse(responseCode = "304", description = "A coleção não mudou desde o ETag informado em If-None-Match")
+    @ApiResponse(responseCode = "400", description = "Ids demais")
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResult<AssuntoDTO>> getAssuntosByIds(@RequestParam List<Long> ids, WebRequest request) {
+        long versao = assuntoService.findVersaoColecao();
+        if (ETags.notModified(request, () -> versao)) {
+            return null;
+        }
+        return ETags.ok(assuntoService.findAllById(ids), versao);
+    }
+
+    @Operation(summary = "Obtém vários assuntos por ID (POST)",
+            description = "Como GET ?ids=, com os ids num array JSON no corpo, para listas que não cabem na URL")
+    @ApiResponse(responseCode = "200", description = "Assuntos encontrados e ids inexistentes")
+    @ApiResponse(responseCode = "400", description = "Ids demais")
+    @PostMapping("/lookup")
+    public ResponseEntity<MultiGetResult<AssuntoDTO>> lookupAssuntos(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(assuntoService.findAllById(ids));
+    }
+
+    @Operation(summary = "Sugere assuntos pelo início da descrição",
+            description = "Autocompletar: assuntos com alguma palavra iniciada por prefix, sem distinção de maiúsculas ou acentos. Atendido em memória, sem consulta ao banco")
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SugestaoDTO>> suggestAssuntos(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(assuntoService.suggest(prefix, limit));
     }
 
     @Operation(summary = "Obtém um assunto por ID", description = "Retorna um assunto específico pelo seu ID")
     @ApiResponse(responseCode = "200", description = "Assunto encontrado")
     @ApiResponse(responseCode = "404", description = "Assunto não encontrado")
+    @ApiResponse(responseCode = "304", description = "O assunto não mudou desde o ETag informado em If-None-Match")
     @GetMapping("/{id}")
-    public ResponseEntity<AssuntoDTO> getAssuntoById(@PathVariable Long id) {
-        return ResponseEntity.ok(assuntoService.findById(id));
+    public ResponseEntity<AssuntoDTO> getAssuntoById(@PathVariable Long id, WebRequest request) {
+        // revalidating only needs the version, which is cheaper than loading and serializing the assunto
+        if (ETags.notModified(request, () -> assuntoService.findVersaoById(id))) {
+            return null;
+        }
+        AssuntoDTO assuntoDTO = assuntoService.findById(id);
+        return ETags.ok(assuntoDTO, assuntoDTO.getVersao());
     }
 
     @Operation(summary = "Cria um novo assunto", description = "Cria um novo assunto no sistema")
@@ -41,25 +105,29 @@ public class AssuntoController {
     @PostMapping
     public ResponseEntity<AssuntoDTO> createAssunto(@RequestBody @Valid AssuntoDTO assuntoDTO) {
         AssuntoDTO createdAssunto = assuntoService.create(assuntoDTO);
-        return new ResponseEntity<>(createdAssunto, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(createdAssunto.getVersao())).body(createdAssunto);
     }
 
     @Operation(summary = "Atualiza um assunto existente", description = "Atualiza os dados de um assunto pelo seu ID")
     @ApiResponse(responseCode = "200", description = "Assunto atualizado com sucesso")
     @ApiResponse(responseCode = "400", description = "Dados de entrada inválidos")
     @ApiResponse(responseCode = "404", description = "Assunto não encontrado")
+    @ApiResponse(responseCode = "412", description = "O assunto mudou desde o ETag informado em If-Match")
     @PutMapping("/{id}")
-    public ResponseEntity<AssuntoDTO> updateAssunto(@PathVariable Long id, @RequestBody @Valid AssuntoDTO assuntoDTO) {
-        AssuntoDTO updatedAssunto = assuntoService.update(id, assuntoDTO);
-        return ResponseEntity.ok(updatedAssunto);
+    public ResponseEntity<AssuntoDTO> updateAssunto(@PathVariable Long id, @RequestBody @Valid AssuntoDTO assuntoDTO,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        AssuntoDTO updatedAssunto = assuntoService.update(id, assuntoDTO, ETags.versaoFromIfMatch(ifMatch));
+        return ETags.ok(updatedAssunto, updatedAssunto.getVersao());
     }
 
     @Operation(summary = "Exclui um assunto", description = "Remove um assunto do sistema pelo seu ID")
     @ApiResponse(responseCode = "204", description = "Assunto excluído com sucesso")
     @ApiResponse(responseCode = "404", description = "Assunto não encontrado")
+    @ApiResponse(responseCode = "412", description = "O assunto mudou desde o ETag informado em If-Match")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteAssunto(@PathVariable Long id) {
-        assuntoService.delete(id);
+    public ResponseEntity<Void> deleteAssunto(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        assuntoService.delete(id, ETags.versaoFromIfMatch(ifMatch));
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
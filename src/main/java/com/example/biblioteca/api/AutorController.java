@@ -1,5 +1,8 @@
 package com.example.biblioteca.api;
 
+import com.example.biblioteca.dto.CursorPage;
+import com.example.biblioteca.dto.MultiGetResult;
+import com.example.biblioteca.dto.SugestaoDTO;
 import com.example.biblioteca.dto.AutorDTO;
 import com.example.biblioteca.service.AutorService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,9 +12,13 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/autores")
@@ -22,17 +29,74 @@ public class AutorController {
     private AutorService autorService;
 
     @Operation(summary = "Lista todos os autores", description = "Retorna uma lista paginada de autores")
+    @ApiResponse(responseCode = "200", description = "Página de autores, com ETag da coleção")
+    @ApiResponse(responseCode = "304", description = "A coleção não mudou desde o ETag informado em If-None-Match")
     @GetMapping
-    public ResponseEntity<Page<AutorDTO>> getAllAutores(Pageable pageable) {
-        return ResponseEntity.ok(autorService.findAll(pageable));
+    public ResponseEntity<Page<AutorDTO>> getAllAutores(Pageable pageable, WebRequest request) {
+        long versao = autorService.findVersaoColecao();
+        if (ETags.notModified(request, () -> versao)) {
+            return null;
+        }
+        return ETags.ok(autorService.findAll(pageable), versao);
+    }
+
+    @Operation(summary = "Lista autores por cursor",
+            description = "Paginação por cursor, ordenada por nome: informe after vazio na primeira chamada e, nas seguintes, o nextCursor da resposta anterior. Não calcula o total")
+    @ApiResponse(responseCode = "200", description = "Página de autores")
+    @ApiResponse(responseCode = "400", description = "Cursor inválido")
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPage<AutorDTO>> getAllAutoresAfter(@RequestParam String after, @RequestParam(defaultValue = "20") int size,
+                                                                   WebRequest request) {
+        long versao = autorService.findVersaoColecao();
+        if (ETags.notModified(request, () -> versao)) {
+            return null;
+        }
+        return ETags.ok(autorService.findAll(after, size), versao);
+    }
+
+    @Operation(summary = "Obtém vários autores por ID",
+            description = "Retorna os autores dos ids informados (ex.: ids=1,2,3) na ordem pedida e lista em missingIds os que não existem. "
+                    + "Até " + MultiGetResult.MAX_IDS + " ids; para listas longas use POST /lookup")
+    @ApiResponse(responseCode = "200", description = "Autores encontrados e ids inexistentes, com ETag da coleção")
+    @ApiResponse(responseCode = "304", description = "A coleção não mudou desde o ETag informado em If-None-Match")
+    @ApiResponse(responseCode = "400", description = "Ids demais")
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResult<AutorDTO>> getAutoresByIds(@RequestParam List<Long> ids, WebRequest request) {
+        long versao = autorService.findVersaoColecao();
+        if (ETags.notModified(request, () -> versao)) {
+            return null;
+        }
+        return ETags.ok(autorService.findAllById(ids), versao);
+    }
+
+    @Operation(summary = "Obtém vários autores por ID (POST)",
+            description = "Como GET ?ids=, com os ids num array JSON no corpo, para listas que não cabem na URL")
+    @ApiResponse(responseCode = "200", description = "Autores encontrados e ids inexistentes")
+    @ApiResponse(responseCode = "400", description = "Ids demais")
+    @PostMapping("/lookup")
+    public ResponseEntity<MultiGetResult<AutorDTO>> lookupAutores(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(autorService.findAllById(ids));
+    }
+
+    @Operation(summary = "Sugere autores pelo início do nome",
+            description = "Autocompletar: autores com alguma palavra iniciada por prefix, sem distinção de maiúsculas ou acentos. Atendido em memória, sem consulta ao banco")
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SugestaoDTO>> suggestAutores(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(autorService.suggest(prefix, limit));
     }
 
     @Operation(summary = "Obtém um autor por ID", description = "Retorna um autor específico pelo seu ID")
     @ApiResponse(responseCode = "200", description = "Autor encontrado")
     @ApiResponse(responseCode = "404", description = "Autor não encontrado")
+    @ApiResponse(responseCode = "304", description = "O autor não mudou desde o ETag informado em If-None-Match")
     @GetMapping("/{id}")
-    public ResponseEntity<AutorDTO> getAutorById(@PathVariable Long id) {
-        return ResponseEntity.ok(autorService.findById(id));
+    public ResponseEntity<AutorDTO> getAutorById(@PathVariable Long id, WebRequest request) {
+        // revalidating only needs the version, which is cheaper than loading and serializing the autor
+        if (ETags.notModified(request, () -> autorService.findVersaoById(id))) {
+            return null;
+        }
+        AutorDTO autorDTO = autorService.findById(id);
+        return ETags.ok(autorDTO, autorDTO.getVersao());
     }
 
     @Operation(summary = "Cria um novo autor", description = "Cria um novo autor no sistema")
@@ -41,25 +105,29 @@ public class AutorController {
     @PostMapping
     public ResponseEntity<AutorDTO> createAutor(@RequestBody @Valid AutorDTO autorDTO) {
         AutorDTO createdAutor = autorService.create(autorDTO);
-        return new ResponseEntity<>(createdAutor, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(createdAutor.getVersao())).body(createdAutor);
     }
 
     @Operation(summary = "Atualiza um autor existente", description = "Atualiza os dados de um autor pelo seu ID")
     @ApiResponse(responseCode = "200", description = "Autor atualizado com sucesso")
     @ApiResponse(responseCode = "400", description = "Dados de entrada inválidos")
     @ApiResponse(responseCode = "404", description = "Autor não encontrado")
+    @ApiResponse(responseCode = "412", description = "O autor mudou desde o ETag informado em If-Match")
     @PutMapping("/{id}")
-    public ResponseEntity<AutorDTO> updateAutor(@PathVariable Long id, @RequestBody @Valid AutorDTO autorDTO) {
-        AutorDTO updatedAutor = autorService.update(id, autorDTO);
-        return ResponseEntity.ok(updatedAutor);
+    public ResponseEntity<AutorDTO> updateAutor(@PathVariable Long id, @RequestBody @Valid AutorDTO autorDTO,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        AutorDTO updatedAutor = autorService.update(id, autorDTO, ETags.versaoFromIfMatch(ifMatch));
+        return ETags.ok(updatedAutor, updatedAutor.getVersao());
     }
 
     @Operation(summary = "Exclui um autor", description = "Remove um autor do sistema pelo seu ID")
     @ApiResponse(responseCode = "204", description = "Autor excluído com sucesso")
     @ApiResponse(responseCode = "404", description = "Autor não encontrado")
+    @ApiResponse(responseCode = "412", description = "O autor mudou desde o ETag informado em If-Match")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteAutor(@PathVariable Long id) {
-        autorService.delete(id);
+    public ResponseEntity<Void> deleteAutor(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        autorService.delete(id, ETags.versaoFromIfMatch(ifMatch));
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.example.biblioteca.api;
+
+import com.example.biblioteca.dto.CacheStatsDTO;
+import com.example.biblioteca.service.ReferenceCaches;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/caches")
+@Tag(name = "Caches", description = "Estatísticas dos caches em memória")
+public class CacheController {
+
+    @Autowired
+    private ReferenceCaches referenceCaches;
+
+    @Operation(summary = "Estatísticas dos caches de autores e assuntos",
+            description = "Tamanho, acertos, faltas, taxa de acerto e remoções por cache desde o início da aplicação")
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, CacheStatsDTO>> getStats() {
+        return ResponseEntity.ok(referenceCaches.stats());
+    }
+}
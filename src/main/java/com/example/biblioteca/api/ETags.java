@@ -0,0 +1,72 @@
+package com.example.biblioteca.api;
+
+import com.example.biblioteca.exception.PreconditionFailedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Strong ETags made from version numbers: the {@code versao} column for a single resource, the collection's
+ * change counter for a listing. A single resource that embeds other collections gets a {@code "N-eM"} tag instead,
+ * which {@link #versaoFromIfMatch} refuses, since {@code N} alone doesn't identify what the client saw.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(long versao) {
+        return "\"" + versao + "\"";
+    }
+
+    /**
+     * @param versaoExpansoes version of the collections embedded in the response
+     */
+    static String of(long versao, long versaoExpansoes) {
+        return "\"" + versao + "-e" + versaoExpansoes + "\"";
+    }
+
+    static <T> ResponseEntity<T> ok(T body, long versao) {
+        return ok(body, of(versao));
+    }
+
+    static <T> ResponseEntity<T> ok(T body, String eTag) {
+        return ResponseEntity.ok().eTag(eTag).body(body);
+    }
+
+    /**
+     * Answers {@code If-None-Match}: when it matches, the response is turned into a 304 and the caller should
+     * return {@code null}. The version is only looked up when the header is present.
+     */
+    static boolean notModified(WebRequest request, LongSupplier versao) {
+        return notModified(request, () -> of(versao.getAsLong()));
+    }
+
+    static boolean notModified(WebRequest request, Supplier<String> eTag) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && request.checkNotModified(eTag.get());
+    }
+
+    /**
+     * Version required by an {@code If-Match} header. Only a single strong ETag is understood; anything else
+     * can't match one issued here, so it fails the precondition straight away.
+     *
+     * @return {@code null} if the header is absent or {@code *}, which any existing resource satisfies
+     */
+    static Long versaoFromIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.strip();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // not one of ours
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + tag + " does not match the current version");
+    }
+}
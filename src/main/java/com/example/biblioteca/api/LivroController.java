@@ -1,38 +1,205 @@
 package com.example.biblioteca.api;
 
+import com.example.biblioteca.config.ExportacaoProperties;
+import com.example.biblioteca.dto.CatalogoImportResultDTO;
+import com.example.biblioteca.dto.LivroBatchResultDTO;
+import com.example.biblioteca.dto.CursorPage;
 import com.example.biblioteca.dto.LivroDTO;
+import com.example.biblioteca.dto.LivroFacetasDTO;
+import com.example.biblioteca.dto.LivroFields;
+import com.example.biblioteca.dto.LivroFiltro;
+import com.example.biblioteca.dto.MultiGetResult;
+import com.example.biblioteca.report.DelimitedFormat;
+import com.example.biblioteca.service.CatalogoImportService;
+import com.example.biblioteca.service.LivroBatchService;
+import com.example.biblioteca.service.LivroExportService;
+import com.example.biblioteca.service.LivroFacetasService;
 import com.example.biblioteca.service.LivroService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/livros")
 @Tag(name = "Livros", description = "Gerenciamento de livros")
 public class LivroController {
 
+    private static final String EXPORT_SINCE_HEADER = "X-Export-Since";
+
+    private static final String FIELDS_DESCRIPTION = " Use fields para escolher as propriedades retornadas (ex.: fields=titulo,valor; o id sempre vem)"
+            + " e expand=autores,assuntos para incluir autores e assuntos com seus nomes";
+
     @Autowired
     private LivroService livroService;
 
-    @Operation(summary = "Lista todos os livros", description = "Retorna uma lista paginada de livros")
+    @Autowired
+    private LivroBatchService livroBatchService;
+
+    @Autowired
+    private CatalogoImportService catalogoImportService;
+
+    @Autowired
+    private LivroExportService livroExportService;
+
+    @Autowired
+    private LivroFacetasService livroFacetasService;
+
+    @Autowired
+    private ExportacaoProperties exportacaoProperties;
+
+    @Operation(summary = "Lista todos os livros",
+            description = "Retorna uma lista paginada de livros." + FIELDS_DESCRIPTION)
+    @ApiResponse(responseCode = "200", description = "Página de livros, com ETag da coleção")
+    @ApiResponse(responseCode = "304", description = "A coleção não mudou desde o ETag informado em If-None-Match")
+    @ApiResponse(responseCode = "400", description = "Campo, expansão ou ordenação desconhecidos")
     @GetMapping
-    public ResponseEntity<Page<LivroDTO>> getAllLivros(Pageable pageable) {
-        return ResponseEntity.ok(livroService.findAll(pageable));
+    public ResponseEntity<Page<LivroDTO>> getAllLivros(Pageable pageable, @RequestParam(required = false) String fields,
+                                                       @RequestParam(required = false) String expand, WebRequest request) {
+        LivroFields livroFields = LivroFields.parse(fields, expand);
+        long versao = livroService.findVersaoColecao() + livroService.findVersaoExpansoes(livroFields);
+        if (ETags.notModified(request, () -> versao)) {
+            return null;
+        }
+        return ETags.ok(livroService.findAll(pageable, livroFields), versao);
+    }
+
+    @Operation(summary = "Lista livros por cursor",
+            description = "Paginação por cursor, ordenada por título: informe after vazio na primeira chamada e, nas seguintes, o nextCursor da resposta anterior. Não calcula o total."
+                    + FIELDS_DESCRIPTION)
+    @ApiResponse(responseCode = "200", description = "Página de livros")
+    @ApiResponse(responseCode = "400", description = "Cursor, campo ou expansão inválidos")
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPage<LivroDTO>> getAllLivrosAfter(@RequestParam String after, @RequestParam(defaultValue = "20") int size,
+                                                                  @RequestParam(required = false) String fields,
+                                                                  @RequestParam(required = false) String expand, WebRequest request) {
+        LivroFields livroFields = LivroFields.parse(fields, expand);
+        long versao = livroService.findVersaoColecao() + livroService.findVersaoExpansoes(livroFields);
+        if (ETags.notModified(request, () -> versao)) {
+            return null;
+        }
+        return ETags.ok(livroService.findAll(after, size, livroFields), versao);
     }
 
-    @Operation(summary = "Obtém um livro por ID", description = "Retorna um livro específico pelo seu ID")
+    @Operation(summary = "Obtém vários livros por ID",
+            description = "Retorna os livros dos ids informados (ex.: ids=1,2,3) na ordem pedida e lista em missingIds os que não existem, "
+                    + "com um número fixo de consultas. Até " + MultiGetResult.MAX_IDS + " ids; para listas longas use POST /lookup." + FIELDS_DESCRIPTION)
+    @ApiResponse(responseCode = "200", description = "Livros encontrados e ids inexistentes, com ETag da coleção")
+    @ApiResponse(responseCode = "304", description = "A coleção não mudou desde o ETag informado em If-None-Match")
+    @ApiResponse(responseCode = "400", description = "Ids demais, campo ou expansão desconhecidos")
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResult<LivroDTO>> getLivrosByIds(@RequestParam List<Long> ids, @RequestParam(required = false) String fields,
+                                                                   @RequestParam(required = false) String expand, WebRequest request) {
+        LivroFields livroFields = LivroFields.parse(fields, expand);
+        long versao = livroService.findVersaoColecao() + livroService.findVersaoExpansoes(livroFields);
+        if (ETags.notModified(request, () -> versao)) {
+            return null;
+        }
+        return ETags.ok(livroService.findAllById(ids, livroFields), versao);
+    }
+
+    @Operation(summary = "Obtém vários livros por ID (POST)",
+            description = "Como GET ?ids=, com os ids num array JSON no corpo, para listas que não cabem na URL." + FIELDS_DESCRIPTION)
+    @ApiResponse(responseCode = "200", description = "Livros encontrados e ids inexistentes")
+    @ApiResponse(responseCode = "400", description = "Ids demais, campo ou expansão desconhecidos")
+    @PostMapping("/lookup")
+    public ResponseEntity<MultiGetResult<LivroDTO>> lookupLivros(@RequestBody List<Long> ids, @RequestParam(required = false) String fields,
+                                                                 @RequestParam(required = false) String expand) {
+        return ResponseEntity.ok(livroService.findAllById(ids, LivroFields.parse(fields, expand)));
+    }
+
+    @Operation(summary = "Pesquisa livros",
+            description = "Busca textual em título, autores, assuntos e editora, sem distinção de acentos, com os resultados mais relevantes primeiro. "
+                    + "Aceita frases entre aspas, 'or' e '-' para excluir termos." + FIELDS_DESCRIPTION)
+    @GetMapping("/search")
+    public ResponseEntity<Page<LivroDTO>> searchLivros(@RequestParam("q") String query, Pageable pageable,
+                                                       @RequestParam(required = false) String fields,
+                                                       @RequestParam(required = false) String expand, WebRequest request) {
+        LivroFields livroFields = LivroFields.parse(fields, expand);
+        long versao = livroService.findVersaoColecao() + livroService.findVersaoExpansoes(livroFields);
+        if (ETags.notModified(request, () -> versao)) {
+            return null;
+        }
+        return ETags.ok(livroService.search(query, pageable, livroFields), versao);
+    }
+
+    @Operation(summary = "Contagens por faceta",
+            description = "Quantidade de livros por assunto, editora, década de publicação e faixa de valor, com o total, calculadas no banco."
+                    + " Aceita os mesmos filtros do relatório de livros por autor; as contagens ficam em cache até o catálogo mudar")
+    @ApiResponse(responseCode = "200", description = "Contagens, com ETag da versão do catálogo")
+    @ApiResponse(responseCode = "304", description = "O catálogo não mudou desde o ETag informado em If-None-Match")
+    @ApiResponse(responseCode = "422", description = "Filtros inválidos")
+    @GetMapping("/facets")
+    public ResponseEntity<LivroFacetasDTO> getFacetas(@ParameterObject @Valid LivroFiltro filtro, WebRequest request) {
+        long versao = livroFacetasService.findVersao();
+        if (ETags.notModified(request, () -> versao)) {
+            return null;
+        }
+        return ETags.ok(livroFacetasService.findFacetas(filtro, versao), versao);
+    }
+
+    @Operation(summary = "Exporta o catálogo em NDJSON",
+            description = "Transmite todos os livros, um objeto JSON por linha, lidos de um único cursor no banco e enviados à medida que são lidos."
+                    + " Cada linha traz as propriedades do livro e atualizadoEm."
+                    + " O cabeçalho " + EXPORT_SINCE_HEADER + " da resposta traz o marcador da próxima sincronização: passado em since, a exportação"
+                    + " traz só os livros alterados desde esta, sem perder nenhum (alguns podem se repetir)."
+                    + " Livros excluídos não aparecem na exportação")
+    @ApiResponse(responseCode = "200", description = "Livros exportados, com o marcador da próxima sincronização em " + EXPORT_SINCE_HEADER)
+    @ApiResponse(responseCode = "400", description = "since não é um marcador devolvido por uma exportação anterior")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportLivros(@RequestParam(required = false) Long since, HttpServletResponse response) {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(EXPORT_SINCE_HEADER, String.valueOf(livroExportService.currentSyncToken()));
+        // a StreamingResponseBody would run under the default async timeout, which a full export easily outlasts
+        return new WebAsyncTask<>(exportacaoProperties.getTimeout().toMillis(), () -> {
+            livroExportService.exportNdjson(since, response.getOutputStream());
+            return null;
+        });
+    }
+
+    @Operation(summary = "Obtém um livro por ID",
+            description = "Retorna um livro específico pelo seu ID." + FIELDS_DESCRIPTION
+                    + " O ETag de uma resposta com expand é recusado em If-Match (412)")
     @ApiResponse(responseCode = "200", description = "Livro encontrado")
+    @ApiResponse(responseCode = "400", description = "Campo ou expansão desconhecidos")
     @ApiResponse(responseCode = "404", description = "Livro não encontrado")
+    @ApiResponse(responseCode = "304", description = "O livro não mudou desde o ETag informado em If-None-Match")
     @GetMapping("/{id}")
-    public ResponseEntity<LivroDTO> getLivroById(@PathVariable Long id) {
-        return ResponseEntity.ok(livroService.findById(id));
+    public ResponseEntity<LivroDTO> getLivroById(@PathVariable Long id, @RequestParam(required = false) String fields,
+                                                 @RequestParam(required = false) String expand, WebRequest request) {
+        LivroFields livroFields = LivroFields.parse(fields, expand);
+        // read before the livro, so the ETag is never newer than the names embedded in the response
+        long versaoExpansoes = livroService.findVersaoExpansoes(livroFields);
+        // revalidating only needs the version, which is cheaper than loading and serializing the livro
+        if (ETags.notModified(request, () -> livroETag(livroFields, livroService.findVersaoById(id), versaoExpansoes))) {
+            return null;
+        }
+        LivroDTO livroDTO = livroService.findById(id, livroFields);
+        return ETags.ok(livroDTO, livroETag(livroFields, livroDTO.getVersao(), versaoExpansoes));
+    }
+
+    /**
+     * An expanded response depends on more than the livro's versao, so its tag has a format of its own that
+     * If-Match rejects instead of being read as a livro version.
+     */
+    private static String livroETag(LivroFields fields, long versao, long versaoExpansoes) {
+        return fields.expandsAutores() || fields.expandsAssuntos() ? ETags.of(versao, versaoExpansoes) : ETags.of(versao);
     }
 
     @Operation(summary = "Cria um novo livro", description = "Cria um novo livro no sistema")
@@ -41,25 +208,49 @@ public class LivroController {
     @PostMapping
     public ResponseEntity<LivroDTO> createLivro(@RequestBody @Valid LivroDTO livroDTO) {
         LivroDTO createdLivro = livroService.create(livroDTO);
-        return new ResponseEntity<>(createdLivro, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(createdLivro.getVersao())).body(createdLivro);
+    }
+
+    @Operation(summary = "Cria livros em lote",
+            description = "Recebe um array JSON ou um fluxo NDJSON de livros e os grava em blocos, informando as falhas de cada item sem interromper a carga")
+    @ApiResponse(responseCode = "200", description = "Carga processada; falhas individuais constam no resultado")
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<LivroBatchResultDTO> createLivrosBatch(InputStream body) throws IOException {
+        return ResponseEntity.ok(livroBatchService.createAll(body));
+    }
+
+    @Operation(summary = "Importa o catálogo a partir de CSV/TSV",
+            description = "Carrega o arquivo via COPY e atualiza autores, assuntos e livros por nome e título/editora/edição. "
+                    + "Colunas: titulo, editora, edicao, ano_publicacao, valor, autores, assuntos (vários separados por '|')")
+    @ApiResponse(responseCode = "200", description = "Importação concluída")
+    @ApiResponse(responseCode = "409", description = "Outra importação está em andamento")
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/tab-separated-values"})
+    public ResponseEntity<CatalogoImportResultDTO> importCatalogo(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                  InputStream body) {
+        DelimitedFormat format = DelimitedFormat.fromMediaType(MediaType.parseMediaType(contentType));
+        return ResponseEntity.ok(catalogoImportService.importCatalogo(format, body));
     }
 
     @Operation(summary = "Atualiza um livro existente", description = "Atualiza os dados de um livro pelo seu ID")
     @ApiResponse(responseCode = "200", description = "Livro atualizado com sucesso")
     @ApiResponse(responseCode = "400", description = "Dados de entrada inválidos")
     @ApiResponse(responseCode = "404", description = "Livro não encontrado")
+    @ApiResponse(responseCode = "412", description = "O livro mudou desde o ETag informado em If-Match")
     @PutMapping("/{id}")
-    public ResponseEntity<LivroDTO> updateLivro(@PathVariable Long id, @RequestBody @Valid LivroDTO livroDTO) {
-        LivroDTO updatedLivro = livroService.update(id, livroDTO);
-        return ResponseEntity.ok(updatedLivro);
+    public ResponseEntity<LivroDTO> updateLivro(@PathVariable Long id, @RequestBody @Valid LivroDTO livroDTO,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        LivroDTO updatedLivro = livroService.update(id, livroDTO, ETags.versaoFromIfMatch(ifMatch));
+        return ETags.ok(updatedLivro, updatedLivro.getVersao());
     }
 
     @Operation(summary = "Exclui um livro", description = "Remove um livro do sistema pelo seu ID")
     @ApiResponse(responseCode = "204", description = "Livro excluído com sucesso")
     @ApiResponse(responseCode = "404", description = "Livro não encontrado")
+    @ApiResponse(responseCode = "412", description = "O livro mudou desde o ETag informado em If-Match")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteLivro(@PathVariable Long id) {
-        livroService.delete(id);
+    public ResponseEntity<Void> deleteLivro(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        livroService.delete(id, ETags.versaoFromIfMatch(ifMatch));
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.example.biblioteca.api;
+
+import com.example.biblioteca.dto.LivroDTO;
+import com.example.biblioteca.dto.LivroFields;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Trims the JSON of livro responses to the {@code fields} of the request: the controller has already narrowed
+ * the query, this drops the properties that were not read instead of writing them as {@code null}.
+ */
+@ControllerAdvice(assignableTypes = LivroController.class)
+public class LivroFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType, MethodParameter returnType,
+                                           ServerHttpRequest request, ServerHttpResponse response) {
+        HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+        LivroFields fields = LivroFields.parse(servletRequest.getParameter("fields"), servletRequest.getParameter("expand"));
+        if (fields.isSparse()) {
+            bodyContainer.setFilters(new SimpleFilterProvider()
+                    .addFilter(LivroDTO.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields.jsonProperties())));
+        }
+    }
+}
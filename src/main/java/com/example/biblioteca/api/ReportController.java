@@ -1,18 +1,46 @@
 package com.example.biblioteca.api;
 
+import com.example.biblioteca.config.RelatorioProperties;
+import com.example.biblioteca.dto.LivroFiltro;
+import com.example.biblioteca.dto.RelatorioAtualizacaoDTO;
+import com.example.biblioteca.report.DelimitedFormat;
+import com.example.biblioteca.report.DelimitedReportService;
+import com.example.biblioteca.report.RelatorioMaterializadoService;
+import com.example.biblioteca.report.ReportCacheKey;
+import com.example.biblioteca.report.ReportFormat;
+import com.example.biblioteca.report.ReportJob;
+import com.example.biblioteca.report.ReportJobDTO;
+import com.example.biblioteca.report.ReportJobService;
 import com.example.biblioteca.report.ReportService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.io.FileNotFoundException;
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/relatorios")
@@ -22,14 +50,122 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
 
-    @Operation(summary = "Gera relatório de livros por autor", description = "Retorna um relatório em PDF agrupado por autor")
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private DelimitedReportService delimitedReportService;
+
+    @Autowired
+    private RelatorioMaterializadoService relatorioMaterializadoService;
+
+    @Autowired
+    private RelatorioProperties relatorioProperties;
+
+    @Operation(summary = "Gera relatório de livros por autor",
+            description = "Retorna o relatório agrupado por autor em PDF, HTML, XLSX ou CSV, conforme o parâmetro format ou o cabeçalho Accept, opcionalmente filtrado")
+    @ApiResponse(responseCode = "200", description = "Relatório gerado")
+    @ApiResponse(responseCode = "304", description = "Catálogo inalterado desde a versão informada em If-None-Match")
+    @ApiResponse(responseCode = "406", description = "Formato não suportado")
+    @ApiResponse(responseCode = "422", description = "Filtros inválidos")
     @GetMapping("/livros-por-autor")
-    public ResponseEntity<byte[]> getLivrosPorAutorReport() throws JRException, FileNotFoundException {
-        byte[] reportContent = reportService.exportReport("pdf");
+    public WebAsyncTask<Void> getLivrosPorAutorReport(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @ParameterObject @Valid LivroFiltro filtro,
+            WebRequest webRequest,
+            HttpServletResponse response) {
+        ReportFormat reportFormat = ReportFormat.negotiate(format, MediaType.parseMediaTypes(accept));
+        ReportCacheKey key = reportService.livrosPorAutorKey(reportFormat, filtro);
+        if (webRequest.checkNotModified(key.eTag())) {
+            // status and ETag are already set on the response
+            return null;
+        }
 
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDispositionFormData("filename", "livros-por-autor.pdf");
-        return ResponseEntity.ok().headers(headers).body(reportContent);
+        headers.setContentType(reportFormat.getMediaType());
+        headers.setContentDispositionFormData("filename", "livros-por-autor." + reportFormat.getExtension());
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        headers.setETag(key.eTag());
+        headers.setCacheControl(CacheControl.noCache());
+        copyHeaders(headers, response);
+        // a StreamingResponseBody would run under the default async timeout, which a large report easily outlasts
+        return new WebAsyncTask<>(relatorioProperties.getTimeout().toMillis(), () -> {
+            try {
+                reportService.exportReport(key, filtro, response.getOutputStream(), row -> { });
+            } catch (JRException e) {
+                throw new JRRuntimeException(e);
+            }
+            return null;
+        });
+    }
+
+    @Operation(summary = "Atualização dos dados do relatório de livros por autor",
+            description = "O relatório lê uma visão materializada, atualizada em segundo plano alguns segundos depois que o catálogo para de mudar."
+                    + " Informa quando foi a última atualização e se há mudanças no catálogo que o relatório ainda não mostra")
+    @ApiResponse(responseCode = "200", description = "Estado da atualização")
+    @GetMapping("/livros-por-autor/atualizacao")
+    public ResponseEntity<RelatorioAtualizacaoDTO> getLivrosPorAutorAtualizacao() {
+        return ResponseEntity.ok(relatorioMaterializadoService.findAtualizacao());
+    }
+
+    @Operation(summary = "Exporta livros por autor em CSV ou TSV",
+            description = "Transmite as linhas do relatório de livros por autor diretamente do banco, sem gerar documento")
+    @ApiResponse(responseCode = "200", description = "Linhas exportadas")
+    @ApiResponse(responseCode = "422", description = "Filtros inválidos")
+    @GetMapping("/livros-por-autor.{extension:csv|tsv}")
+    public WebAsyncTask<Void> exportLivrosPorAutor(@PathVariable String extension,
+                                                   @ParameterObject @Valid LivroFiltro filtro,
+                                                   HttpServletResponse response) {
+        DelimitedFormat format = DelimitedFormat.fromExtension(extension);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(format.getMediaType());
+        headers.setContentDispositionFormData("filename", "livros-por-autor." + format.getExtension());
+        copyHeaders(headers, response);
+        // a StreamingResponseBody would run under the default async timeout, which a large export easily outlasts
+        return new WebAsyncTask<>(relatorioProperties.getExport().getTimeout().toMillis(), () -> {
+            delimitedReportService.exportLivrosPorAutor(format, filtro, response.getOutputStream());
+            return null;
+        });
+    }
+
+    @Operation(summary = "Agenda a geração do relatório de livros por autor", description = "Enfileira o relatório para geração em segundo plano e retorna o job criado")
+    @ApiResponse(responseCode = "202", description = "Relatório enfileirado")
+    @ApiResponse(responseCode = "406", description = "Formato não suportado")
+    @ApiResponse(responseCode = "422", description = "Filtros inválidos")
+    @ApiResponse(responseCode = "503", description = "Fila de relatórios cheia")
+    @PostMapping("/jobs")
+    public ResponseEntity<ReportJobDTO> submitLivrosPorAutorJob(@RequestParam(defaultValue = "pdf") String format,
+                                                                @ParameterObject @Valid LivroFiltro filtro) {
+        ReportJob job = reportJobService.submit(ReportFormat.fromExtension(format), filtro);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.getId()).toUri();
+        return ResponseEntity.accepted().location(location).body(ReportJobDTO.from(job));
+    }
+
+    @Operation(summary = "Consulta um job de relatório", description = "Retorna a situação e o progresso de um relatório agendado")
+    @ApiResponse(responseCode = "200", description = "Job encontrado")
+    @ApiResponse(responseCode = "404", description = "Job não encontrado")
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ReportJobDTO> getJob(@PathVariable UUID id) {
+        return ResponseEntity.ok(ReportJobDTO.from(reportJobService.findById(id)));
+    }
+
+    @Operation(summary = "Baixa o relatório gerado por um job", description = "Retorna o conteúdo do relatório quando o job estiver concluído")
+    @ApiResponse(responseCode = "200", description = "Relatório concluído")
+    @ApiResponse(responseCode = "404", description = "Job não encontrado")
+    @ApiResponse(responseCode = "409", description = "Relatório ainda não concluído ou com falha")
+    @GetMapping("/jobs/{id}/content")
+    public ResponseEntity<Resource> getJobContent(@PathVariable UUID id) {
+        ReportJob job = reportJobService.findById(id);
+        Resource content = new FileSystemResource(reportJobService.getContent(id));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(job.getFormat().getMediaType());
+        headers.setContentDispositionFormData("filename", "livros-por-autor." + job.getFormat().getExtension());
+        return ResponseEntity.ok().headers(headers).body(content);
+    }
+
+    private static void copyHeaders(HttpHeaders headers, HttpServletResponse response) {
+        headers.forEach((name, values) -> response.setHeader(name, String.join(", ", values)));
     }
-}
\ No newline at end of file
+}
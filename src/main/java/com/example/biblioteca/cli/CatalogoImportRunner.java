@@ -0,0 +1,66 @@
+package com.example.biblioteca.cli;
+
+import com.example.biblioteca.dto.CatalogoImportResultDTO;
+import com.example.biblioteca.report.DelimitedFormat;
+import com.example.biblioteca.service.CatalogoImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Runs the catalogue import from the command line and exits, for scheduled refreshes:
+ * <pre>
+ * java -jar biblioteca.jar --spring.main.web-application-type=none --importar-catalogo=/dados/catalogo.csv
+ * </pre>
+ * The format is taken from the file extension ({@code .csv} or {@code .tsv}); the option may be repeated to import
+ * several files in order. The exit code is 0 when every file was imported and 1 otherwise.
+ */
+@Component
+public class CatalogoImportRunner implements ApplicationRunner {
+
+    static final String OPTION = "importar-catalogo";
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogoImportRunner.class);
+
+    @Autowired
+    private CatalogoImportService catalogoImportService;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        int exitCode = importFiles(args.getOptionValues(OPTION));
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    int importFiles(List<String> files) {
+        for (String file : files) {
+            Path path = Paths.get(file);
+            try (InputStream in = Files.newInputStream(path)) {
+                DelimitedFormat format = DelimitedFormat.fromExtension(StringUtils.getFilenameExtension(file));
+                CatalogoImportResultDTO result = catalogoImportService.importCatalogo(format, in);
+                logger.info("Imported {}: {} rows at {} rows/s", path, result.getRows(), result.getRowsPerSecond());
+            } catch (Exception e) {
+                logger.error("Catalogue import of {} failed: {}", path, e.getMessage(), e);
+                return 1;
+            }
+        }
+        return 0;
+    }
+}
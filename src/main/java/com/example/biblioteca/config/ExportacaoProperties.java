@@ -0,0 +1,27 @@
+package com.example.biblioteca.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "biblioteca.exportacao")
+@Getter
+@Setter
+public class ExportacaoProperties {
+
+    /**
+     * Rows pulled per round trip by the NDJSON export cursor. The response is flushed after each batch, so this
+     * also sets how much the client receives at a time.
+     */
+    private int fetchSize = 1000;
+
+    /**
+     * How long a single export may stream before the request is timed out; 0 for no limit. Exports of a large
+     * catalogue outlast the container's default async timeout (30 seconds on Tomcat), so they get their own.
+     */
+    private Duration timeout = Duration.ofHours(2);
+}
@@ -0,0 +1,36 @@
+package com.example.biblioteca.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "biblioteca.facetas")
+@Getter
+@Setter
+public class FacetasProperties {
+
+    /**
+     * Boundaries of the price bands: each value starts a band, and the first band holds everything below it.
+     */
+    private List<BigDecimal> faixasValor = new ArrayList<>(List.of(
+            new BigDecimal("20"), new BigDecimal("50"), new BigDecimal("100"), new BigDecimal("200")));
+
+    private final Cache cache = new Cache();
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        /**
+         * Maximum number of filters whose facet counts are kept in memory; least recently used ones are evicted
+         * first. Entries of older catalogue versions are never read again and age out the same way.
+         */
+        private long maxSize = 1_000;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.biblioteca.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+@ConfigurationProperties(prefix = "biblioteca.importacao")
+@Getter
+@Setter
+public class ImportacaoProperties {
+
+    /**
+     * Number of books validated and saved per transaction by the batch endpoint. A failing chunk is retried one
+     * book at a time, so smaller chunks make failures cheaper and larger ones make clean loads faster.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Bytes read from the uploaded file per COPY message sent to the database by the catalogue import.
+     */
+    private DataSize copyBufferSize = DataSize.ofKilobytes(64);
+}
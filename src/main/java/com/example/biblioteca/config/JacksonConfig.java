@@ -0,0 +1,19 @@
+package com.example.biblioteca.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * DTOs carrying a {@code @JsonFilter} serialize every property unless a response sets the filter, as the
+     * sparse livro responses do.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer defaultFilters() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+}
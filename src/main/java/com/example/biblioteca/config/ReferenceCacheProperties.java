@@ -0,0 +1,27 @@
+package com.example.biblioteca.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "biblioteca.cache.referencias")
+@Getter
+@Setter
+public class ReferenceCacheProperties {
+
+    /**
+     * Maximum number of authors, and separately of subjects, kept in memory; least recently used entries are
+     * evicted first.
+     */
+    private long maxSize = 10_000;
+
+    /**
+     * How long an entry is served after it was loaded. Writes through this instance invalidate entries right away;
+     * the TTL bounds how stale entries can get when another instance or plain SQL changes the tables.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,170 @@
+package com.example.biblioteca.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "biblioteca.relatorios")
+@Getter
+@Setter
+public class RelatorioProperties {
+
+    /**
+     * Number of rows fetched per round trip by the report cursor.
+     */
+    private int fetchSize = 500;
+
+    /**
+     * How long rendering and streaming a report on request may take before the request is timed out; 0 for no
+     * limit. Large reports outlast the container's default async timeout (30 seconds on Tomcat).
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    private final Jobs jobs = new Jobs();
+
+    private final Cache cache = new Cache();
+
+    private final Virtualizer virtualizer = new Virtualizer();
+
+    private final Export export = new Export();
+
+    private final Parallel parallel = new Parallel();
+
+    private final Materializacao materializacao = new Materializacao();
+
+    @Getter
+    @Setter
+    public static class Jobs {
+
+        /**
+         * Maximum number of reports rendered at the same time in the background.
+         */
+        private int maxConcurrency = 2;
+
+        /**
+         * Maximum number of submitted jobs waiting for a free worker before new submissions are rejected.
+         */
+        private int queueCapacity = 20;
+
+        /**
+         * How long finished jobs and their rendered content are kept before being discarded.
+         */
+        private Duration retention = Duration.ofMinutes(30);
+
+        /**
+         * Directory where rendered reports are written; defaults to the system temp directory.
+         */
+        private String directory = System.getProperty("java.io.tmpdir");
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        /**
+         * Total size of rendered reports kept in memory; least recently used reports are evicted first.
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Largest single document kept in the cache; bigger reports are streamed to the client without keeping a copy.
+         */
+        private DataSize maxEntrySize = DataSize.ofMegabytes(8);
+    }
+
+    @Getter
+    @Setter
+    public static class Virtualizer {
+
+        public enum Type {
+            SWAP_FILE,
+            GZIP
+        }
+
+        /**
+         * Reports expected to have more rows than this are filled with a virtualizer, keeping only
+         * {@code max-pages} pages in heap.
+         */
+        private long rowThreshold = 20_000;
+
+        private Type type = Type.SWAP_FILE;
+
+        /**
+         * Number of filled pages kept in heap; older pages are swapped to disk or compressed in memory.
+         */
+        private int maxPages = 50;
+
+        /**
+         * Directory for the swap files; defaults to the system temp directory.
+         */
+        private String directory = System.getProperty("java.io.tmpdir");
+
+        /**
+         * Swap file block size in bytes.
+         */
+        private int blockSize = 4096;
+
+        /**
+         * Minimum number of blocks by which the swap file grows when full.
+         */
+        private int minGrowCount = 1024;
+    }
+
+    @Getter
+    @Setter
+    public static class Export {
+
+        /**
+         * Size of the write buffer of CSV/TSV exports, flushed to the response whenever it fills up.
+         */
+        private DataSize bufferSize = DataSize.ofKilobytes(64);
+
+        /**
+         * How long a single CSV/TSV export may stream before the request is timed out; 0 for no limit. Exporting a
+         * large catalogue outlasts the container's default async timeout (30 seconds on Tomcat).
+         */
+        private Duration timeout = Duration.ofHours(2);
+    }
+
+    @Getter
+    @Setter
+    public static class Parallel {
+
+        /**
+         * Reports expected to have more rows than this are split by author and the partitions filled concurrently.
+         */
+        private long rowThreshold = 50_000;
+
+        /**
+         * Number of author partitions, which is also the number of threads filling them across all reports. Each
+         * partition reads through its own database connection; 1 disables partitioned rendering.
+         */
+        private int partitions = Math.min(4, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Getter
+    @Setter
+    public static class Materializacao {
+
+        /**
+         * How often the catalogue change counters are polled to decide whether the report view needs a refresh.
+         * Also read by the scheduler, which only understands ISO-8601 durations such as {@code PT5S}.
+         */
+        private Duration checkInterval = Duration.ofSeconds(5);
+
+        /**
+         * The view is refreshed once the catalogue has not changed for this long, so a burst of writes costs one refresh.
+         */
+        private Duration quietPeriod = Duration.ofSeconds(10);
+
+        /**
+         * Longest a pending change waits for a quiet period before the view is refreshed anyway.
+         */
+        private Duration maxDelay = Duration.ofMinutes(2);
+    }
+}
@@ -17,9 +17,14 @@ import lombok.EqualsAndHashCode;
 public class Assunto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assuntos_id_seq")
+    @SequenceGenerator(name = "assuntos_id_seq", sequenceName = "assuntos_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 100)
     private String descricao;
+
+    @Version
+    @Column(nullable = false)
+    private Long versao;
 }
@@ -17,9 +17,14 @@ import lombok.EqualsAndHashCode;
 public class Autor {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "autores_id_seq")
+    @SequenceGenerator(name = "autores_id_seq", sequenceName = "autores_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 100)
     private String nome;
+
+    @Version
+    @Column(nullable = false)
+    private Long versao;
 }
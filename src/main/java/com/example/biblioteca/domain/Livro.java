@@ -21,7 +21,8 @@ import java.util.Set;
 public class Livro {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "livros_id_seq")
+    @SequenceGenerator(name = "livros_id_seq", sequenceName = "livros_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 200)
@@ -54,4 +55,8 @@ public class Livro {
         inverseJoinColumns = @JoinColumn(name = "assunto_id")
     )
     private Set<Assunto> assuntos = new HashSet<>();
+
+    @Version
+    @Column(nullable = false)
+    private Long versao;
 }
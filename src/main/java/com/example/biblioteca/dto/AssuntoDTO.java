@@ -1,5 +1,6 @@
 package com.example.biblioteca.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
@@ -18,4 +19,10 @@ public class AssuntoDTO {
     @NotBlank(message = "A descrição do assunto é obrigatória")
     @Size(max = 100, message = "A descrição do assunto não pode exceder 100 caracteres")
     private String descricao;
-}
\ No newline at end of file
+
+    /**
+     * Sent as the ETag; ignored on input.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+}
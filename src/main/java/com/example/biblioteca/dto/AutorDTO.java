@@ -1,5 +1,6 @@
 package com.example.biblioteca.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
@@ -18,4 +19,10 @@ public class AutorDTO {
     @NotBlank(message = "O nome do autor é obrigatório")
     @Size(max = 100, message = "O nome do autor não pode exceder 100 caracteres")
     private String nome;
-}
\ No newline at end of file
+
+    /**
+     * Sent as the ETag; ignored on input.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+}
@@ -0,0 +1,38 @@
+package com.example.biblioteca.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class CatalogoImportResultDTO {
+
+    /**
+     * Data rows read from the file, header excluded.
+     */
+    private long rows;
+
+    /**
+     * Rows skipped because a required column is missing or a value doesn't fit its column.
+     */
+    private long rejected;
+
+    /**
+     * Rows superseded by a later row for the same book (same titulo, editora and edicao).
+     */
+    private long duplicates;
+
+    private long autoresCreated;
+
+    private long assuntosCreated;
+
+    private long livrosCreated;
+
+    private long livrosUpdated;
+
+    private long elapsedMillis;
+
+    private long rowsPerSecond;
+}
@@ -0,0 +1,47 @@
+package com.example.biblioteca.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of a keyset-paginated listing. Unlike {@link org.springframework.data.domain.Page} there is no total
+ * count; {@code nextCursor} is {@code null} on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    /**
+     * Same cap as Spring Data applies to {@code Pageable} sizes.
+     */
+    public static final int MAX_SIZE = 2000;
+
+    private final List<T> content;
+
+    private final int size;
+
+    private final String nextCursor;
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Builds the page from a query that asked for {@code size + 1} rows; the extra row only tells whether there is
+     * a next page and is dropped.
+     */
+    public static <E> CursorPage<E> of(List<E> rows, int size, Function<E, KeysetCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, size, null);
+        }
+        List<E> content = rows.subList(0, size);
+        return new CursorPage<>(content, size, cursorOf.apply(content.get(size - 1)).encode());
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> converter) {
+        return new CursorPage<>(content.stream().<R>map(converter).toList(), size, nextCursor);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.biblioteca.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetaDTO {
+
+    @Schema(description = "Valor agrupado: id do assunto, nome da editora, primeiro ano da década ou faixa de valor no formato mínimo-máximo (mínimo inclusive, máximo exclusive)")
+    private String chave;
+
+    @Schema(description = "Texto para exibição")
+    private String nome;
+
+    @Schema(description = "Quantidade de livros")
+    private long livros;
+}
@@ -0,0 +1,43 @@
+package com.example.biblioteca.dto;
+
+import com.example.biblioteca.exception.InvalidCursorException;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a cursor page: its sort key and id. Clients only see the encoded form, an opaque
+ * URL-safe token, so the representation can change without breaking them.
+ */
+public record KeysetCursor(String key, long id) {
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * @return {@code null} for a blank cursor, which asks for the first page
+     * @throws InvalidCursorException if {@code cursor} was not produced by {@link #encode()}
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 1) {
+                throw new IllegalArgumentException("missing separator");
+            }
+            return new KeysetCursor(decoded.substring(separator + 1), Long.parseLong(decoded.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * The id goes first: it never contains the separator, while the key may.
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((id + String.valueOf(SEPARATOR) + key).getBytes(StandardCharsets.UTF_8));
+    }
+}
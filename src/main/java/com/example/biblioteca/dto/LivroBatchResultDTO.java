@@ -0,0 +1,34 @@
+package com.example.biblioteca.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LivroBatchResultDTO {
+
+    private int total;
+
+    private int created;
+
+    private List<Failure> failures = new ArrayList<>();
+
+    /**
+     * A book that was not saved; {@code index} is its zero-based position in the request.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Failure {
+        private int index;
+        private String message;
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.biblioteca.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -11,14 +14,21 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Set;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonFilter(LivroDTO.FIELDS_FILTER)
 public class LivroDTO {
 
+    /**
+     * Filter trimming sparse responses to the requested {@link LivroFields}.
+     */
+    public static final String FIELDS_FILTER = "livroFields";
+
     private Long id;
 
     @NotBlank(message = "O título do livro é obrigatório")
@@ -42,4 +52,24 @@ public class LivroDTO {
     private Set<Long> autoresIds;
 
     private Set<Long> assuntosIds;
-}
\ No newline at end of file
+
+    /**
+     * Sent as the ETag; ignored on input.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+
+    /**
+     * Embedded on {@code expand=autores}, ordered by name; absent otherwise.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<AutorDTO> autores;
+
+    /**
+     * Embedded on {@code expand=assuntos}, ordered by descricao; absent otherwise.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<AssuntoDTO> assuntos;
+}
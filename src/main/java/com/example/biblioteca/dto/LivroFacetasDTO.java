@@ -0,0 +1,34 @@
+package com.example.biblioteca.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Book counts of the catalogue browser, grouped by subject, publisher, decade of publication and price band.
+ * Subjects and publishers come with the most books first; decades and price bands in ascending order.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LivroFacetasDTO {
+
+    @Schema(description = "Total de livros que atendem aos filtros")
+    private long total;
+
+    @Schema(description = "Um livro conta em cada um dos seus assuntos")
+    private List<FacetaDTO> assuntos = new ArrayList<>();
+
+    private List<FacetaDTO> editoras = new ArrayList<>();
+
+    @Schema(description = "Livros sem ano de publicação ficam de fora")
+    private List<FacetaDTO> decadas = new ArrayList<>();
+
+    private List<FacetaDTO> faixasValor = new ArrayList<>();
+}
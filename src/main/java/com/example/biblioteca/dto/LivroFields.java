@@ -0,0 +1,82 @@
+package com.example.biblioteca.dto;
+
+import com.example.biblioteca.exception.InvalidFieldsException;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Shape of a livro response, from the {@code fields} and {@code expand} query parameters: which properties of
+ * {@link LivroDTO} it carries, and which associations are embedded with their names instead of only their ids.
+ * No {@code fields} means every property; the id is always sent.
+ */
+public record LivroFields(Set<String> fields, Set<String> expand) {
+
+    public static final LivroFields ALL = new LivroFields(Set.of(), Set.of());
+
+    public static final List<String> PROPERTIES = List.of(
+            "id", "titulo", "editora", "edicao", "anoPublicacao", "valor", "autoresIds", "assuntosIds", "versao");
+
+    public static final List<String> EXPANSIONS = List.of("autores", "assuntos");
+
+    /**
+     * @param fields comma separated properties of {@link LivroDTO}, or blank for all
+     * @param expand comma separated associations to embed, or blank for none
+     * @throws InvalidFieldsException if a name is not one of {@link #PROPERTIES} or {@link #EXPANSIONS}
+     */
+    public static LivroFields parse(String fields, String expand) {
+        return new LivroFields(names(fields, PROPERTIES, "field"), names(expand, EXPANSIONS, "expansion"));
+    }
+
+    public boolean isSparse() {
+        return !fields.isEmpty();
+    }
+
+    public boolean expandsAutores() {
+        return expand.contains("autores");
+    }
+
+    public boolean expandsAssuntos() {
+        return expand.contains("assuntos");
+    }
+
+    /**
+     * Whether {@code property} has to be read: it is in the response, or the ids behind an expansion.
+     */
+    public boolean reads(String property) {
+        return !isSparse() || fields.contains(property) || property.equals("id")
+                || property.equals("autoresIds") && expandsAutores()
+                || property.equals("assuntosIds") && expandsAssuntos();
+    }
+
+    /**
+     * Properties written to the JSON of a sparse response: the requested ones, the id and the expansions.
+     */
+    public Set<String> jsonProperties() {
+        Set<String> properties = new LinkedHashSet<>();
+        properties.add("id");
+        properties.addAll(fields);
+        properties.addAll(expand);
+        return properties;
+    }
+
+    private static Set<String> names(String list, List<String> allowed, String kind) {
+        Set<String> names = new LinkedHashSet<>();
+        if (!StringUtils.hasText(list)) {
+            return names;
+        }
+        for (String name : list.split(",")) {
+            String trimmed = name.strip();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(trimmed)) {
+                throw new InvalidFieldsException("Unknown livro " + kind + " '" + trimmed + "'; use one of " + allowed);
+            }
+            names.add(trimmed);
+        }
+        return names;
+    }
+}
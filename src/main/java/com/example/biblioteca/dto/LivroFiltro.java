@@ -0,0 +1,136 @@
+package com.example.biblioteca.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Optional criteria narrowing the catalogue down to the books of interest. Every criterion left empty matches
+ * all books; the ones that are set must all match.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class LivroFiltro {
+
+    @Schema(description = "Somente livros de algum destes autores")
+    private List<Long> autorIds;
+
+    @Schema(description = "Somente livros com algum destes assuntos")
+    private List<Long> assuntoIds;
+
+    @Schema(description = "Editora, sem diferenciar maiúsculas de minúsculas")
+    private String editora;
+
+    @Min(value = 0, message = "O ano inicial deve ter até 4 dígitos")
+    @Max(value = 9999, message = "O ano inicial deve ter até 4 dígitos")
+    private Integer anoInicio;
+
+    @Min(value = 0, message = "O ano final deve ter até 4 dígitos")
+    @Max(value = 9999, message = "O ano final deve ter até 4 dígitos")
+    private Integer anoFim;
+
+    @DecimalMin(value = "0.00", message = "O valor mínimo deve ser igual ou maior que 0.00")
+    private BigDecimal valorMinimo;
+
+    @DecimalMin(value = "0.00", message = "O valor máximo deve ser igual ou maior que 0.00")
+    private BigDecimal valorMaximo;
+
+    @Schema(hidden = true)
+    @AssertTrue(message = "O ano inicial não pode ser posterior ao ano final")
+    public boolean isAnoIntervaloValido() {
+        return anoInicio == null || anoFim == null || anoInicio <= anoFim;
+    }
+
+    @Schema(hidden = true)
+    @AssertTrue(message = "O valor mínimo não pode ser maior que o valor máximo")
+    public boolean isValorIntervaloValido() {
+        return valorMinimo == null || valorMaximo == null || valorMinimo.compareTo(valorMaximo) <= 0;
+    }
+
+    @Schema(hidden = true)
+    public boolean isEmpty() {
+        return toParameters().isEmpty();
+    }
+
+    /**
+     * Canonical form of the criteria that are set, suitable as part of a cache key: equivalent filters (ids in a
+     * different order, repeated ids, differently scaled values) produce the same map.
+     */
+    public Map<String, String> toParameters() {
+        Map<String, String> parameters = new TreeMap<>();
+        if (autorIds != null && !autorIds.isEmpty()) {
+            parameters.put("autorIds", joinSorted(autorIds));
+        }
+        if (assuntoIds != null && !assuntoIds.isEmpty()) {
+            parameters.put("assuntoIds", joinSorted(assuntoIds));
+        }
+        if (editora != null && !editora.isBlank()) {
+            parameters.put("editora", editora.trim().toLowerCase());
+        }
+        if (anoInicio != null) {
+            parameters.put("anoInicio", anoInicio.toString());
+        }
+        if (anoFim != null) {
+            parameters.put("anoFim", anoFim.toString());
+        }
+        if (valorMinimo != null) {
+            parameters.put("valorMinimo", valorMinimo.stripTrailingZeros().toPlainString());
+        }
+        if (valorMaximo != null) {
+            parameters.put("valorMaximo", valorMaximo.stripTrailingZeros().toPlainString());
+        }
+        return parameters;
+    }
+
+    /**
+     * Human readable summary of the criteria, printed in report headers; {@code null} when nothing is filtered.
+     */
+    public String descricao() {
+        List<String> partes = new ArrayList<>();
+        if (autorIds != null && !autorIds.isEmpty()) {
+            partes.add("Autores: " + joinSorted(autorIds).replace(",", ", "));
+        }
+        if (assuntoIds != null && !assuntoIds.isEmpty()) {
+            partes.add("Assuntos: " + joinSorted(assuntoIds).replace(",", ", "));
+        }
+        if (editora != null && !editora.isBlank()) {
+            partes.add("Editora: " + editora.trim());
+        }
+        if (anoInicio != null || anoFim != null) {
+            partes.add("Ano: " + intervalo(anoInicio, anoFim));
+        }
+        if (valorMinimo != null || valorMaximo != null) {
+            partes.add("Valor: " + intervalo(valorMinimo, valorMaximo));
+        }
+        return partes.isEmpty() ? null : String.join(" | ", partes);
+    }
+
+    private static String joinSorted(Collection<Long> ids) {
+        return new TreeSet<>(ids).stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private static String intervalo(Object inicio, Object fim) {
+        if (inicio == null) {
+            return "até " + fim;
+        }
+        if (fim == null) {
+            return "a partir de " + inicio;
+        }
+        return inicio + " a " + fim;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.biblioteca.dto;
+
+import com.example.biblioteca.exception.TooManyIdsException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Answer to a lookup of many ids at once: the resources found, in the order their ids were requested, and the
+ * ids that matched nothing. A missing id doesn't fail the lookup.
+ */
+@Getter
+@AllArgsConstructor
+public class MultiGetResult<T> {
+
+    /**
+     * Keeps a lookup to one reasonably sized query; larger sets should be split by the client.
+     */
+    public static final int MAX_IDS = 1000;
+
+    private final List<T> content;
+
+    private final List<Long> missingIds;
+
+    /**
+     * The ids to look up: repeated ids are looked up once, at their first position.
+     *
+     * @throws TooManyIdsException if there are more than {@link #MAX_IDS} distinct ids
+     */
+    public static Set<Long> distinct(Collection<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>();
+        ids.stream().filter(Objects::nonNull).forEach(distinct::add);
+        if (distinct.size() > MAX_IDS) {
+            throw new TooManyIdsException("Cannot look up " + distinct.size() + " ids at once; the maximum is " + MAX_IDS);
+        }
+        return distinct;
+    }
+
+    /**
+     * @param ids   the ids from {@link #distinct(Collection)}
+     * @param found what the lookup found, keyed by id
+     */
+    public static <E> MultiGetResult<E> of(Set<Long> ids, Map<Long, E> found) {
+        List<E> content = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            E item = found.get(id);
+            if (item != null) {
+                content.add(item);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new MultiGetResult<>(content, missingIds);
+    }
+}
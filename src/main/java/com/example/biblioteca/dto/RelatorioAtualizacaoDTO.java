@@ -0,0 +1,28 @@
+package com.example.biblioteca.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioAtualizacaoDTO {
+
+    @Schema(description = "Quando os dados do relatório foram atualizados pela última vez")
+    private OffsetDateTime atualizadoEm;
+
+    @Schema(description = "Se o catálogo mudou desde a última atualização; as mudanças entram na próxima")
+    private boolean desatualizado;
+
+    @Schema(description = "Segundos desde a primeira mudança do catálogo ainda não aplicada, 0 quando o relatório reflete o catálogo atual")
+    private long defasagemSegundos;
+
+    @Schema(description = "Versão dos dados do relatório, incrementada a cada atualização")
+    private long versao;
+}
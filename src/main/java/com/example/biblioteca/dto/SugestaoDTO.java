@@ -0,0 +1,20 @@
+package com.example.biblioteca.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A typeahead suggestion: the id and display text of an author (nome) or subject (descricao).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugestaoDTO {
+
+    private Long id;
+
+    private String texto;
+}
@@ -0,0 +1,12 @@
+package com.example.biblioteca.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class CatalogoImportInProgressException extends RuntimeException {
+
+    public CatalogoImportInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.biblioteca.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ReportJobNotReadyException extends RuntimeException {
+
+    public ReportJobNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.biblioteca.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ReportJobRejectedException extends RuntimeException {
+
+    public ReportJobRejectedException(String message) {
+        super(message);
+    }
+
+    public ReportJobRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.biblioteca.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_ACCEPTABLE)
+public class UnsupportedReportFormatException extends RuntimeException {
+
+    public UnsupportedReportFormatException(String message) {
+        super(message);
+    }
+}
@@ -19,6 +19,8 @@ public interface LivroMapper {
 
     @Mapping(target = "autoresIds", source = "autores", qualifiedByName = "autoresToAutorIds")
     @Mapping(target = "assuntosIds", source = "assuntos", qualifiedByName = "assuntosToAssuntoIds")
+    @Mapping(target = "autores", ignore = true) // Only embedded on request, see LivroFields
+    @Mapping(target = "assuntos", ignore = true)
     LivroDTO toDto(Livro livro);
 
     @Mapping(target = "autores", ignore = true) // Handled by service
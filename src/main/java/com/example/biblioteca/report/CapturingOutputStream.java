@@ -0,0 +1,51 @@
+package com.example.biblioteca.report;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Passes everything through to the target stream while keeping a copy of the first {@code limit} bytes, so a
+ * streamed document can still be cached when it turns out to be small enough.
+ */
+class CapturingOutputStream extends FilterOutputStream {
+
+    private final long limit;
+    private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+    CapturingOutputStream(OutputStream out, long limit) {
+        super(out);
+        this.limit = limit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        capture(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        capture(b, off, len);
+    }
+
+    /**
+     * @return everything written so far, or {@code null} if more than {@code limit} bytes were written
+     */
+    byte[] getCaptured() {
+        return copy == null ? null : copy.toByteArray();
+    }
+
+    private void capture(byte[] b, int off, int len) {
+        if (copy == null) {
+            return;
+        }
+        if (copy.size() + len > limit) {
+            copy = null;
+            return;
+        }
+        copy.write(b, off, len);
+    }
+}
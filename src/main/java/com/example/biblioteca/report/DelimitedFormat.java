@@ -0,0 +1,45 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.exception.UnsupportedReportFormatException;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Flat text formats for bulk exports, rendered without Jasper. CSV follows RFC 4180; TSV has no quoting, so
+ * tabs and line breaks inside values are replaced by spaces.
+ */
+@Getter
+public enum DelimitedFormat {
+
+    CSV("csv", ',', "\r\n", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+    TSV("tsv", '\t', "\n", new MediaType("text", "tab-separated-values", StandardCharsets.UTF_8));
+
+    private final String extension;
+    private final char delimiter;
+    private final String lineSeparator;
+    private final MediaType mediaType;
+
+    DelimitedFormat(String extension, char delimiter, String lineSeparator, MediaType mediaType) {
+        this.extension = extension;
+        this.delimiter = delimiter;
+        this.lineSeparator = lineSeparator;
+        this.mediaType = mediaType;
+    }
+
+    public static DelimitedFormat fromExtension(String extension) {
+        return Arrays.stream(values())
+                .filter(format -> format.extension.equalsIgnoreCase(extension))
+                .findFirst()
+                .orElseThrow(() -> new UnsupportedReportFormatException("Unsupported export format: " + extension));
+    }
+
+    public static DelimitedFormat fromMediaType(MediaType mediaType) {
+        return Arrays.stream(values())
+                .filter(format -> format.mediaType.isCompatibleWith(mediaType))
+                .findFirst()
+                .orElseThrow(() -> new UnsupportedReportFormatException("Unsupported import format: " + mediaType));
+    }
+}
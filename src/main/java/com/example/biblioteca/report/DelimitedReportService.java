@@ -0,0 +1,62 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.config.RelatorioProperties;
+import com.example.biblioteca.dto.LivroFiltro;
+import com.example.biblioteca.repository.RelatorioLivroRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Bulk exports of the catalogue as flat rows, for consumers that have no use for a laid-out document.
+ */
+@Service
+public class DelimitedReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DelimitedReportService.class);
+
+    @Autowired
+    private RelatorioLivroRepository relatorioLivroRepository;
+
+    @Autowired
+    private RelatorioProperties relatorioProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Streams every livros-por-autor row to {@code out}; {@code out} is flushed but not closed.
+     *
+     * @return number of rows written
+     */
+    public long exportLivrosPorAutor(DelimitedFormat format, LivroFiltro filtro, OutputStream out) {
+        long start = System.currentTimeMillis();
+        int bufferSize = (int) relatorioProperties.getExport().getBufferSize().toBytes();
+        // PostgreSQL only streams through a cursor inside a transaction
+        Long rows = readOnlyTransaction.execute(status -> relatorioLivroRepository.streamLivrosPorAutor(filtro, rs -> {
+            try {
+                return new DelimitedReportWriter(out, format, bufferSize).writeAll(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        logger.debug("Exported {} livros-por-autor rows as {} in {} ms", rows, format, System.currentTimeMillis() - start);
+        return rows != null ? rows : 0L;
+    }
+}
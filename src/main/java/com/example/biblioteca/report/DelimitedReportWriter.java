@@ -0,0 +1,102 @@
+package com.example.biblioteca.report;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes livros-por-autor rows as CSV or TSV straight from the report cursor.
+ * <p>
+ * Values are copied from the {@link ResultSet} into a fixed-size character buffer, so memory use does not depend
+ * on the number of rows. The columns are those of {@link RelatorioLivroDTO}, in the same order, and the result
+ * set is expected to select them in that order.
+ */
+public class DelimitedReportWriter {
+
+    static final String[] HEADER = {
+            "autorNome", "tituloLivro", "editoraLivro", "edicaoLivro", "anoPublicacaoLivro", "valorLivro", "assuntosLivro"
+    };
+
+    private final Writer writer;
+    private final DelimitedFormat format;
+
+    /**
+     * @param bufferSize number of characters buffered before they are encoded and written to {@code out}
+     */
+    public DelimitedReportWriter(OutputStream out, DelimitedFormat format, int bufferSize) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), bufferSize);
+        this.format = format;
+    }
+
+    /**
+     * Writes the header and every remaining row of {@code resultSet}, then flushes; {@code out} is left open.
+     *
+     * @return number of rows written, not counting the header
+     */
+    public long writeAll(ResultSet resultSet) throws SQLException, IOException {
+        for (int i = 0; i < HEADER.length; i++) {
+            writeField(i, HEADER[i]);
+        }
+        writer.write(format.getLineSeparator());
+        long rows = 0;
+        while (resultSet.next()) {
+            for (int i = 0; i < HEADER.length; i++) {
+                writeField(i, resultSet.getString(i + 1));
+            }
+            writer.write(format.getLineSeparator());
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private void writeField(int index, String value) throws IOException {
+        if (index > 0) {
+            writer.write(format.getDelimiter());
+        }
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (format == DelimitedFormat.TSV) {
+            writeTsvValue(value);
+        } else if (needsQuoting(value)) {
+            writeQuotedValue(value);
+        } else {
+            writer.write(value);
+        }
+    }
+
+    private boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == format.getDelimiter() || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeQuotedValue(String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private void writeTsvValue(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            writer.write(c == '\t' || c == '\r' || c == '\n' ? ' ' : c);
+        }
+    }
+}
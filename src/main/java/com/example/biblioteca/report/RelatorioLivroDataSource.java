@@ -0,0 +1,71 @@
+package com.example.biblioteca.report;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Feeds the report filler straight from an open, forward-only {@link ResultSet}, so rows are pulled from
+ * the database cursor as Jasper consumes them instead of being materialized upfront.
+ * <p>
+ * The result set is owned by the caller and must stay open for the whole fill.
+ */
+public class RelatorioLivroDataSource implements JRDataSource {
+
+    private static final Map<String, String> COLUMNS_BY_FIELD = Map.of(
+            "autorNome", "autor_nome",
+            "tituloLivro", "titulo_livro",
+            "editoraLivro", "editora_livro",
+            "edicaoLivro", "edicao_livro",
+            "anoPublicacaoLivro", "ano_publicacao_livro",
+            "valorLivro", "valor_livro",
+            "assuntosLivro", "assuntos_livro"
+    );
+
+    private final ResultSet resultSet;
+    private final LongConsumer rowListener;
+    private long rowCount;
+
+    public RelatorioLivroDataSource(ResultSet resultSet) {
+        this(resultSet, row -> { });
+    }
+
+    /**
+     * @param rowListener notified with the running row count each time the filler advances the cursor
+     */
+    public RelatorioLivroDataSource(ResultSet resultSet, LongConsumer rowListener) {
+        this.resultSet = resultSet;
+        this.rowListener = rowListener;
+    }
+
+    @Override
+    public boolean next() throws JRException {
+        try {
+            boolean hasNext = resultSet.next();
+            if (hasNext) {
+                rowListener.accept(++rowCount);
+            }
+            return hasNext;
+        } catch (SQLException e) {
+            throw new JRException("Could not advance report cursor", e);
+        }
+    }
+
+    @Override
+    public Object getFieldValue(JRField field) throws JRException {
+        String column = COLUMNS_BY_FIELD.get(field.getName());
+        if (column == null) {
+            throw new JRException("Unknown report field: " + field.getName());
+        }
+        try {
+            return resultSet.getObject(column, field.getValueClass());
+        } catch (SQLException e) {
+            throw new JRException("Could not read report field " + field.getName(), e);
+        }
+    }
+}
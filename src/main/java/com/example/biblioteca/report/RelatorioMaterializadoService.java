@@ -0,0 +1,144 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.config.RelatorioProperties;
+import com.example.biblioteca.dto.RelatorioAtualizacaoDTO;
+import com.example.biblioteca.repository.RelatorioMaterializadoRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Keeps the materialized livros-por-autor view (migration V9) close to the catalogue.
+ * <p>
+ * The catalogue change counters are polled every {@code check-interval}. A change is not applied right away: the
+ * refresh waits until the catalogue has been quiet for {@code quiet-period}, so a burst of writes such as an import
+ * costs a single refresh, but never waits more than {@code max-delay} after the first pending change, so a steady
+ * trickle of writes can't postpone it forever. Only one instance refreshes at a time; the others see the new state
+ * on their next check.
+ */
+@Service
+public class RelatorioMaterializadoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatorioMaterializadoService.class);
+
+    @Autowired
+    private RelatorioMaterializadoRepository relatorioMaterializadoRepository;
+
+    @Autowired
+    private RelatorioProperties relatorioProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private long versaoObservada = -1;
+
+    private Instant mudouEm;
+
+    /**
+     * First check that saw the catalogue ahead of the view. Written under the lock of {@link #refreshIfChanged(Instant)},
+     * read without it by {@link #findAtualizacao()}, which must not wait for a refresh to finish.
+     */
+    private volatile Instant pendenteDesde;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Version of the report data, bumped by every refresh: reports rendered under the same version are identical.
+     */
+    public long currentVersion() {
+        return relatorioMaterializadoRepository.findEstado().versao();
+    }
+
+    public RelatorioAtualizacaoDTO findAtualizacao() {
+        return findAtualizacao(Instant.now());
+    }
+
+    /**
+     * The lag is measured from the first pending change this instance noticed, not from the last refresh: a view
+     * refreshed an hour ago over a catalogue that changed a second ago is a second behind. Changes are noticed on the
+     * next check, so the lag is accurate to {@code check-interval}, and 0 until then.
+     */
+    RelatorioAtualizacaoDTO findAtualizacao(Instant agora) {
+        RelatorioMaterializadoRepository.Estado estado = relatorioMaterializadoRepository.findEstado();
+        boolean desatualizado = relatorioMaterializadoRepository.findVersaoCatalogo() != estado.versaoCatalogo();
+        Instant pendente = pendenteDesde;
+        long defasagem = desatualizado && pendente != null ? Math.max(0, Duration.between(pendente, agora).toSeconds()) : 0;
+        return new RelatorioAtualizacaoDTO(estado.atualizadaEm(), desatualizado, defasagem, estado.versao());
+    }
+
+    @Scheduled(fixedDelayString = "${biblioteca.relatorios.materializacao.check-interval:PT5S}")
+    public void refreshIfChanged() {
+        try {
+            refreshIfChanged(Instant.now());
+        } catch (DataAccessException e) {
+            logger.warn("Could not refresh the livros-por-autor view, retrying on the next check: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return whether the view was refreshed
+     */
+    synchronized boolean refreshIfChanged(Instant agora) {
+        long versaoCatalogo = relatorioMaterializadoRepository.findVersaoCatalogo();
+        if (versaoCatalogo == relatorioMaterializadoRepository.findEstado().versaoCatalogo()) {
+            pendenteDesde = null;
+            return false;
+        }
+        if (versaoCatalogo != versaoObservada) {
+            versaoObservada = versaoCatalogo;
+            mudouEm = agora;
+        }
+        if (pendenteDesde == null) {
+            pendenteDesde = agora;
+        }
+        RelatorioProperties.Materializacao materializacao = relatorioProperties.getMaterializacao();
+        boolean quieto = !agora.isBefore(mudouEm.plus(materializacao.getQuietPeriod()));
+        boolean atrasado = !agora.isBefore(pendenteDesde.plus(materializacao.getMaxDelay()));
+        if (!quieto && !atrasado) {
+            return false;
+        }
+        if (!refresh()) {
+            return false;
+        }
+        pendenteDesde = null;
+        return true;
+    }
+
+    /**
+     * Refreshes the view now, unless another instance is already doing it.
+     *
+     * @return {@code false} if another refresh was running
+     */
+    public boolean refresh() {
+        long start = System.currentTimeMillis();
+        Boolean refreshed = transactionTemplate.execute(status -> {
+            if (!relatorioMaterializadoRepository.tryLock()) {
+                return false;
+            }
+            // read first: the refresh sees at least this version, never an older one
+            long versaoCatalogo = relatorioMaterializadoRepository.findVersaoCatalogo();
+            relatorioMaterializadoRepository.refresh(versaoCatalogo);
+            return true;
+        });
+        if (Boolean.TRUE.equals(refreshed)) {
+            logger.info("Refreshed the livros-por-autor view in {} ms", System.currentTimeMillis() - start);
+            return true;
+        }
+        logger.debug("Livros-por-autor view is being refreshed by another instance");
+        return false;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.config.RelatorioProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size-bounded in-memory cache of rendered report documents.
+ * <p>
+ * Entries never need explicit invalidation: the catalogue data version is part of the key, so a write simply
+ * makes older entries unreachable and they age out as new reports are cached.
+ */
+@Component
+public class ReportCache {
+
+    @Autowired
+    private RelatorioProperties relatorioProperties;
+
+    private Cache<ReportCacheKey, byte[]> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(relatorioProperties.getCache().getMaxSize().toBytes())
+                .weigher((ReportCacheKey key, byte[] content) -> content.length)
+                .build();
+    }
+
+    /**
+     * Documents larger than this are not worth buffering while they are streamed, since they would not be cached.
+     */
+    public long maxEntrySize() {
+        return relatorioProperties.getCache().getMaxEntrySize().toBytes();
+    }
+
+    public byte[] get(ReportCacheKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(ReportCacheKey key, byte[] content) {
+        cache.put(key, content);
+    }
+}
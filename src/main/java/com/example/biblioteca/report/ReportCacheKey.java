@@ -0,0 +1,32 @@
+package com.example.biblioteca.report;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Identifies a rendered report: the same template, format and parameters rendered from the same catalogue
+ * data version always produce the same document.
+ */
+public record ReportCacheKey(String template, ReportFormat format, Map<String, String> parameters, long dataVersion) {
+
+    public ReportCacheKey {
+        parameters = new TreeMap<>(parameters);
+    }
+
+    /**
+     * Strong entity tag derived from the key alone, so conditional requests can be answered without rendering.
+     */
+    public String eTag() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.exception.UnsupportedReportFormatException;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Document formats reports can be exported to. The declaration order is the preference order used when the
+ * client accepts any format.
+ */
+@Getter
+public enum ReportFormat {
+
+    PDF("pdf", MediaType.APPLICATION_PDF),
+    HTML("html", new MediaType("text", "html", StandardCharsets.UTF_8)),
+    XLSX("xlsx", MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")),
+    CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    ReportFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public static ReportFormat fromExtension(String extension) {
+        return Arrays.stream(values())
+                .filter(format -> format.extension.equalsIgnoreCase(extension))
+                .findFirst()
+                .orElseThrow(() -> new UnsupportedReportFormatException("Unsupported report format: " + extension));
+    }
+
+    /**
+     * Picks the format for a request: an explicit {@code format} parameter wins, otherwise the most preferred
+     * media type in {@code Accept} that matches a supported format. No preference at all means PDF.
+     */
+    public static ReportFormat negotiate(String format, List<MediaType> accepted) {
+        if (format != null && !format.isBlank()) {
+            return fromExtension(format);
+        }
+        if (accepted.isEmpty()) {
+            return PDF;
+        }
+        List<MediaType> byPreference = new ArrayList<>(accepted);
+        MimeTypeUtils.sortBySpecificity(byPreference);
+        for (MediaType mediaType : byPreference) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (ReportFormat candidate : values()) {
+                if (mediaType.includes(candidate.mediaType)) {
+                    return candidate;
+                }
+            }
+        }
+        throw new UnsupportedReportFormatException("None of the accepted media types is a supported report format: " + accepted);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.dto.LivroFiltro;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * State of a report rendered in the background. Updated by the worker thread and read by API requests.
+ */
+@Getter
+public class ReportJob {
+
+    private final UUID id = UUID.randomUUID();
+    private final ReportFormat format;
+    private final LivroFiltro filtro;
+    private final Instant createdAt = Instant.now();
+    private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile long rowsProcessed;
+    private volatile String errorMessage;
+    private volatile Path content;
+
+    public ReportJob(ReportFormat format, LivroFiltro filtro) {
+        this.format = format;
+        this.filtro = filtro;
+    }
+
+    void markRunning() {
+        startedAt = Instant.now();
+        status = ReportJobStatus.RUNNING;
+    }
+
+    void markCompleted(Path content) {
+        this.content = content;
+        finishedAt = Instant.now();
+        status = ReportJobStatus.COMPLETED;
+    }
+
+    void markFailed(String errorMessage) {
+        this.errorMessage = errorMessage;
+        finishedAt = Instant.now();
+        status = ReportJobStatus.FAILED;
+    }
+
+    void setRowsProcessed(long rowsProcessed) {
+        this.rowsProcessed = rowsProcessed;
+    }
+
+    public boolean isFinished() {
+        return status == ReportJobStatus.COMPLETED || status == ReportJobStatus.FAILED;
+    }
+}
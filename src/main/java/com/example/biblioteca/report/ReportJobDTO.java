@@ -0,0 +1,40 @@
+package com.example.biblioteca.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDTO {
+    private UUID id;
+    private String format;
+    private Map<String, String> filtros;
+    private ReportJobStatus status;
+    private long rowsProcessed;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String errorMessage;
+
+    public static ReportJobDTO from(ReportJob job) {
+        return new ReportJobDTO(
+                job.getId(),
+                job.getFormat().getExtension(),
+                job.getFiltro().toParameters(),
+                job.getStatus(),
+                job.getRowsProcessed(),
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt(),
+                job.getErrorMessage()
+        );
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.config.RelatorioProperties;
+import com.example.biblioteca.dto.LivroFiltro;
+import com.example.biblioteca.exception.ReportJobNotReadyException;
+import com.example.biblioteca.exception.ReportJobRejectedException;
+import com.example.biblioteca.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders reports in the background so API requests don't hold a servlet thread and a database connection
+ * for the whole fill and export.
+ * <p>
+ * Jobs run on a dedicated, bounded executor: at most {@code max-concurrency} reports are rendered at once and
+ * at most {@code queue-capacity} wait for a worker. Submissions beyond that are rejected instead of queuing
+ * without limit, so report bursts cannot starve the connection pool used by regular CRUD traffic.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private RelatorioProperties relatorioProperties;
+
+    private final Map<UUID, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        RelatorioProperties.Jobs config = relatorioProperties.getJobs();
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(config.getMaxConcurrency());
+        executor.setMaxPoolSize(config.getMaxConcurrency());
+        executor.setQueueCapacity(config.getQueueCapacity());
+        executor.setThreadNamePrefix("relatorio-job-");
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        jobs.values().forEach(this::deleteContent);
+    }
+
+    public ReportJob submit(ReportFormat format, LivroFiltro filtro) {
+        ReportJob job = new ReportJob(format, filtro);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> render(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            throw new ReportJobRejectedException("Report queue is full, try again later", e);
+        }
+        logger.debug("Report job {} queued ({})", job.getId(), format);
+        return job;
+    }
+
+    public ReportJob findById(UUID id) {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Report job not found with id " + id);
+        }
+        return job;
+    }
+
+    public Path getContent(UUID id) {
+        ReportJob job = findById(id);
+        if (job.getStatus() != ReportJobStatus.COMPLETED) {
+            throw new ReportJobNotReadyException("Report job " + id + " is " + job.getStatus());
+        }
+        return job.getContent();
+    }
+
+    @Scheduled(fixedDelayString = "PT1M")
+    public void purgeExpiredJobs() {
+        Instant expiry = Instant.now().minus(relatorioProperties.getJobs().getRetention());
+        jobs.values().removeIf(job -> {
+            if (!job.isFinished() || job.getFinishedAt().isAfter(expiry)) {
+                return false;
+            }
+            deleteContent(job);
+            return true;
+        });
+    }
+
+    private void render(ReportJob job) {
+        job.markRunning();
+        Path target = null;
+        try {
+            target = Files.createTempFile(Paths.get(relatorioProperties.getJobs().getDirectory()), "relatorio-", "." + job.getFormat().getExtension());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+                reportService.exportReport(job.getFormat(), job.getFiltro(), out, job::setRowsProcessed);
+            }
+            job.markCompleted(target);
+            logger.debug("Report job {} completed with {} rows", job.getId(), job.getRowsProcessed());
+        } catch (Exception e) {
+            logger.error("Report job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.markFailed(e.getMessage());
+            if (target != null) {
+                deleteQuietly(target);
+            }
+        }
+    }
+
+    private void deleteContent(ReportJob job) {
+        if (job.getContent() != null) {
+            deleteQuietly(job.getContent());
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete report file {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.biblioteca.report;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
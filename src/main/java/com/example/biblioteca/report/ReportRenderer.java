@@ -0,0 +1,259 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.config.RelatorioProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRVirtualizer;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.export.HtmlExporter;
+import net.sf.jasperreports.engine.export.JRCsvExporter;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
+import net.sf.jasperreports.engine.fill.JRAbstractLRUVirtualizer;
+import net.sf.jasperreports.engine.fill.JRGzipVirtualizer;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import net.sf.jasperreports.export.SimpleWriterExporterOutput;
+import net.sf.jasperreports.export.SimpleXlsxReportConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Fills and exports compiled templates.
+ * <p>
+ * Large reports can be filled with a {@link JRVirtualizer}, which keeps only a bounded number of pages in heap
+ * and swaps the rest out. The virtualizer must outlive the export, so callers own it and release it with
+ * {@link JRVirtualizer#cleanup()} once the document has been written.
+ * <p>
+ * Reports grouped by author can also be filled in partitions: each partition covers a contiguous range of
+ * authors and is filled on a shared, bounded pool, then the pages are stitched back together in author order.
+ */
+@Component
+public class ReportRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportRenderer.class);
+
+    /**
+     * Key of the footer element holding the page number, rewritten when partitions are stitched together.
+     */
+    static final String PAGE_NUMBER_KEY = "numeroPagina";
+
+    /**
+     * Template parameter hiding the title band, which only the first partition prints.
+     */
+    static final String SHOW_TITLE_PARAMETER = "exibirTitulo";
+
+    /**
+     * Opens the data of one partition and keeps it open while {@code filler} consumes it, e.g. inside the
+     * transaction holding a database cursor.
+     */
+    @FunctionalInterface
+    public interface PartitionSource {
+        JasperPrint open(int partition, Function<JRDataSource, JasperPrint> filler);
+    }
+
+    @Autowired
+    private RelatorioProperties relatorioProperties;
+
+    private ThreadPoolTaskExecutor partitionExecutor;
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, relatorioProperties.getParallel().getPartitions());
+        partitionExecutor = new ThreadPoolTaskExecutor();
+        partitionExecutor.setCorePoolSize(threads);
+        partitionExecutor.setMaxPoolSize(threads);
+        partitionExecutor.setThreadNamePrefix("relatorio-particao-");
+        partitionExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partitionExecutor.shutdown();
+    }
+
+    public boolean shouldPartition(long expectedRows) {
+        return relatorioProperties.getParallel().getPartitions() > 1
+                && expectedRows > relatorioProperties.getParallel().getRowThreshold();
+    }
+
+    public int getPartitions() {
+        return relatorioProperties.getParallel().getPartitions();
+    }
+
+    public boolean shouldVirtualize(long expectedRows) {
+        return expectedRows > relatorioProperties.getVirtualizer().getRowThreshold();
+    }
+
+    public JRVirtualizer createVirtualizer() {
+        RelatorioProperties.Virtualizer config = relatorioProperties.getVirtualizer();
+        if (config.getType() == RelatorioProperties.Virtualizer.Type.GZIP) {
+            return new JRGzipVirtualizer(config.getMaxPages());
+        }
+        JRSwapFile swapFile = new JRSwapFile(config.getDirectory(), config.getBlockSize(), config.getMinGrowCount());
+        return new JRSwapFileVirtualizer(config.getMaxPages(), swapFile, true);
+    }
+
+    /**
+     * @param virtualizer virtualizer to page the filled report through, or {@code null} to keep it all in heap
+     */
+    public JasperPrint fill(JasperReport jasperReport, Map<String, Object> parameters, JRDataSource dataSource,
+                            JRVirtualizer virtualizer) throws JRException {
+        Map<String, Object> fillParameters = new HashMap<>(parameters);
+        if (virtualizer != null) {
+            fillParameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+        }
+        JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, fillParameters, dataSource);
+        seal(virtualizer);
+        return jasperPrint;
+    }
+
+    /**
+     * Fills {@code partitions} parts of the report concurrently and stitches them into one document. Every
+     * partition must cover whole groups, and partition {@code i} must sort before partition {@code i + 1}.
+     * <p>
+     * All partitions share {@code virtualizer}, so the number of pages kept in heap stays bounded however many
+     * partitions run at once.
+     */
+    public JasperPrint fillPartitions(JasperReport jasperReport, Map<String, Object> parameters, int partitions,
+                                      PartitionSource source, JRVirtualizer virtualizer) throws JRException {
+        long start = System.currentTimeMillis();
+        List<Future<JasperPrint>> fills = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            Map<String, Object> partitionParameters = new HashMap<>(parameters);
+            partitionParameters.put(SHOW_TITLE_PARAMETER, i == 0);
+            if (virtualizer != null) {
+                partitionParameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+            }
+            int partition = i;
+            fills.add(partitionExecutor.submit(() -> source.open(partition,
+                    dataSource -> fillPartition(jasperReport, partitionParameters, dataSource))));
+        }
+        List<JasperPrint> prints = new ArrayList<>(partitions);
+        try {
+            for (Future<JasperPrint> fill : fills) {
+                prints.add(fill.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JRException("Interrupted while filling report partitions", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof JRRuntimeException && e.getCause().getCause() instanceof JRException
+                    ? e.getCause().getCause()
+                    : e.getCause();
+            throw cause instanceof JRException jrException ? jrException : new JRException("Could not fill report partition", cause);
+        } finally {
+            fills.forEach(fill -> fill.cancel(true));
+        }
+        JasperPrint jasperPrint = stitch(prints);
+        seal(virtualizer);
+        logger.debug("Filled {} partitions into {} pages in {} ms", partitions, jasperPrint.getPages().size(),
+                System.currentTimeMillis() - start);
+        return jasperPrint;
+    }
+
+    private JasperPrint fillPartition(JasperReport jasperReport, Map<String, Object> parameters, JRDataSource dataSource) {
+        try {
+            return JasperFillManager.fillReport(jasperReport, parameters, dataSource);
+        } catch (JRException e) {
+            throw new JRRuntimeException(e);
+        }
+    }
+
+    /**
+     * Appends the pages of the later prints to the first one and renumbers them, since every partition counted
+     * its pages from one.
+     */
+    private JasperPrint stitch(List<JasperPrint> prints) {
+        JasperPrint stitched = prints.get(0);
+        for (JasperPrint partition : prints.subList(1, prints.size())) {
+            for (JRPrintPage page : partition.getPages()) {
+                int pageNumber = stitched.getPages().size() + 1;
+                renumber(page, pageNumber);
+                stitched.addPage(page);
+            }
+        }
+        return stitched;
+    }
+
+    private void renumber(JRPrintPage page, int pageNumber) {
+        List<JRPrintElement> elements = page.getElements();
+        for (int i = 0; i < elements.size(); i++) {
+            if (PAGE_NUMBER_KEY.equals(elements.get(i).getKey()) && elements.get(i) instanceof JRPrintText text) {
+                text.setText(String.valueOf(pageNumber));
+                // setting the element back marks virtualized pages dirty, so the change survives being swapped out
+                elements.set(i, text);
+            }
+        }
+    }
+
+    private void seal(JRVirtualizer virtualizer) {
+        if (virtualizer instanceof JRAbstractLRUVirtualizer lruVirtualizer) {
+            // no more pages will be added or changed, so swapped pages can be read back without being re-serialized
+            lruVirtualizer.setReadOnly(true);
+        }
+    }
+
+    /**
+     * Writes the document to {@code out} as it is exported, without buffering it; the stream is not closed.
+     */
+    public void export(JasperPrint jasperPrint, ReportFormat format, OutputStream out) throws JRException {
+        SimpleExporterInput input = new SimpleExporterInput(jasperPrint);
+        switch (format) {
+            case PDF -> {
+                JRPdfExporter exporter = new JRPdfExporter();
+                exporter.setExporterInput(input);
+                exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+                exporter.exportReport();
+            }
+            case HTML -> {
+                HtmlExporter exporter = new HtmlExporter();
+                exporter.setExporterInput(input);
+                exporter.setExporterOutput(new SimpleHtmlExporterOutput(out, StandardCharsets.UTF_8.name()));
+                exporter.exportReport();
+            }
+            case XLSX -> {
+                SimpleXlsxReportConfiguration configuration = new SimpleXlsxReportConfiguration();
+                configuration.setOnePagePerSheet(false);
+                configuration.setDetectCellType(true);
+                configuration.setRemoveEmptySpaceBetweenRows(true);
+                JRXlsxExporter exporter = new JRXlsxExporter();
+                exporter.setExporterInput(input);
+                exporter.setConfiguration(configuration);
+                exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+                exporter.exportReport();
+            }
+            case CSV -> {
+                JRCsvExporter exporter = new JRCsvExporter();
+                exporter.setExporterInput(input);
+                exporter.setExporterOutput(new SimpleWriterExporterOutput(out, StandardCharsets.UTF_8.name()));
+                exporter.exportReport();
+            }
+        }
+    }
+}
@@ -1,56 +1,134 @@
 package com.example.biblioteca.report;
 
-import com.example.biblioteca.domain.Livro;
-import com.example.biblioteca.repository.LivroRepository;
+import com.example.biblioteca.dto.LivroFiltro;
+import com.example.biblioteca.repository.RelatorioLivroRepository;
+import jakarta.annotation.PostConstruct;
 import net.sf.jasperreports.engine.*;
-import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.util.ResourceUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
 
 @Service
 public class ReportService {
 
+    private static final String LIVROS_POR_AUTOR_TEMPLATE = "livros_por_autor";
+
+    @Autowired
+    private RelatorioLivroRepository relatorioLivroRepository;
+
+    @Autowired
+    private ReportTemplateRegistry reportTemplateRegistry;
+
+    @Autowired
+    private ReportRenderer reportRenderer;
+
     @Autowired
-    private LivroRepository livroRepository;
-
-    public byte[] exportReport(String reportFormat) throws FileNotFoundException, JRException {
-        List<Livro> livros = livroRepository.findAll();
-
-        List<RelatorioLivroDTO> data = livros.stream().flatMap(livro ->
-                livro.getAutores().stream().map(autor -> {
-                    String assuntos = livro.getAssuntos().stream()
-                            .map(a -> a.getDescricao())
-                            .collect(Collectors.joining(", "));
-                    return new RelatorioLivroDTO(
-                            autor.getNome(),
-                            livro.getTitulo(),
-                            livro.getEditora(),
-                            livro.getEdicao(),
-                            livro.getAnoPublicacao(),
-                            livro.getValor(),
-                            assuntos
-                    );
-                })
-        ).collect(Collectors.toList());
-
-        // Load file and compile it
-        File file = ResourceUtils.getFile("classpath:reports/livros_por_autor.jrxml");
-        JasperReport jasperReport = JasperCompileManager.compileReport(file.getAbsolutePath());
-        JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(data);
+    private ReportCache reportCache;
+
+    @Autowired
+    private RelatorioMaterializadoService relatorioMaterializadoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Key under which the livros-por-autor report rendered right now would be cached. Cheap to compute, so it
+     * can be used to answer conditional requests before rendering anything. The report reads the materialized
+     * view, so the key follows the view's refreshes rather than every catalogue write.
+     */
+    public ReportCacheKey livrosPorAutorKey(ReportFormat format, LivroFiltro filtro) {
+        return new ReportCacheKey(LIVROS_POR_AUTOR_TEMPLATE, format, filtro.toParameters(), relatorioMaterializadoService.currentVersion());
+    }
+
+    /**
+     * @param progress receives the number of rows consumed so far while the report is being filled
+     */
+    public void exportReport(ReportFormat format, LivroFiltro filtro, OutputStream out, LongConsumer progress)
+            throws JRException, IOException {
+        exportReport(livrosPorAutorKey(format, filtro), filtro, out, progress);
+    }
+
+    /**
+     * Writes the report to {@code out} as it is exported. A cached copy is written as is; a freshly rendered
+     * report is cached on the way through unless it is larger than the cache accepts.
+     *
+     * @param key key obtained from {@link #livrosPorAutorKey} for the same {@code filtro}
+     */
+    public void exportReport(ReportCacheKey key, LivroFiltro filtro, OutputStream out, LongConsumer progress)
+            throws JRException, IOException {
+        byte[] cached = reportCache.get(key);
+        if (cached != null) {
+            out.write(cached);
+            return;
+        }
+        CapturingOutputStream capture = new CapturingOutputStream(out, reportCache.maxEntrySize());
+        render(key.format(), filtro, capture, progress);
+        byte[] content = capture.getCaptured();
+        if (content != null) {
+            reportCache.put(key, content);
+        }
+    }
+
+    private void render(ReportFormat format, LivroFiltro filtro, OutputStream out, LongConsumer progress) throws JRException {
+        JasperReport jasperReport = reportTemplateRegistry.getTemplate(LIVROS_POR_AUTOR_TEMPLATE);
         Map<String, Object> parameters = new HashMap<>();
         parameters.put("createdBy", "Biblioteca API");
-        JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
-        if (reportFormat.equalsIgnoreCase("html")) {
-            return JasperExportManager.exportReportToHtmlFile(jasperPrint).getBytes();
+        parameters.put("filtros", filtro.descricao());
+        long expectedRows = relatorioLivroRepository.estimateLivrosPorAutorRows(filtro);
+        JRVirtualizer virtualizer = reportRenderer.shouldVirtualize(expectedRows) ? reportRenderer.createVirtualizer() : null;
+        try {
+            List<String> bounds = reportRenderer.shouldPartition(expectedRows)
+                    ? relatorioLivroRepository.findLivrosPorAutorPartitionBounds(filtro, reportRenderer.getPartitions())
+                    : List.of();
+            JasperPrint jasperPrint = bounds.size() > 1
+                    ? fillPartitions(jasperReport, parameters, filtro, bounds, progress, virtualizer)
+                    // PostgreSQL only streams through a cursor inside a transaction
+                    : readOnlyTransaction.execute(status -> relatorioLivroRepository.streamLivrosPorAutor(filtro,
+                            rs -> fill(jasperReport, parameters, new RelatorioLivroDataSource(rs, progress), virtualizer)));
+            reportRenderer.export(jasperPrint, format, out);
+        } finally {
+            if (virtualizer != null) {
+                virtualizer.cleanup();
+            }
+        }
+    }
+
+    /**
+     * Fills each author range on its own cursor, in its own read-only transaction, concurrently with the others.
+     */
+    private JasperPrint fillPartitions(JasperReport jasperReport, Map<String, Object> parameters, LivroFiltro filtro,
+                                       List<String> bounds, LongConsumer progress, JRVirtualizer virtualizer) throws JRException {
+        AtomicLong rows = new AtomicLong();
+        LongConsumer partitionProgress = row -> progress.accept(rows.incrementAndGet());
+        return reportRenderer.fillPartitions(jasperReport, parameters, bounds.size(), (partition, filler) -> {
+            String autorFim = partition + 1 < bounds.size() ? bounds.get(partition + 1) : null;
+            return readOnlyTransaction.execute(status -> relatorioLivroRepository.streamLivrosPorAutor(filtro,
+                    bounds.get(partition), autorFim, rs -> filler.apply(new RelatorioLivroDataSource(rs, partitionProgress))));
+        }, virtualizer);
+    }
+
+    private JasperPrint fill(JasperReport jasperReport, Map<String, Object> parameters, JRDataSource dataSource, JRVirtualizer virtualizer) {
+        try {
+            return reportRenderer.fill(jasperReport, parameters, dataSource, virtualizer);
+        } catch (JRException e) {
+            throw new JRRuntimeException(e);
         }
-        return JasperExportManager.exportReportToPdf(jasperPrint);
     }
-}
\ No newline at end of file
+}
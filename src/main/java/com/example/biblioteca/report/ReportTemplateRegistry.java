@@ -0,0 +1,116 @@
+package com.example.biblioteca.report;
+
+import jakarta.annotation.PostConstruct;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the compiled JasperReports templates in memory, keyed by template name.
+ * <p>
+ * Templates are compiled once at startup from {@code classpath:reports/*.jrxml}. When a precompiled
+ * {@code .jasper} artifact with the same name is available it is loaded instead of compiling the source.
+ * Templates served from the file system (e.g. during development) are recompiled when the source changes.
+ */
+@Component
+public class ReportTemplateRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportTemplateRegistry.class);
+
+    private static final String TEMPLATE_LOCATION = "classpath:reports/";
+    private static final String SOURCE_EXTENSION = ".jrxml";
+    private static final String COMPILED_EXTENSION = ".jasper";
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    private final Map<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void loadTemplates() throws IOException, JRException {
+        ResourcePatternResolver resolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+        for (Resource source : resolver.getResources(TEMPLATE_LOCATION + "*" + SOURCE_EXTENSION)) {
+            String filename = source.getFilename();
+            if (filename == null) {
+                continue;
+            }
+            String name = filename.substring(0, filename.length() - SOURCE_EXTENSION.length());
+            templates.put(name, load(name));
+        }
+        logger.info("Loaded {} report template(s): {}", templates.size(), templates.keySet());
+    }
+
+    public JasperReport getTemplate(String name) throws JRException {
+        CompiledTemplate template = templates.get(name);
+        if (template == null || template.isStale()) {
+            synchronized (this) {
+                template = templates.get(name);
+                if (template == null || template.isStale()) {
+                    template = load(name);
+                    templates.put(name, template);
+                }
+            }
+        }
+        return template.report();
+    }
+
+    private CompiledTemplate load(String name) throws JRException {
+        Resource source = resourceLoader.getResource(TEMPLATE_LOCATION + name + SOURCE_EXTENSION);
+        Resource compiled = resourceLoader.getResource(TEMPLATE_LOCATION + name + COMPILED_EXTENSION);
+        try {
+            if (compiled.exists() && (!source.exists() || lastModified(compiled) >= lastModified(source))) {
+                try (InputStream in = compiled.getInputStream()) {
+                    logger.debug("Loading precompiled report template {}", compiled.getFilename());
+                    return new CompiledTemplate((JasperReport) JRLoader.loadObject(in), source);
+                }
+            }
+            if (!source.exists()) {
+                throw new JRException("Report template not found: " + name);
+            }
+            try (InputStream in = source.getInputStream()) {
+                long start = System.currentTimeMillis();
+                JasperReport report = JasperCompileManager.compileReport(in);
+                logger.debug("Compiled report template {} in {} ms", source.getFilename(), System.currentTimeMillis() - start);
+                return new CompiledTemplate(report, source);
+            }
+        } catch (IOException e) {
+            throw new JRException("Could not read report template " + name, e);
+        }
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private record CompiledTemplate(JasperReport report, Resource source, long sourceLastModified) {
+
+        CompiledTemplate(JasperReport report, Resource source) {
+            this(report, source, source.isFile() ? lastModified(source) : 0L);
+        }
+
+        /**
+         * Only sources living on the file system can change at runtime; templates packaged in the jar never do.
+         */
+        boolean isStale() {
+            return source.isFile() && lastModified(source) != sourceLastModified;
+        }
+    }
+}
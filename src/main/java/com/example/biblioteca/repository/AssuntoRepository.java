@@ -1,9 +1,44 @@
 package com.example.biblioteca.repository;
 
 import com.example.biblioteca.domain.Assunto;
+import com.example.biblioteca.dto.SugestaoDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface AssuntoRepository extends JpaRepository<Assunto, Long> {
-}
\ No newline at end of file
+
+    /**
+     * First page of the keyset listing by (descricao, id); see {@link AutorRepository#findFirstPageOrderByNome(Pageable)}.
+     */
+    @Query("select a from Assunto a order by a.descricao, a.id")
+    List<Assunto> findFirstPageOrderByDescricao(Pageable limit);
+
+    /**
+     * Rows after the cursor ({@code descricao}, {@code id}); see {@link AutorRepository#findPageAfter(String, long, Pageable)}.
+     */
+    @Query("""
+            select a from Assunto a
+            where a.descricao >= :descricao and (a.descricao > :descricao or a.id > :id)
+            order by a.descricao, a.id
+            """)
+    List<Assunto> findPageAfter(@Param("descricao") String descricao, @Param("id") long id, Pageable limit);
+
+    /**
+     * Id and descricao of every assunto, without loading entities; feeds the suggestion index.
+     */
+    @Query("select new com.example.biblioteca.dto.SugestaoDTO(a.id, a.descricao) from Assunto a")
+    List<SugestaoDTO> findAllSugestoes();
+
+    /**
+     * Just the version of one assunto, for conditional requests that may not need the assunto itself.
+     */
+    @Query("select a.versao from Assunto a where a.id = :id")
+    Optional<Long> findVersaoById(@Param("id") Long id);
+}
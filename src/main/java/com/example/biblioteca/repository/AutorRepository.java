@@ -1,9 +1,46 @@
 package com.example.biblioteca.repository;
 
 import com.example.biblioteca.domain.Autor;
+import com.example.biblioteca.dto.SugestaoDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface AutorRepository extends JpaRepository<Autor, Long> {
-}
\ No newline at end of file
+
+    /**
+     * First page of the keyset listing, ordered by nome with the id breaking ties. {@code limit} only sets the
+     * number of rows; being a {@code List}, no count query is run.
+     */
+    @Query("select a from Autor a order by a.nome, a.id")
+    List<Autor> findFirstPageOrderByNome(Pageable limit);
+
+    /**
+     * Next page of the keyset listing: the rows after ({@code nome}, {@code id}). The redundant
+     * {@code >=} bound lets PostgreSQL start an index range scan at the cursor instead of skipping rows.
+     */
+    @Query("""
+            select a from Autor a
+            where a.nome >= :nome and (a.nome > :nome or a.id > :id)
+            order by a.nome, a.id
+            """)
+    List<Autor> findPageAfter(@Param("nome") String nome, @Param("id") long id, Pageable limit);
+
+    /**
+     * Id and nome of every autor, without loading entities; feeds the suggestion index.
+     */
+    @Query("select new com.example.biblioteca.dto.SugestaoDTO(a.id, a.nome) from Autor a")
+    List<SugestaoDTO> findAllSugestoes();
+
+    /**
+     * Just the version of one autor, for conditional requests that may not need the autor itself.
+     */
+    @Query("select a.versao from Autor a where a.id = :id")
+    Optional<Long> findVersaoById(@Param("id") Long id);
+}
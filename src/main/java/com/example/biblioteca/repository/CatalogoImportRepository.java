@@ -0,0 +1,255 @@
+package com.example.biblioteca.repository;
+
+import com.example.biblioteca.report.DelimitedFormat;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Set-based SQL behind the catalogue import. Files are loaded with {@code COPY} into the unlogged
+ * {@code importacao_livros} staging table and merged into the catalogue with a handful of statements, so the work
+ * per row happens inside PostgreSQL and nothing is materialised in the JVM.
+ * <p>
+ * File columns, in order: titulo, editora, edicao, ano_publicacao, valor, autores, assuntos. Authors and subjects
+ * are given by name, several separated by {@code |}. Books are identified by (titulo, editora, edicao).
+ * All methods must run in the same transaction.
+ */
+@Repository
+public class CatalogoImportRepository {
+
+    /**
+     * Arbitrary key of the transaction-level advisory lock that serializes catalogue imports.
+     */
+    private static final long IMPORT_LOCK_KEY = 0x6c6976726f73L;
+
+    private static final String COPY_STAGING = """
+            COPY importacao_livros (titulo, editora, edicao, ano_publicacao, valor, autores, assuntos)
+            FROM STDIN WITH (%s)
+            """;
+
+    /**
+     * TSV has no quoting (see {@link DelimitedFormat}), so the quote character is set to one that can't occur in
+     * the data, which reads quotes as plain text.
+     */
+    private static final String CSV_OPTIONS = "FORMAT csv, HEADER true, ENCODING 'UTF8'";
+    private static final String TSV_OPTIONS = "FORMAT csv, HEADER true, DELIMITER E'\\t', QUOTE E'\\b', ENCODING 'UTF8'";
+
+    private static final String DELETE_INVALID_ROWS = """
+            DELETE FROM importacao_livros
+            WHERE coalesce(btrim(titulo), '') = '' OR length(titulo) > 200
+               OR coalesce(btrim(editora), '') = '' OR length(editora) > 100
+               OR length(edicao) > 50
+               OR ano_publicacao !~ '^\\d{4}$'
+               OR valor IS NULL OR valor !~ '^\\d{1,8}(\\.\\d{1,2})?$'
+               OR EXISTS (SELECT 1
+                          FROM unnest(string_to_array(autores, '|') || string_to_array(assuntos, '|')) AS n(nome)
+                          WHERE length(btrim(n.nome)) > 100)
+            """;
+
+    /**
+     * Keeps only the last row of each book, so a file listing a book twice behaves like two consecutive imports.
+     */
+    private static final String DELETE_DUPLICATE_ROWS = """
+            DELETE FROM importacao_livros s
+            USING importacao_livros t
+            WHERE t.titulo = s.titulo AND t.editora = s.editora AND coalesce(t.edicao, '') = coalesce(s.edicao, '')
+              AND t.linha > s.linha
+            """;
+
+    /**
+     * The id sequences advance by 50 per call, for Hibernate's pooled optimizer (migration V3): each value is the
+     * upper end of a block of 50 ids. Letting the column default call {@code nextval} once per imported row would
+     * burn a whole block per row, so the imports take ids the same way Hibernate does, one {@code nextval} per 50
+     * rows. Sharing the allocator, rather than giving the import a sequence of its own, keeps both writers in one id
+     * space without either having to know the other's ranges.
+     * <p>
+     * {@code %s} is the query of the rows to insert, which must include a dense 0-based row number {@code n}.
+     */
+    private static final String POOLED_IDS = """
+            WITH novos AS (%s),
+            blocos AS (
+                SELECT b, nextval('%s') AS hi
+                FROM generate_series(0, ceil((SELECT count(*) FROM novos) / %3$d.0)::int - 1) AS b
+            )
+            SELECT bl.hi - %3$d + 1 + mod(x.n, %3$d) AS id, x.*
+            FROM novos x
+            JOIN blocos bl ON bl.b = x.n / %3$d
+            """;
+
+    /**
+     * Allocation size of the id sequences, the {@code allocationSize} of the entities' {@code @SequenceGenerator}.
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String INSERT_MISSING_NAMES = """
+            INSERT INTO %1$s (id, %2$s)
+            SELECT id, nome
+            FROM (%4$s) com_ids
+            """;
+
+    private static final String MISSING_NAMES = """
+            SELECT nome, row_number() OVER (ORDER BY nome) - 1 AS n
+            FROM (SELECT DISTINCT btrim(n.nome) AS nome
+                  FROM importacao_livros s, unnest(string_to_array(s.%3$s, '|')) AS n(nome)
+                  WHERE btrim(n.nome) <> ''
+                    AND NOT EXISTS (SELECT 1 FROM %1$s e WHERE e.%2$s = btrim(n.nome))) nomes
+            """;
+
+    private static final String RESOLVE_LIVROS = """
+            UPDATE importacao_livros s
+            SET livro_id = l.id
+            FROM (SELECT min(id) AS id, titulo, editora, coalesce(edicao, '') AS edicao
+                  FROM livros
+                  GROUP BY titulo, editora, coalesce(edicao, '')) l
+            WHERE s.livro_id IS NULL
+              AND l.titulo = s.titulo AND l.editora = s.editora AND l.edicao = coalesce(s.edicao, '')
+            """;
+
+    private static final String UPDATE_LIVROS = """
+            UPDATE livros l
+            SET ano_publicacao = s.ano_publicacao, valor = s.valor::numeric(10, 2), versao = l.versao + 1
+            FROM importacao_livros s
+            WHERE l.id = s.livro_id
+              AND (l.ano_publicacao IS DISTINCT FROM s.ano_publicacao OR l.valor <> s.valor::numeric(10, 2))
+            """;
+
+    private static final String INSERT_LIVROS = """
+            INSERT INTO livros (id, titulo, editora, edicao, ano_publicacao, valor)
+            SELECT id, titulo, editora, edicao, ano_publicacao, valor::numeric(10, 2)
+            FROM (%s) com_ids
+            """;
+
+    private static final String MISSING_LIVROS = """
+            SELECT titulo, editora, edicao, ano_publicacao, valor, row_number() OVER (ORDER BY linha) - 1 AS n
+            FROM importacao_livros
+            WHERE livro_id IS NULL
+            """;
+
+    /**
+     * Drops the associations of imported books that the file no longer lists. Associations that stay are left
+     * untouched instead of being deleted and inserted again. The association triggers (migration V12) give the
+     * affected books a new versao, once per book even when several statements touch it.
+     */
+    private static final String DELETE_STALE_ASSOCIATIONS = """
+            DELETE FROM %1$s x
+            USING importacao_livros s
+            WHERE x.livro_id = s.livro_id
+              AND NOT EXISTS (SELECT 1
+                              FROM unnest(string_to_array(s.%5$s, '|')) AS n(nome)
+                              JOIN %3$s e ON e.%4$s = btrim(n.nome)
+                              WHERE e.id = x.%2$s)
+            """;
+
+    private static final String INSERT_ASSOCIATIONS = """
+            INSERT INTO %1$s (livro_id, %2$s)
+            SELECT DISTINCT s.livro_id, e.id
+            FROM importacao_livros s
+            CROSS JOIN LATERAL unnest(string_to_array(s.%5$s, '|')) AS n(nome)
+            JOIN (SELECT min(id) AS id, %4$s FROM %3$s GROUP BY %4$s) e ON e.%4$s = btrim(n.nome)
+            ON CONFLICT DO NOTHING
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return {@code false} if another import holds the lock; otherwise the lock is held until the transaction ends
+     */
+    public boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, IMPORT_LOCK_KEY));
+    }
+
+    public void truncateStaging() {
+        jdbcTemplate.execute("TRUNCATE importacao_livros RESTART IDENTITY");
+    }
+
+    /**
+     * Streams {@code in} into the staging table, {@code bufferSize} bytes at a time.
+     *
+     * @return number of rows copied
+     */
+    public long copyIntoStaging(DelimitedFormat format, InputStream in, int bufferSize) {
+        String sql = COPY_STAGING.formatted(format == DelimitedFormat.TSV ? TSV_OPTIONS : CSV_OPTIONS);
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, in, bufferSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read catalogue file", e);
+            }
+        });
+        return rows != null ? rows : 0L;
+    }
+
+    public int deleteInvalidRows() {
+        return jdbcTemplate.update(DELETE_INVALID_ROWS);
+    }
+
+    public int deleteDuplicateRows() {
+        return jdbcTemplate.update(DELETE_DUPLICATE_ROWS);
+    }
+
+    /**
+     * Refreshes the planner statistics of the staging table; autovacuum would only get to it after the import.
+     */
+    public void analyzeStaging() {
+        jdbcTemplate.execute("ANALYZE importacao_livros");
+    }
+
+    public int insertMissingAutores() {
+        return insertMissingNames("autores", "nome", "autores");
+    }
+
+    public int insertMissingAssuntos() {
+        return insertMissingNames("assuntos", "descricao", "assuntos");
+    }
+
+    private int insertMissingNames(String table, String column, String stagingColumn) {
+        String novos = MISSING_NAMES.formatted(table, column, stagingColumn);
+        return jdbcTemplate.update(INSERT_MISSING_NAMES.formatted(table, column, stagingColumn, withPooledIds(novos, table)));
+    }
+
+    /**
+     * Links staged rows to the existing books with the same (titulo, editora, edicao).
+     */
+    public int resolveLivros() {
+        return jdbcTemplate.update(RESOLVE_LIVROS);
+    }
+
+    /**
+     * Updates the resolved books whose year or price differ from the file.
+     */
+    public int updateLivros() {
+        return jdbcTemplate.update(UPDATE_LIVROS);
+    }
+
+    /**
+     * Inserts the staged books that could not be resolved. Call {@link #resolveLivros()} again afterwards.
+     */
+    public int insertLivros() {
+        return jdbcTemplate.update(INSERT_LIVROS.formatted(withPooledIds(MISSING_LIVROS, "livros")));
+    }
+
+    private static String withPooledIds(String novos, String table) {
+        return POOLED_IDS.formatted(novos, table + "_id_seq", ID_BLOCK_SIZE);
+    }
+
+    /**
+     * Makes the author and subject associations of every imported book match the file.
+     */
+    public void syncAssociations() {
+        String[][] associations = {
+                {"livro_autor", "autor_id", "autores", "nome", "autores"},
+                {"livro_assunto", "assunto_id", "assuntos", "descricao", "assuntos"}
+        };
+        for (String[] association : associations) {
+            jdbcTemplate.update(DELETE_STALE_ASSOCIATIONS.formatted((Object[]) association));
+            jdbcTemplate.update(INSERT_ASSOCIATIONS.formatted((Object[]) association));
+        }
+    }
+}
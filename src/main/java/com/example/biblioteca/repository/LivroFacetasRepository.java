@@ -0,0 +1,163 @@
+package com.example.biblioteca.repository;
+
+import com.example.biblioteca.dto.FacetaDTO;
+import com.example.biblioteca.dto.LivroFacetasDTO;
+import com.example.biblioteca.dto.LivroFiltro;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Facet counts of the catalogue browser, computed by PostgreSQL in a single statement.
+ * <p>
+ * The filtered books are read once into a CTE. Publisher, decade and price band are counted over it with
+ * {@code GROUPING SETS}, which also gives the total, in one pass; subjects need the association table, which would
+ * repeat a book once per subject, so they are counted in a second branch of the same statement.
+ */
+@Repository
+public class LivroFacetasRepository {
+
+    private static final String SELECT_FACETAS = """
+            WITH filtrados AS (
+                SELECT l.id, l.editora, substr(l.ano_publicacao, 1, 3) || '0' AS decada, %s AS faixa
+                FROM livros l
+                %s
+            )
+            SELECT CASE WHEN GROUPING(f.editora) = 0 THEN 'editora'
+                        WHEN GROUPING(f.decada) = 0 THEN 'decada'
+                        WHEN GROUPING(f.faixa) = 0 THEN 'faixa'
+                        ELSE 'total' END AS faceta,
+                   COALESCE(f.editora, f.decada, f.faixa::text) AS chave,
+                   NULL::varchar AS nome,
+                   count(*) AS livros
+            FROM filtrados f
+            GROUP BY GROUPING SETS ((f.editora), (f.decada), (f.faixa), ())
+            UNION ALL
+            SELECT 'assunto', a.id::text, a.descricao AS nome, count(*)
+            FROM filtrados f
+            JOIN livro_assunto ls ON ls.livro_id = f.id
+            JOIN assuntos a ON a.id = ls.assunto_id
+            GROUP BY a.id, a.descricao
+            """;
+
+    private static final Comparator<FacetaDTO> MAIS_LIVROS_PRIMEIRO = Comparator.comparingLong(FacetaDTO::getLivros).reversed()
+            .thenComparing(FacetaDTO::getNome);
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * @param faixasValor boundaries of the price bands, in any order; empty for no price facet
+     */
+    public LivroFacetasDTO findFacetas(LivroFiltro filtro, List<BigDecimal> faixasValor) {
+        List<BigDecimal> limites = new ArrayList<>(new TreeSet<>(faixasValor));
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        String sql = SELECT_FACETAS.formatted(faixa(limites), where(filtro, parameters));
+
+        LivroFacetasDTO facetas = new LivroFacetasDTO();
+        Map<Integer, Long> faixas = new TreeMap<>();
+        namedParameterJdbcTemplate.query(sql, parameters, rs -> {
+            String chave = rs.getString("chave");
+            long livros = rs.getLong("livros");
+            switch (rs.getString("faceta")) {
+                case "total" -> facetas.setTotal(livros);
+                // books without a year or a price band grouped under null are left out of those facets
+                case "editora" -> facetas.getEditoras().add(new FacetaDTO(chave, chave, livros));
+                case "decada" -> {
+                    if (chave != null) {
+                        facetas.getDecadas().add(new FacetaDTO(chave, chave + "-" + (Integer.parseInt(chave) + 9), livros));
+                    }
+                }
+                case "faixa" -> {
+                    if (chave != null) {
+                        faixas.put(Integer.valueOf(chave), livros);
+                    }
+                }
+                default -> facetas.getAssuntos().add(new FacetaDTO(chave, rs.getString("nome"), livros));
+            }
+        });
+        facetas.getAssuntos().sort(MAIS_LIVROS_PRIMEIRO);
+        facetas.getEditoras().sort(MAIS_LIVROS_PRIMEIRO);
+        facetas.getDecadas().sort(Comparator.comparing(FacetaDTO::getChave));
+        faixas.forEach((faixa, livros) -> facetas.getFaixasValor().add(faixaValor(limites, faixa, livros)));
+        return facetas;
+    }
+
+    /**
+     * {@code width_bucket} numbers the bands from 0, below the first boundary, to the number of boundaries. The
+     * boundaries come from configuration, never from the request, so they are written into the statement.
+     */
+    private static String faixa(List<BigDecimal> limites) {
+        if (limites.isEmpty()) {
+            return "NULL::integer";
+        }
+        return limites.stream().map(BigDecimal::toPlainString)
+                .collect(Collectors.joining(", ", "width_bucket(l.valor, ARRAY[", "]::numeric[])"));
+    }
+
+    private static FacetaDTO faixaValor(List<BigDecimal> limites, int faixa, long livros) {
+        String minimo = faixa > 0 ? plain(limites.get(faixa - 1)) : null;
+        String maximo = faixa < limites.size() ? plain(limites.get(faixa)) : null;
+        String chave = (minimo != null ? minimo : "") + "-" + (maximo != null ? maximo : "");
+        String nome;
+        if (minimo == null) {
+            nome = "Menos de " + maximo;
+        } else if (maximo == null) {
+            nome = minimo + " ou mais";
+        } else {
+            nome = minimo + " a " + maximo;
+        }
+        return new FacetaDTO(chave, nome, livros);
+    }
+
+    private static String plain(BigDecimal valor) {
+        return valor.stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Same criteria as the livros-por-autor report (see {@link RelatorioLivroRepository}), on the livros table.
+     */
+    private static String where(LivroFiltro filtro, MapSqlParameterSource parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (filtro.getAutorIds() != null && !filtro.getAutorIds().isEmpty()) {
+            conditions.add("EXISTS (SELECT 1 FROM livro_autor la WHERE la.livro_id = l.id AND la.autor_id IN (:autorIds))");
+            parameters.addValue("autorIds", filtro.getAutorIds());
+        }
+        if (filtro.getAssuntoIds() != null && !filtro.getAssuntoIds().isEmpty()) {
+            conditions.add("EXISTS (SELECT 1 FROM livro_assunto las WHERE las.livro_id = l.id AND las.assunto_id IN (:assuntoIds))");
+            parameters.addValue("assuntoIds", filtro.getAssuntoIds());
+        }
+        if (filtro.getEditora() != null && !filtro.getEditora().isBlank()) {
+            conditions.add("lower(l.editora) = lower(:editora)");
+            parameters.addValue("editora", filtro.getEditora().trim());
+        }
+        // ano_publicacao is a 4 digit string, so zero-padded bounds compare correctly and can use the index
+        if (filtro.getAnoInicio() != null) {
+            conditions.add("l.ano_publicacao >= :anoInicio");
+            parameters.addValue("anoInicio", "%04d".formatted(filtro.getAnoInicio()));
+        }
+        if (filtro.getAnoFim() != null) {
+            conditions.add("l.ano_publicacao <= :anoFim");
+            parameters.addValue("anoFim", "%04d".formatted(filtro.getAnoFim()));
+        }
+        if (filtro.getValorMinimo() != null) {
+            conditions.add("l.valor >= :valorMinimo");
+            parameters.addValue("valorMinimo", filtro.getValorMinimo());
+        }
+        if (filtro.getValorMaximo() != null) {
+            conditions.add("l.valor <= :valorMaximo");
+            parameters.addValue("valorMaximo", filtro.getValorMaximo());
+        }
+        return conditions.isEmpty() ? "" : "WHERE " + String.join("\n    AND ", conditions);
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.biblioteca.repository;
+
+import com.example.biblioteca.dto.LivroDTO;
+import com.example.biblioteca.dto.LivroFields;
+import com.example.biblioteca.exception.InvalidSortException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Read side of the livros endpoints: rows are mapped straight to {@link LivroDTO}, so listing books builds no
+ * managed entities, dirty-checking snapshots or lazy collections only to throw them away after mapping.
+ * <p>
+ * The author and subject ids of each book come from {@code ARRAY(...)} subqueries, answered from the primary keys
+ * of the association tables, which keeps one row per book without joining both associations and grouping the
+ * result back. Every read takes the {@link LivroFields} of the response and selects only the columns it needs,
+ * so a sparse listing also skips the subqueries of the ids it doesn't send.
+ */
+@Repository
+public class LivroReadRepository {
+
+    private static final String AUTORES_IDS = "ARRAY(SELECT la.autor_id FROM livro_autor la WHERE la.livro_id = l.id) AS autores_ids";
+
+    private static final String ASSUNTOS_IDS = "ARRAY(SELECT ls.assunto_id FROM livro_assunto ls WHERE ls.livro_id = l.id) AS assuntos_ids";
+
+    /**
+     * Select list entry of each property of {@link LivroDTO}; a sparse read only selects the ones it needs.
+     */
+    private static final Map<String, String> COLUMNS = Map.of(
+            "id", "l.id",
+            "titulo", "l.titulo",
+            "editora", "l.editora",
+            "edicao", "l.edicao",
+            "anoPublicacao", "l.ano_publicacao",
+            "valor", "l.valor",
+            "autoresIds", AUTORES_IDS,
+            "assuntosIds", ASSUNTOS_IDS,
+            "versao", "l.versao");
+
+    /**
+     * Row comparison, so PostgreSQL seeks straight to the cursor through the (titulo, id) index.
+     */
+    private static final String PAGE_AFTER = """
+            WHERE (l.titulo, l.id) > (:titulo, :id)
+            ORDER BY l.titulo, l.id
+            LIMIT :limit
+            """;
+
+    private static final String SEARCH = """
+            CROSS JOIN websearch_to_tsquery('pt_unaccent', :query) q
+            WHERE l.busca @@ q
+            ORDER BY ts_rank_cd(l.busca, q) DESC, l.id
+            LIMIT :limit OFFSET :offset
+            """;
+
+    /**
+     * Every property of {@link LivroDTO} plus the last change, in the order of the (alterado_txid, id) index, so
+     * {@code since} seeks straight to the first changed livro.
+     */
+    private static final String SELECT_EXPORT = """
+            SELECT l.id, l.titulo, l.editora, l.edicao, l.ano_publicacao, l.valor, %s, %s, l.versao, l.atualizado_em
+            FROM livros l
+            %s
+            ORDER BY l.alterado_txid, l.id
+            """;
+
+    /**
+     * Every transaction with a smaller id has ended, so what it wrote is visible to any later snapshot.
+     */
+    private static final String SELECT_SYNC_TOKEN = "SELECT txid_snapshot_xmin(txid_current_snapshot())";
+
+    private static final String COUNT_SEARCH = "SELECT count(*) FROM livros l WHERE l.busca @@ websearch_to_tsquery('pt_unaccent', :query)";
+
+    /**
+     * Properties of {@link LivroDTO} a listing may be sorted by, and their columns.
+     */
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "l.id",
+            "titulo", "l.titulo",
+            "editora", "l.editora",
+            "edicao", "l.edicao",
+            "anoPublicacao", "l.ano_publicacao",
+            "valor", "l.valor");
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * The versao is always read, whatever {@code fields} asks for: it is the ETag of the response.
+     */
+    public Optional<LivroDTO> findById(long id, LivroFields fields) {
+        Set<String> properties = properties(fields, "versao");
+        List<LivroDTO> rows = namedParameterJdbcTemplate.query(select(properties) + "WHERE l.id = :id", Map.of("id", id), livroDto(properties));
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * The livros with these ids, in no particular order; ids that don't exist are left out.
+     */
+    public List<LivroDTO> findAllById(Collection<Long> ids, LivroFields fields) {
+        Set<String> properties = properties(fields);
+        return namedParameterJdbcTemplate.query(select(properties) + "WHERE l.id IN (:ids)", Map.of("ids", ids), livroDto(properties));
+    }
+
+    /**
+     * Offset page in the order of {@code pageable}, with the id as the last tie-breaker so pages don't overlap.
+     * The count query is skipped when the page itself tells the total, as Spring Data does.
+     */
+    public Page<LivroDTO> findAll(Pageable pageable, LivroFields fields) {
+        Set<String> properties = properties(fields);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = select(properties) + orderBy(pageable.getSort());
+        if (pageable.isPaged()) {
+            sql += " LIMIT :limit OFFSET :offset";
+            params.addValue("limit", pageable.getPageSize()).addValue("offset", pageable.getOffset());
+        }
+        List<LivroDTO> content = namedParameterJdbcTemplate.query(sql, params, livroDto(properties));
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> namedParameterJdbcTemplate.getJdbcTemplate().queryForObject("SELECT count(*) FROM livros", Long.class));
+    }
+
+    /**
+     * First page of the keyset listing, ordered by titulo with the id breaking ties. The titulo is always read,
+     * since the next cursor is made from it.
+     */
+    public List<LivroDTO> findFirstPageOrderByTitulo(int limit, LivroFields fields) {
+        Set<String> properties = properties(fields, "titulo");
+        return namedParameterJdbcTemplate.query(select(properties) + "ORDER BY l.titulo, l.id LIMIT :limit", Map.of("limit", limit),
+                livroDto(properties));
+    }
+
+    /**
+     * Next page of the keyset listing: the rows after ({@code titulo}, {@code id}).
+     */
+    public List<LivroDTO> findPageAfter(String titulo, long id, int limit, LivroFields fields) {
+        Set<String> properties = properties(fields, "titulo");
+        return namedParameterJdbcTemplate.query(select(properties) + PAGE_AFTER, Map.of("titulo", titulo, "id", id, "limit", limit),
+                livroDto(properties));
+    }
+
+    /**
+     * Full-text search over the {@code busca} document (titulo, authors, subjects and editora, see migration V6),
+     * best matches first. {@code query} uses web search syntax: quoted phrases, {@code or} and {@code -} to exclude.
+     * The ranking is the order, so any sort in {@code pageable} is ignored.
+     */
+    public Page<LivroDTO> search(String query, Pageable pageable, LivroFields fields) {
+        Set<String> properties = properties(fields);
+        Map<String, Object> params = Map.of("query", query, "limit", pageable.getPageSize(), "offset", pageable.getOffset());
+        List<LivroDTO> content = namedParameterJdbcTemplate.query(select(properties) + SEARCH, params, livroDto(properties));
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> namedParameterJdbcTemplate.queryForObject(COUNT_SEARCH, params, Long.class));
+    }
+
+    /**
+     * Runs the export query on a forward-only cursor, {@code fetchSize} rows per round trip, and hands the open
+     * result set to {@code extractor}; see {@link com.example.biblioteca.service.LivroNdjsonWriter} for the columns.
+     * PostgreSQL only honours the fetch size inside a transaction, so callers should be {@code @Transactional}.
+     *
+     * @param since a token from {@link #findSyncToken()}: only the livros changed by transactions the export that
+     *              took it may not have seen; {@code null} for all of them
+     */
+    public <T> T streamAll(Long since, int fetchSize, ResultSetExtractor<T> extractor) {
+        String sql = SELECT_EXPORT.formatted(AUTORES_IDS, ASSUNTOS_IDS, since != null ? "WHERE l.alterado_txid >= ?" : "");
+        return namedParameterJdbcTemplate.getJdbcTemplate().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            if (since != null) {
+                statement.setLong(1, since);
+            }
+            return statement;
+        }, extractor);
+    }
+
+    /**
+     * Token to resume from after an export that starts now: the xmin of the current snapshot. Any transaction whose
+     * changes a later snapshot misses has an id at least this large, so {@code alterado_txid >= token} can repeat a
+     * livro but never skip one, whatever the order transactions commit in.
+     */
+    public long findSyncToken() {
+        Long token = namedParameterJdbcTemplate.getJdbcTemplate().queryForObject(SELECT_SYNC_TOKEN, Long.class);
+        return token != null ? token : 0L;
+    }
+
+    private static Set<String> properties(LivroFields fields, String... required) {
+        Set<String> properties = new HashSet<>(List.of(required));
+        for (String property : LivroFields.PROPERTIES) {
+            if (fields.reads(property)) {
+                properties.add(property);
+            }
+        }
+        return properties;
+    }
+
+    private static String select(Set<String> properties) {
+        StringJoiner select = new StringJoiner(", ", "SELECT ", "\nFROM livros l\n");
+        for (String property : LivroFields.PROPERTIES) {
+            if (properties.contains(property)) {
+                select.add(COLUMNS.get(property));
+            }
+        }
+        return select.toString();
+    }
+
+    /**
+     * Maps the columns {@link #select(Set)} chose for {@code properties}; the others stay {@code null}.
+     */
+    private static RowMapper<LivroDTO> livroDto(Set<String> properties) {
+        return (rs, rowNum) -> {
+            LivroDTO livro = new LivroDTO();
+            livro.setId(rs.getLong("id"));
+            if (properties.contains("titulo")) {
+                livro.setTitulo(rs.getString("titulo"));
+            }
+            if (properties.contains("editora")) {
+                livro.setEditora(rs.getString("editora"));
+            }
+            if (properties.contains("edicao")) {
+                livro.setEdicao(rs.getString("edicao"));
+            }
+            if (properties.contains("anoPublicacao")) {
+                livro.setAnoPublicacao(rs.getString("ano_publicacao"));
+            }
+            if (properties.contains("valor")) {
+                livro.setValor(rs.getBigDecimal("valor"));
+            }
+            if (properties.contains("autoresIds")) {
+                livro.setAutoresIds(ids(rs.getArray("autores_ids")));
+            }
+            if (properties.contains("assuntosIds")) {
+                livro.setAssuntosIds(ids(rs.getArray("assuntos_ids")));
+            }
+            if (properties.contains("versao")) {
+                livro.setVersao(rs.getLong("versao"));
+            }
+            return livro;
+        };
+    }
+
+    private static String orderBy(Sort sort) {
+        StringJoiner orderBy = new StringJoiner(", ", "ORDER BY ", "");
+        boolean byId = false;
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new InvalidSortException("Livros cannot be sorted by " + order.getProperty() + "; use one of " + SORT_COLUMNS.keySet());
+            }
+            orderBy.add(column + (order.isAscending() ? "" : " DESC"));
+            byId |= column.equals("l.id");
+        }
+        if (!byId) {
+            orderBy.add("l.id");
+        }
+        return orderBy.toString();
+    }
+
+    private static Set<Long> ids(Array array) throws SQLException {
+        Long[] values = (Long[]) array.getArray();
+        Set<Long> ids = new HashSet<>();
+        Collections.addAll(ids, values);
+        array.free();
+        return ids;
+    }
+}
@@ -2,8 +2,21 @@ package com.example.biblioteca.repository;
 
 import com.example.biblioteca.domain.Livro;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
+/**
+ * Write side of livros. Listings and lookups that only produce DTOs go through {@link LivroReadRepository}.
+ */
 @Repository
 public interface LivroRepository extends JpaRepository<Livro, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Just the version of one livro, for conditional requests that may not need the livro itself.
+     */
+    @Query("select l.versao from Livro l where l.id = :id")
+    Optional<Long> findVersaoById(@Param("id") Long id);
+}
@@ -0,0 +1,176 @@
+package com.example.biblioteca.repository;
+
+import com.example.biblioteca.config.RelatorioProperties;
+import com.example.biblioteca.dto.LivroFiltro;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only access to the {@code vw_relatorio_livros_por_autor} materialized view, which already flattens books,
+ * authors and the aggregated subject descriptions into one row per (author, book). Its rows trail the catalogue
+ * by a few seconds, see {@link com.example.biblioteca.report.RelatorioMaterializadoService}.
+ */
+@Repository
+public class RelatorioLivroRepository {
+
+    private static final String SELECT_LIVROS_POR_AUTOR = """
+            SELECT autor_nome, titulo_livro, editora_livro, edicao_livro,
+                   ano_publicacao_livro, valor_livro, assuntos_livro
+            FROM vw_relatorio_livros_por_autor v
+            %s
+            ORDER BY autor_nome, titulo_livro
+            """;
+
+    /**
+     * First author of each partition, choosing the boundaries so that partitions get about the same number of rows.
+     * Authors are never split, since the report groups by author name.
+     */
+    private static final String SELECT_PARTITION_BOUNDS = """
+            SELECT min(autor_nome) AS inicio
+            FROM (SELECT autor_nome,
+                         floor((sum(count(*)) OVER (ORDER BY autor_nome) - count(*)) * :partitions
+                               / sum(count(*)) OVER ()) AS particao
+                  FROM vw_relatorio_livros_por_autor v
+                  %s
+                  GROUP BY autor_nome) autores
+            GROUP BY particao
+            ORDER BY inicio
+            """;
+
+    /**
+     * Planner statistics for the whole view, kept up to date by autovacuum after each refresh. {@code -1} until the
+     * view has been analyzed for the first time.
+     */
+    private static final String ESTIMATE_LIVROS_POR_AUTOR = """
+            SELECT reltuples::bigint FROM pg_class WHERE oid = 'vw_relatorio_livros_por_autor'::regclass
+            """;
+
+    private static final String COUNT_LIVROS_POR_AUTOR = """
+            SELECT count(*)
+            FROM vw_relatorio_livros_por_autor v
+            %s
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private RelatorioProperties relatorioProperties;
+
+    /**
+     * Number of rows {@link #streamLivrosPorAutor(LivroFiltro, ResultSetExtractor)} will return for {@code filtro}.
+     * Without a filter this is read from the planner statistics instead of scanning the view; with one the rows are
+     * counted under the same WHERE clause as the report, which uses the same indexes.
+     */
+    public long estimateLivrosPorAutorRows(LivroFiltro filtro) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        String where = where(filtro, parameters);
+        if (where.isEmpty()) {
+            Long estimate = jdbcTemplate.queryForObject(ESTIMATE_LIVROS_POR_AUTOR, Long.class);
+            if (estimate != null && estimate >= 0) {
+                return estimate;
+            }
+        }
+        Long rows = namedParameterJdbcTemplate.queryForObject(COUNT_LIVROS_POR_AUTOR.formatted(where), parameters, Long.class);
+        return rows != null ? rows : 0L;
+    }
+
+    /**
+     * Runs the report query on a forward-only cursor and hands the open result set to {@code extractor}.
+     * The filter becomes part of the WHERE clause, so only matching rows ever leave the database.
+     * PostgreSQL only honours the fetch size inside a transaction, so callers should be {@code @Transactional}.
+     */
+    public <T> T streamLivrosPorAutor(LivroFiltro filtro, ResultSetExtractor<T> extractor) {
+        return streamLivrosPorAutor(filtro, null, null, extractor);
+    }
+
+    /**
+     * Same as {@link #streamLivrosPorAutor(LivroFiltro, ResultSetExtractor)}, restricted to the authors whose name
+     * sorts from {@code autorInicio} (inclusive) up to {@code autorFim} (exclusive); {@code null} leaves that end open.
+     */
+    public <T> T streamLivrosPorAutor(LivroFiltro filtro, String autorInicio, String autorFim, ResultSetExtractor<T> extractor) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        String where = where(filtro, parameters);
+        if (autorInicio != null) {
+            where = and(where, "v.autor_nome >= :autorInicio");
+            parameters.addValue("autorInicio", autorInicio);
+        }
+        if (autorFim != null) {
+            where = and(where, "v.autor_nome < :autorFim");
+            parameters.addValue("autorFim", autorFim);
+        }
+        ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement(SELECT_LIVROS_POR_AUTOR.formatted(where));
+        String sql = NamedParameterUtils.substituteNamedParameters(parsedSql, parameters);
+        Object[] values = NamedParameterUtils.buildValueArray(parsedSql, parameters, null);
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(relatorioProperties.getFetchSize());
+            new ArgumentPreparedStatementSetter(values).setValues(statement);
+            return statement;
+        }, extractor);
+    }
+
+    /**
+     * Splits the filtered report into at most {@code partitions} contiguous author ranges of similar size.
+     *
+     * @return the first author name of each range, in report order; range {@code i} ends where range {@code i + 1} starts
+     */
+    public List<String> findLivrosPorAutorPartitionBounds(LivroFiltro filtro, int partitions) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("partitions", partitions);
+        return namedParameterJdbcTemplate.queryForList(SELECT_PARTITION_BOUNDS.formatted(where(filtro, parameters)),
+                parameters, String.class);
+    }
+
+    private static String and(String where, String condition) {
+        return where.isEmpty() ? "WHERE " + condition : where + "\n  AND " + condition;
+    }
+
+    private static String where(LivroFiltro filtro, MapSqlParameterSource parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (filtro.getAutorIds() != null && !filtro.getAutorIds().isEmpty()) {
+            conditions.add("v.autor_id IN (:autorIds)");
+            parameters.addValue("autorIds", filtro.getAutorIds());
+        }
+        if (filtro.getAssuntoIds() != null && !filtro.getAssuntoIds().isEmpty()) {
+            conditions.add("EXISTS (SELECT 1 FROM livro_assunto las WHERE las.livro_id = v.livro_id AND las.assunto_id IN (:assuntoIds))");
+            parameters.addValue("assuntoIds", filtro.getAssuntoIds());
+        }
+        if (filtro.getEditora() != null && !filtro.getEditora().isBlank()) {
+            conditions.add("lower(v.editora_livro) = lower(:editora)");
+            parameters.addValue("editora", filtro.getEditora().trim());
+        }
+        // ano_publicacao is a 4 digit string, so zero-padded bounds compare correctly and can use the index
+        if (filtro.getAnoInicio() != null) {
+            conditions.add("v.ano_publicacao_livro >= :anoInicio");
+            parameters.addValue("anoInicio", "%04d".formatted(filtro.getAnoInicio()));
+        }
+        if (filtro.getAnoFim() != null) {
+            conditions.add("v.ano_publicacao_livro <= :anoFim");
+            parameters.addValue("anoFim", "%04d".formatted(filtro.getAnoFim()));
+        }
+        if (filtro.getValorMinimo() != null) {
+            conditions.add("v.valor_livro >= :valorMinimo");
+            parameters.addValue("valorMinimo", filtro.getValorMinimo());
+        }
+        if (filtro.getValorMaximo() != null) {
+            conditions.add("v.valor_livro <= :valorMaximo");
+            parameters.addValue("valorMaximo", filtro.getValorMaximo());
+        }
+        return conditions.isEmpty() ? "" : "WHERE " + String.join("\n  AND ", conditions);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.biblioteca.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Refresh of the {@code vw_relatorio_livros_por_autor} materialized view and its state in
+ * {@code visoes_materializadas} (see migration V9).
+ */
+@Repository
+public class RelatorioMaterializadoRepository {
+
+    private static final String NOME = "vw_relatorio_livros_por_autor";
+
+    /**
+     * Arbitrary key of the transaction-level advisory lock that lets one instance at a time refresh the view.
+     */
+    private static final long REFRESH_LOCK_KEY = 0x72656c61746fL;
+
+    /**
+     * @param versao         bumped by every refresh
+     * @param versaoCatalogo catalogue version ({@link #findVersaoCatalogo()}) the view was refreshed from, at least
+     * @param atualizadaEm   when the last refresh finished
+     */
+    public record Estado(long versao, long versaoCatalogo, OffsetDateTime atualizadaEm) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Sum of the livros, autores and assuntos change counters, which covers every table the view reads. The
+     * counters only grow, so the sum changes whenever any of them does.
+     */
+    public long findVersaoCatalogo() {
+        Long versao = jdbcTemplate.queryForObject("SELECT sum(versao) FROM versoes_colecoes", Long.class);
+        return versao != null ? versao : 0L;
+    }
+
+    public Estado findEstado() {
+        return jdbcTemplate.queryForObject(
+                "SELECT versao, versao_catalogo, atualizada_em FROM visoes_materializadas WHERE nome = ?",
+                (rs, rowNum) -> new Estado(rs.getLong("versao"), rs.getLong("versao_catalogo"),
+                        rs.getObject("atualizada_em", OffsetDateTime.class)),
+                NOME);
+    }
+
+    /**
+     * @return {@code false} if another refresh holds the lock; otherwise the lock is held until the transaction ends
+     */
+    public boolean tryLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, REFRESH_LOCK_KEY));
+    }
+
+    /**
+     * Recomputes the view without blocking the reports reading it, and records the new state in the same
+     * transaction, so readers see the new rows and the new {@link Estado#versao()} together.
+     *
+     * @param versaoCatalogo catalogue version read before the refresh started
+     */
+    public void refresh(long versaoCatalogo) {
+        jdbcTemplate.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY " + NOME);
+        jdbcTemplate.update("""
+                UPDATE visoes_materializadas
+                SET versao = versao + 1, versao_catalogo = ?, atualizada_em = clock_timestamp()
+                WHERE nome = ?
+                """, versaoCatalogo, NOME);
+    }
+}
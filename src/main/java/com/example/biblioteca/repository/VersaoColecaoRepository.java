@@ -0,0 +1,26 @@
+package com.example.biblioteca.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Change counters of the livros, autores and assuntos collections, bumped when a transaction that wrote to the
+ * table (and, for livros, to its association tables) commits, once per collection (see migrations V7 and V10).
+ * Reading one is a primary key lookup.
+ */
+@Repository
+public class VersaoColecaoRepository {
+
+    public static final String LIVROS = "livros";
+    public static final String AUTORES = "autores";
+    public static final String ASSUNTOS = "assuntos";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public long findVersao(String colecao) {
+        Long versao = jdbcTemplate.queryForObject("SELECT versao FROM versoes_colecoes WHERE colecao = ?", Long.class, colecao);
+        return versao != null ? versao : 0L;
+    }
+}
@@ -2,57 +2,156 @@ package com.example.biblioteca.service;
 
 import com.example.biblioteca.domain.Assunto;
 import com.example.biblioteca.dto.AssuntoDTO;
+import com.example.biblioteca.dto.CursorPage;
+import com.example.biblioteca.dto.KeysetCursor;
+import com.example.biblioteca.dto.MultiGetResult;
+import com.example.biblioteca.dto.SugestaoDTO;
+import com.example.biblioteca.exception.PreconditionFailedException;
 import com.example.biblioteca.exception.ResourceNotFoundException;
 import com.example.biblioteca.mapper.AssuntoMapper;
 import com.example.biblioteca.repository.AssuntoRepository;
+import com.example.biblioteca.repository.VersaoColecaoRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 public class AssuntoService {
 
+    private static final int MAX_SUGGESTIONS = 50;
+
     @Autowired
     private AssuntoRepository assuntoRepository;
 
+    @Autowired
+    private VersaoColecaoRepository versaoColecaoRepository;
+
     @Autowired
     private AssuntoMapper assuntoMapper;
 
+    @Autowired
+    private ReferenceCaches referenceCaches;
+
+    private final SuggestIndex suggestIndex = new SuggestIndex();
+
+    @PostConstruct
+    public void reloadSuggestions() {
+        suggestIndex.rebuild(assuntoRepository.findAllSugestoes());
+    }
+
     @Transactional(readOnly = true)
     public Page<AssuntoDTO> findAll(Pageable pageable) {
         return assuntoRepository.findAll(pageable).map(assuntoMapper::toDto);
     }
 
     @Transactional(readOnly = true)
+    public CursorPage<AssuntoDTO> findAll(String after, int size) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        int pageSize = CursorPage.clampSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Assunto> rows = cursor == null
+                ? assuntoRepository.findFirstPageOrderByDescricao(limit)
+                : assuntoRepository.findPageAfter(cursor.key(), cursor.id(), limit);
+        return CursorPage.of(rows, pageSize, assunto -> new KeysetCursor(assunto.getDescricao(), assunto.getId())).map(assuntoMapper::toDto);
+    }
+
+    /**
+     * Served from memory; the index follows this service's writes once they commit.
+     */
+    public List<SugestaoDTO> suggest(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    /**
+     * Cached like {@link AutorService#findById(Long)}.
+     */
     public AssuntoDTO findById(Long id) {
-        Assunto assunto = assuntoRepository.findById(id)
+        AssuntoDTO assuntoDTO = referenceCaches.assuntos().get(id, key -> assuntoRepository.findById(key).map(assuntoMapper::toDto).orElse(null));
+        if (assuntoDTO == null) {
+            throw new ResourceNotFoundException("Assunto not found with id " + id);
+        }
+        return assuntoDTO;
+    }
+
+    /**
+     * Cached like {@link AutorService#findAllById(Collection)}.
+     */
+    public MultiGetResult<AssuntoDTO> findAllById(Collection<Long> ids) {
+        Set<Long> distinct = MultiGetResult.distinct(ids);
+        return MultiGetResult.of(distinct, referenceCaches.assuntos().getAll(distinct,
+                uncached -> assuntoRepository.findAllById(uncached).stream().collect(Collectors.toMap(Assunto::getId, assuntoMapper::toDto))));
+    }
+
+    /**
+     * Version of one assunto for conditional requests: taken from the cache when it holds the assunto, otherwise only the
+     * version column is read.
+     */
+    public long findVersaoById(Long id) {
+        AssuntoDTO cached = referenceCaches.assuntos().getIfPresent(id);
+        if (cached != null) {
+            return cached.getVersao();
+        }
+        return assuntoRepository.findVersaoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Assunto not found with id " + id));
-        return assuntoMapper.toDto(assunto);
+    }
+
+    /**
+     * Change counter of the whole collection, for the ETag of the listings.
+     */
+    public long findVersaoColecao() {
+        return versaoColecaoRepository.findVersao(VersaoColecaoRepository.ASSUNTOS);
     }
 
     @Transactional
     public AssuntoDTO create(AssuntoDTO assuntoDTO) {
         Assunto assunto = assuntoMapper.toEntity(assuntoDTO);
         assunto = assuntoRepository.save(assunto);
+        suggestIndex.putAfterCommit(assunto.getId(), assunto.getDescricao());
         return assuntoMapper.toDto(assunto);
     }
 
+    /**
+     * @param expectedVersao version the client last saw (from {@code If-Match}); {@code null} updates unconditionally
+     */
     @Transactional
-    public AssuntoDTO update(Long id, AssuntoDTO assuntoDTO) {
+    public AssuntoDTO update(Long id, AssuntoDTO assuntoDTO, Long expectedVersao) {
         Assunto assunto = assuntoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Assunto not found with id " + id));
+        if (expectedVersao != null && !expectedVersao.equals(assunto.getVersao())) {
+            throw new PreconditionFailedException("Assunto " + id + " is at version " + assunto.getVersao() + ", not " + expectedVersao);
+        }
         assunto.setDescricao(assuntoDTO.getDescricao());
         assunto = assuntoRepository.save(assunto);
+        // flushed here so the returned versao is the one being committed
+        assuntoRepository.flush();
+        referenceCaches.assuntos().invalidateAfterCommit(id);
+        suggestIndex.putAfterCommit(assunto.getId(), assunto.getDescricao());
         return assuntoMapper.toDto(assunto);
     }
 
+    /**
+     * The delete is conditional on the version that was read, so a concurrent update makes it fail instead of being lost.
+     *
+     * @param expectedVersao version the client last saw (from {@code If-Match}); {@code null} deletes unconditionally
+     */
     @Transactional
-    public void delete(Long id) {
-        if (!assuntoRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Assunto not found with id " + id);
+    public void delete(Long id, Long expectedVersao) {
+        Assunto assunto = assuntoRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Assunto not found with id " + id));
+        if (expectedVersao != null && !expectedVersao.equals(assunto.getVersao())) {
+            throw new PreconditionFailedException("Assunto " + id + " is at version " + assunto.getVersao() + ", not " + expectedVersao);
         }
-        assuntoRepository.deleteById(id);
+        assuntoRepository.delete(assunto);
+        referenceCaches.assuntos().invalidateAfterCommit(id);
+        suggestIndex.removeAfterCommit(id);
     }
 }
\ No newline at end of file
@@ -2,57 +2,158 @@ package com.example.biblioteca.service;
 
 import com.example.biblioteca.domain.Autor;
 import com.example.biblioteca.dto.AutorDTO;
+import com.example.biblioteca.dto.CursorPage;
+import com.example.biblioteca.dto.KeysetCursor;
+import com.example.biblioteca.dto.MultiGetResult;
+import com.example.biblioteca.dto.SugestaoDTO;
+import com.example.biblioteca.exception.PreconditionFailedException;
 import com.example.biblioteca.exception.ResourceNotFoundException;
 import com.example.biblioteca.mapper.AutorMapper;
 import com.example.biblioteca.repository.AutorRepository;
+import com.example.biblioteca.repository.VersaoColecaoRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 public class AutorService {
 
+    private static final int MAX_SUGGESTIONS = 50;
+
     @Autowired
     private AutorRepository autorRepository;
 
+    @Autowired
+    private VersaoColecaoRepository versaoColecaoRepository;
+
     @Autowired
     private AutorMapper autorMapper;
 
+    @Autowired
+    private ReferenceCaches referenceCaches;
+
+    private final SuggestIndex suggestIndex = new SuggestIndex();
+
+    @PostConstruct
+    public void reloadSuggestions() {
+        suggestIndex.rebuild(autorRepository.findAllSugestoes());
+    }
+
     @Transactional(readOnly = true)
     public Page<AutorDTO> findAll(Pageable pageable) {
         return autorRepository.findAll(pageable).map(autorMapper::toDto);
     }
 
     @Transactional(readOnly = true)
+    public CursorPage<AutorDTO> findAll(String after, int size) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        int pageSize = CursorPage.clampSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Autor> rows = cursor == null
+                ? autorRepository.findFirstPageOrderByNome(limit)
+                : autorRepository.findPageAfter(cursor.key(), cursor.id(), limit);
+        return CursorPage.of(rows, pageSize, autor -> new KeysetCursor(autor.getNome(), autor.getId())).map(autorMapper::toDto);
+    }
+
+    /**
+     * Served from memory; the index follows this service's writes once they commit.
+     */
+    public List<SugestaoDTO> suggest(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    /**
+     * Not transactional: a cache hit shouldn't take a connection from the pool; a miss runs in the repository's own
+     * read-only transaction.
+     */
     public AutorDTO findById(Long id) {
-        Autor autor = autorRepository.findById(id)
+        AutorDTO autorDTO = referenceCaches.autores().get(id, key -> autorRepository.findById(key).map(autorMapper::toDto).orElse(null));
+        if (autorDTO == null) {
+            throw new ResourceNotFoundException("Autor not found with id " + id);
+        }
+        return autorDTO;
+    }
+
+    /**
+     * Many autores in one call, in request order, for clients that would otherwise fetch them one by one. Cached
+     * autores are served from memory and the rest are read in a single query.
+     */
+    public MultiGetResult<AutorDTO> findAllById(Collection<Long> ids) {
+        Set<Long> distinct = MultiGetResult.distinct(ids);
+        return MultiGetResult.of(distinct, referenceCaches.autores().getAll(distinct,
+                uncached -> autorRepository.findAllById(uncached).stream().collect(Collectors.toMap(Autor::getId, autorMapper::toDto))));
+    }
+
+    /**
+     * Version of one autor for conditional requests: taken from the cache when it holds the autor, otherwise only the
+     * version column is read.
+     */
+    public long findVersaoById(Long id) {
+        AutorDTO cached = referenceCaches.autores().getIfPresent(id);
+        if (cached != null) {
+            return cached.getVersao();
+        }
+        return autorRepository.findVersaoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Autor not found with id " + id));
-        return autorMapper.toDto(autor);
+    }
+
+    /**
+     * Change counter of the whole collection, for the ETag of the listings.
+     */
+    public long findVersaoColecao() {
+        return versaoColecaoRepository.findVersao(VersaoColecaoRepository.AUTORES);
     }
 
     @Transactional
     public AutorDTO create(AutorDTO autorDTO) {
         Autor autor = autorMapper.toEntity(autorDTO);
         autor = autorRepository.save(autor);
+        suggestIndex.putAfterCommit(autor.getId(), autor.getNome());
         return autorMapper.toDto(autor);
     }
 
+    /**
+     * @param expectedVersao version the client last saw (from {@code If-Match}); {@code null} updates unconditionally
+     */
     @Transactional
-    public AutorDTO update(Long id, AutorDTO autorDTO) {
+    public AutorDTO update(Long id, AutorDTO autorDTO, Long expectedVersao) {
         Autor autor = autorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Autor not found with id " + id));
+        if (expectedVersao != null && !expectedVersao.equals(autor.getVersao())) {
+            throw new PreconditionFailedException("Autor " + id + " is at version " + autor.getVersao() + ", not " + expectedVersao);
+        }
         autor.setNome(autorDTO.getNome());
         autor = autorRepository.save(autor);
+        // flushed here so the returned versao is the one being committed
+        autorRepository.flush();
+        referenceCaches.autores().invalidateAfterCommit(id);
+        suggestIndex.putAfterCommit(autor.getId(), autor.getNome());
         return autorMapper.toDto(autor);
     }
 
+    /**
+     * The delete is conditional on the version that was read, so a concurrent update makes it fail instead of being lost.
+     *
+     * @param expectedVersao version the client last saw (from {@code If-Match}); {@code null} deletes unconditionally
+     */
     @Transactional
-    public void delete(Long id) {
-        if (!autorRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Autor not found with id " + id);
+    public void delete(Long id, Long expectedVersao) {
+        Autor autor = autorRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Autor not found with id " + id));
+        if (expectedVersao != null && !expectedVersao.equals(autor.getVersao())) {
+            throw new PreconditionFailedException("Autor " + id + " is at version " + autor.getVersao() + ", not " + expectedVersao);
         }
-        autorRepository.deleteById(id);
+        autorRepository.delete(autor);
+        referenceCaches.autores().invalidateAfterCommit(id);
+        suggestIndex.removeAfterCommit(id);
     }
 }
\ No newline at end of file
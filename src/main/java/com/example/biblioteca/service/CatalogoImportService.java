@@ -0,0 +1,99 @@
+package com.example.biblioteca.service;
+
+import com.example.biblioteca.config.ImportacaoProperties;
+import com.example.biblioteca.dto.CatalogoImportResultDTO;
+import com.example.biblioteca.exception.CatalogoImportInProgressException;
+import com.example.biblioteca.report.DelimitedFormat;
+import com.example.biblioteca.repository.CatalogoImportRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+
+/**
+ * Full catalogue refresh from a CSV or TSV file, for loads where going through JPA would be far too slow.
+ * <p>
+ * The file is streamed with {@code COPY} into a staging table and merged with set-based SQL (see
+ * {@link CatalogoImportRepository}): missing authors and subjects are created by name, books are matched on
+ * (titulo, editora, edicao) and updated or inserted, and their associations replaced by the ones in the file. Books
+ * absent from the file are left alone. Everything runs in one transaction, so a failed import changes nothing, and
+ * only one import runs at a time.
+ */
+@Service
+public class CatalogoImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogoImportService.class);
+
+    @Autowired
+    private CatalogoImportRepository catalogoImportRepository;
+
+    @Autowired
+    private ImportacaoProperties importacaoProperties;
+
+    @Autowired
+    private AutorService autorService;
+
+    @Autowired
+    private AssuntoService assuntoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public CatalogoImportResultDTO importCatalogo(DelimitedFormat format, InputStream in) {
+        long start = System.currentTimeMillis();
+        CatalogoImportResultDTO result = transactionTemplate.execute(status -> merge(format, in, start));
+        // the merge inserts names with plain SQL, so the services' suggestion indexes haven't seen them
+        if (result.getAutoresCreated() > 0) {
+            autorService.reloadSuggestions();
+        }
+        if (result.getAssuntosCreated() > 0) {
+            assuntoService.reloadSuggestions();
+        }
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        result.setRowsPerSecond(result.getRows() * 1000 / Math.max(1, result.getElapsedMillis()));
+        logger.info("Catalogue import of {} rows in {} ms ({} rows/s): {} livros created, {} updated, {} autores and {} assuntos created, {} rows rejected, {} duplicates",
+                result.getRows(), result.getElapsedMillis(), result.getRowsPerSecond(), result.getLivrosCreated(),
+                result.getLivrosUpdated(), result.getAutoresCreated(), result.getAssuntosCreated(),
+                result.getRejected(), result.getDuplicates());
+        return result;
+    }
+
+    private CatalogoImportResultDTO merge(DelimitedFormat format, InputStream in, long start) {
+        if (!catalogoImportRepository.tryLock()) {
+            throw new CatalogoImportInProgressException("A catalogue import is already running, try again later");
+        }
+        CatalogoImportResultDTO result = new CatalogoImportResultDTO();
+        catalogoImportRepository.truncateStaging();
+        result.setRows(catalogoImportRepository.copyIntoStaging(format, in, (int) importacaoProperties.getCopyBufferSize().toBytes()));
+        logger.debug("Copied {} rows into staging in {} ms", result.getRows(), System.currentTimeMillis() - start);
+
+        result.setRejected(catalogoImportRepository.deleteInvalidRows());
+        result.setDuplicates(catalogoImportRepository.deleteDuplicateRows());
+        catalogoImportRepository.analyzeStaging();
+
+        result.setAutoresCreated(catalogoImportRepository.insertMissingAutores());
+        result.setAssuntosCreated(catalogoImportRepository.insertMissingAssuntos());
+        catalogoImportRepository.resolveLivros();
+        result.setLivrosUpdated(catalogoImportRepository.updateLivros());
+        result.setLivrosCreated(catalogoImportRepository.insertLivros());
+        if (result.getLivrosCreated() > 0) {
+            catalogoImportRepository.resolveLivros();
+        }
+        catalogoImportRepository.syncAssociations();
+        logger.debug("Merged staged rows into the catalogue in {} ms", System.currentTimeMillis() - start);
+
+        return result;
+    }
+}
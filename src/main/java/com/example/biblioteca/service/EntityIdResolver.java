@@ -0,0 +1,68 @@
+package com.example.biblioteca.service;
+
+import com.example.biblioteca.exception.ResourceNotFoundException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns ids referenced by a request into entities with a single {@code IN} query per entity type, instead of one
+ * lookup per id. Callers that resolve references for many records at once (e.g. bulk imports) should collect all
+ * ids first and resolve them in one call.
+ */
+@Component
+public class EntityIdResolver {
+
+    /**
+     * @param entityName name used in the error message, e.g. {@code "Autor"}
+     * @return the entities keyed by id; empty when {@code ids} is null or empty
+     * @throws ResourceNotFoundException listing every id that does not exist
+     */
+    public <T> Map<Long, T> resolve(JpaRepository<T, Long> repository, Collection<Long> ids, Function<T, Long> idOf,
+                                    String entityName) {
+        Map<Long, T> found = findAll(repository, ids, idOf);
+        Set<Long> missing = missingIds(ids, found);
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException(notFoundMessage(entityName, missing));
+        }
+        return found;
+    }
+
+    /**
+     * Like {@link #resolve}, but leaves it to the caller to decide what to do about ids that don't exist.
+     */
+    public <T> Map<Long, T> findAll(JpaRepository<T, Long> repository, Collection<Long> ids, Function<T, Long> idOf) {
+        Map<Long, T> found = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return found;
+        }
+        for (T entity : repository.findAllById(new TreeSet<>(ids))) {
+            found.put(idOf.apply(entity), entity);
+        }
+        return found;
+    }
+
+    /**
+     * @return the ids of {@code ids} that are not keys of {@code found}, in ascending order
+     */
+    public static Set<Long> missingIds(Collection<Long> ids, Map<Long, ?> found) {
+        Set<Long> missing = new TreeSet<>();
+        if (ids != null) {
+            ids.stream().filter(id -> !found.containsKey(id)).forEach(missing::add);
+        }
+        return missing;
+    }
+
+    public static String notFoundMessage(String entityName, Set<Long> missingIds) {
+        return missingIds.size() == 1
+                ? entityName + " not found with id " + missingIds.iterator().next()
+                : entityName + " not found with ids " + missingIds.stream().map(String::valueOf).collect(Collectors.joining(", "));
+    }
+}
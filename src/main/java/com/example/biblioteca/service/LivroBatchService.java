@@ -0,0 +1,251 @@
+package com.example.biblioteca.service;
+
+import com.example.biblioteca.config.ImportacaoProperties;
+import com.example.biblioteca.domain.Assunto;
+import com.example.biblioteca.domain.Autor;
+import com.example.biblioteca.domain.Livro;
+import com.example.biblioteca.dto.LivroBatchResultDTO;
+import com.example.biblioteca.dto.LivroDTO;
+import com.example.biblioteca.mapper.LivroMapper;
+import com.example.biblioteca.repository.AssuntoRepository;
+import com.example.biblioteca.repository.AutorRepository;
+import com.example.biblioteca.repository.LivroRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates books in bulk from a JSON array or an NDJSON stream.
+ * <p>
+ * The input is read incrementally and processed in chunks of {@code biblioteca.importacao.chunk-size} books, each
+ * saved in its own transaction with JDBC statement batching, so memory use and transaction size don't depend on
+ * the size of the load. Invalid books, books referencing unknown authors or subjects and books rejected by the
+ * database are reported individually without aborting the rest of the load.
+ */
+@Service
+public class LivroBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LivroBatchService.class);
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private AssuntoRepository assuntoRepository;
+
+    @Autowired
+    private LivroMapper livroMapper;
+
+    @Autowired
+    private EntityIdResolver entityIdResolver;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ImportacaoProperties importacaoProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public LivroBatchResultDTO createAll(InputStream body) throws IOException {
+        long start = System.currentTimeMillis();
+        LivroBatchResultDTO result = new LivroBatchResultDTO();
+        List<Item> chunk = new ArrayList<>();
+        int index = 0;
+        try (MappingIterator<LivroDTO> livros = objectMapper.readerFor(LivroDTO.class).readValues(body)) {
+            while (true) {
+                LivroDTO livroDTO;
+                try {
+                    if (!livros.hasNextValue()) {
+                        break;
+                    }
+                    livroDTO = livros.nextValue();
+                } catch (JsonMappingException e) {
+                    // the iterator skips the offending value, so the following books can still be read
+                    result.getFailures().add(new LivroBatchResultDTO.Failure(index++, "Invalid livro: " + e.getOriginalMessage()));
+                    continue;
+                } catch (JsonProcessingException e) {
+                    result.getFailures().add(new LivroBatchResultDTO.Failure(index++,
+                            "Malformed input, remaining livros were not read: " + e.getOriginalMessage()));
+                    break;
+                }
+                String violations = validate(livroDTO);
+                if (violations != null) {
+                    result.getFailures().add(new LivroBatchResultDTO.Failure(index++, violations));
+                    continue;
+                }
+                chunk.add(new Item(index++, livroDTO));
+                if (chunk.size() >= importacaoProperties.getChunkSize()) {
+                    saveChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, result);
+        }
+        result.setTotal(index);
+        result.getFailures().sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        logger.info("Batch load of {} livros: {} created, {} failed in {} ms", result.getTotal(), result.getCreated(),
+                result.getFailures().size(), System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private String validate(LivroDTO livroDTO) {
+        Set<ConstraintViolation<LivroDTO>> violations = validator.validate(livroDTO);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Saves the chunk in one transaction. If the database rejects it, the chunk is rolled back and retried one book
+     * per transaction, so only the offending books are reported.
+     */
+    private void saveChunk(List<Item> chunk, LivroBatchResultDTO result) {
+        ChunkOutcome outcome;
+        try {
+            outcome = persistInTransaction(chunk);
+        } catch (DataAccessException e) {
+            logger.warn("Chunk of {} livros rejected ({}), retrying one at a time", chunk.size(), e.getMostSpecificCause().getMessage());
+            outcome = new ChunkOutcome(0, new ArrayList<>());
+            for (Item item : chunk) {
+                try {
+                    ChunkOutcome single = persistInTransaction(List.of(item));
+                    outcome = outcome.plus(single);
+                } catch (DataAccessException itemFailure) {
+                    outcome.failures().add(new LivroBatchResultDTO.Failure(item.index(),
+                            "Could not save livro: " + itemFailure.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+        result.setCreated(result.getCreated() + outcome.created());
+        result.getFailures().addAll(outcome.failures());
+    }
+
+    /**
+     * With open-in-view the request's persistence context outlives each chunk transaction, so the books, authors and
+     * subjects of every chunk would stay managed until the end of the load and each flush would dirty-check all of
+     * them. Clearing after every transaction, committed or rolled back, keeps the context at one chunk.
+     */
+    private ChunkOutcome persistInTransaction(List<Item> items) {
+        try {
+            return transactionTemplate.execute(status -> persist(items));
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    private ChunkOutcome persist(List<Item> chunk) {
+        Map<Long, Autor> autores = entityIdResolver.findAll(autorRepository,
+                referencedIds(chunk, LivroDTO::getAutoresIds), Autor::getId);
+        Map<Long, Assunto> assuntos = entityIdResolver.findAll(assuntoRepository,
+                referencedIds(chunk, LivroDTO::getAssuntosIds), Assunto::getId);
+
+        List<LivroBatchResultDTO.Failure> failures = new ArrayList<>();
+        List<Livro> livros = new ArrayList<>(chunk.size());
+        for (Item item : chunk) {
+            LivroDTO livroDTO = item.livro();
+            Set<Long> missingAutores = EntityIdResolver.missingIds(livroDTO.getAutoresIds(), autores);
+            Set<Long> missingAssuntos = EntityIdResolver.missingIds(livroDTO.getAssuntosIds(), assuntos);
+            if (!missingAutores.isEmpty() || !missingAssuntos.isEmpty()) {
+                List<String> messages = new ArrayList<>();
+                if (!missingAutores.isEmpty()) {
+                    messages.add(EntityIdResolver.notFoundMessage("Autor", missingAutores));
+                }
+                if (!missingAssuntos.isEmpty()) {
+                    messages.add(EntityIdResolver.notFoundMessage("Assunto", missingAssuntos));
+                }
+                failures.add(new LivroBatchResultDTO.Failure(item.index(), String.join("; ", messages)));
+                continue;
+            }
+            Livro livro = livroMapper.toEntity(livroDTO);
+            livro.setId(null);
+            livro.setAutores(select(autores, livroDTO.getAutoresIds()));
+            livro.setAssuntos(select(assuntos, livroDTO.getAssuntosIds()));
+            livros.add(livro);
+        }
+        if (!livros.isEmpty()) {
+            livroRepository.saveAll(livros);
+            // flush here so constraint violations surface as DataAccessException inside the transaction callback
+            livroRepository.flush();
+        }
+        return new ChunkOutcome(livros.size(), failures);
+    }
+
+    private static Set<Long> referencedIds(List<Item> chunk, Function<LivroDTO, Set<Long>> ids) {
+        Set<Long> referenced = new HashSet<>();
+        for (Item item : chunk) {
+            Collection<Long> itemIds = ids.apply(item.livro());
+            if (itemIds != null) {
+                referenced.addAll(itemIds);
+            }
+        }
+        return referenced;
+    }
+
+    private static <T> Set<T> select(Map<Long, T> entities, Set<Long> ids) {
+        Set<T> selected = new HashSet<>();
+        if (ids != null) {
+            ids.forEach(id -> selected.add(entities.get(id)));
+        }
+        return selected;
+    }
+
+    private record Item(int index, LivroDTO livro) {
+    }
+
+    private record ChunkOutcome(int created, List<LivroBatchResultDTO.Failure> failures) {
+
+        ChunkOutcome plus(ChunkOutcome other) {
+            List<LivroBatchResultDTO.Failure> combined = new ArrayList<>(failures);
+            combined.addAll(other.failures());
+            return new ChunkOutcome(created + other.created(), combined);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.biblioteca.service;
+
+import com.example.biblioteca.config.ExportacaoProperties;
+import com.example.biblioteca.repository.LivroReadRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Full or incremental export of the catalogue as newline-delimited JSON, for clients that sync every book instead
+ * of paging through the listing.
+ * <p>
+ * The books are read on one server-side cursor and written as they arrive (see {@link LivroNdjsonWriter}), so
+ * neither side holds the catalogue in memory and the first lines reach the client before the last rows are read.
+ * Being a single statement, the export is a consistent snapshot of the catalogue.
+ */
+@Service
+public class LivroExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LivroExportService.class);
+
+    @Autowired
+    private LivroReadRepository livroReadRepository;
+
+    @Autowired
+    private ExportacaoProperties exportacaoProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Token a client passes as {@code since} to its next export. Taken before the export reads anything, so the next
+     * export covers every change this one may not have seen.
+     */
+    public long currentSyncToken() {
+        return livroReadRepository.findSyncToken();
+    }
+
+    /**
+     * Streams the livros changed since the export that handed out the {@code since} token, or all of them when it is
+     * {@code null}, to {@code out}; {@code out} is flushed but not closed.
+     *
+     * @return number of livros written
+     */
+    public long exportNdjson(Long since, OutputStream out) {
+        long start = System.currentTimeMillis();
+        int fetchSize = exportacaoProperties.getFetchSize();
+        // PostgreSQL only streams through a cursor inside a transaction
+        Long rows = readOnlyTransaction.execute(status -> livroReadRepository.streamAll(since, fetchSize, rs -> {
+            try {
+                return new LivroNdjsonWriter(objectMapper.getFactory(), out, fetchSize).writeAll(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        logger.debug("Exported {} livros as NDJSON (since {}) in {} ms", rows, since, System.currentTimeMillis() - start);
+        return rows != null ? rows : 0L;
+    }
+}
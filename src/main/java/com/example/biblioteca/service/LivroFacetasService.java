@@ -0,0 +1,65 @@
+package com.example.biblioteca.service;
+
+import com.example.biblioteca.config.FacetasProperties;
+import com.example.biblioteca.dto.LivroFacetasDTO;
+import com.example.biblioteca.dto.LivroFiltro;
+import com.example.biblioteca.repository.LivroFacetasRepository;
+import com.example.biblioteca.repository.VersaoColecaoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Facet counts of the catalogue browser, cached by filter and catalogue version.
+ * <p>
+ * The version is the sum of the livros and assuntos change counters, which only grow, so any write that can change
+ * a count or a subject name gives new keys and older entries are simply never read again. The counters are kept by
+ * database triggers, so writes through other instances or plain SQL are seen too.
+ */
+@Service
+public class LivroFacetasService {
+
+    @Autowired
+    private LivroFacetasRepository livroFacetasRepository;
+
+    @Autowired
+    private VersaoColecaoRepository versaoColecaoRepository;
+
+    @Autowired
+    private FacetasProperties facetasProperties;
+
+    private Cache<FacetasKey, LivroFacetasDTO> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(facetasProperties.getCache().getMaxSize())
+                .build();
+    }
+
+    /**
+     * Version of the facet counts, for their ETag and cache key.
+     */
+    public long findVersao() {
+        return versaoColecaoRepository.findVersao(VersaoColecaoRepository.LIVROS)
+                + versaoColecaoRepository.findVersao(VersaoColecaoRepository.ASSUNTOS);
+    }
+
+    /**
+     * Counts of the books matching {@code filtro}. Concurrent requests for the same key wait for a single query.
+     * The version is read before the counts, so an entry is never older than its key says.
+     *
+     * @param versao from {@link #findVersao()}
+     */
+    public LivroFacetasDTO findFacetas(LivroFiltro filtro, long versao) {
+        return cache.get(new FacetasKey(filtro.toParameters(), versao),
+                key -> livroFacetasRepository.findFacetas(filtro, facetasProperties.getFaixasValor()));
+    }
+
+    private record FacetasKey(Map<String, String> filtro, long versao) {
+    }
+}
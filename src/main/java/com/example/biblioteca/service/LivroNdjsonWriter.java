@@ -0,0 +1,78 @@
+package com.example.biblioteca.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+
+/**
+ * Writes livros as newline-delimited JSON straight from the export cursor, one object per line.
+ * <p>
+ * Each row is written field by field with Jackson's streaming {@link JsonGenerator}, without building a DTO or a
+ * tree, so memory use does not depend on the number of rows. The properties are those of
+ * {@link com.example.biblioteca.dto.LivroDTO} plus {@code atualizadoEm}; the result set is expected to select the
+ * columns of {@link com.example.biblioteca.repository.LivroReadRepository#streamAll}.
+ */
+public class LivroNdjsonWriter {
+
+    private final JsonGenerator generator;
+    private final int flushEvery;
+
+    /**
+     * @param flushEvery rows written between flushes of {@code out}, so the client gets the export as it is read
+     */
+    public LivroNdjsonWriter(JsonFactory jsonFactory, OutputStream out, int flushEvery) throws IOException {
+        this.generator = jsonFactory.createGenerator(out);
+        // lines are separated by the newline written after each object, not by the default space
+        generator.setRootValueSeparator(null);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.flushEvery = Math.max(1, flushEvery);
+    }
+
+    /**
+     * Writes every remaining row of {@code resultSet}, then flushes; {@code out} is left open.
+     *
+     * @return number of rows written
+     */
+    public long writeAll(ResultSet resultSet) throws SQLException, IOException {
+        long rows = 0;
+        while (resultSet.next()) {
+            writeLivro(resultSet);
+            if (++rows % flushEvery == 0) {
+                generator.flush();
+            }
+        }
+        generator.close();
+        return rows;
+    }
+
+    private void writeLivro(ResultSet resultSet) throws SQLException, IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", resultSet.getLong("id"));
+        generator.writeStringField("titulo", resultSet.getString("titulo"));
+        generator.writeStringField("editora", resultSet.getString("editora"));
+        generator.writeStringField("edicao", resultSet.getString("edicao"));
+        generator.writeStringField("anoPublicacao", resultSet.getString("ano_publicacao"));
+        generator.writeNumberField("valor", resultSet.getBigDecimal("valor"));
+        writeIds("autoresIds", resultSet.getArray("autores_ids"));
+        writeIds("assuntosIds", resultSet.getArray("assuntos_ids"));
+        generator.writeNumberField("versao", resultSet.getLong("versao"));
+        generator.writeStringField("atualizadoEm", resultSet.getObject("atualizado_em", OffsetDateTime.class).toString());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void writeIds(String name, Array array) throws SQLException, IOException {
+        generator.writeArrayFieldStart(name);
+        for (Long id : (Long[]) array.getArray()) {
+            generator.writeNumber(id);
+        }
+        generator.writeEndArray();
+        array.free();
+    }
+}
@@ -3,20 +3,39 @@ package com.example.biblioteca.service;
 import com.example.biblioteca.domain.Assunto;
 import com.example.biblioteca.domain.Autor;
 import com.example.biblioteca.domain.Livro;
+import com.example.biblioteca.dto.AssuntoDTO;
+import com.example.biblioteca.dto.AutorDTO;
+import com.example.biblioteca.dto.CursorPage;
+import com.example.biblioteca.dto.KeysetCursor;
 import com.example.biblioteca.dto.LivroDTO;
+import com.example.biblioteca.dto.LivroFields;
+import com.example.biblioteca.dto.MultiGetResult;
+import com.example.biblioteca.exception.PreconditionFailedException;
 import com.example.biblioteca.exception.ResourceNotFoundException;
+import com.example.biblioteca.mapper.AssuntoMapper;
+import com.example.biblioteca.mapper.AutorMapper;
 import com.example.biblioteca.mapper.LivroMapper;
 import com.example.biblioteca.repository.AssuntoRepository;
 import com.example.biblioteca.repository.AutorRepository;
+import com.example.biblioteca.repository.LivroReadRepository;
 import com.example.biblioteca.repository.LivroRepository;
+import com.example.biblioteca.repository.VersaoColecaoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +44,12 @@ public class LivroService {
     @Autowired
     private LivroRepository livroRepository;
 
+    @Autowired
+    private LivroReadRepository livroReadRepository;
+
+    @Autowired
+    private VersaoColecaoRepository versaoColecaoRepository;
+
     @Autowired
     private AutorRepository autorRepository;
 
@@ -34,16 +59,103 @@ public class LivroService {
     @Autowired
     private LivroMapper livroMapper;
 
-    @Transactional(readOnly = true)
-    public Page<LivroDTO> findAll(Pageable pageable) {
-        return livroRepository.findAll(pageable).map(livroMapper::toDto);
+    @Autowired
+    private EntityIdResolver entityIdResolver;
+
+    @Autowired
+    private ReferenceCaches referenceCaches;
+
+    @Autowired
+    private AutorMapper autorMapper;
+
+    @Autowired
+    private AssuntoMapper assuntoMapper;
+
+    /**
+     * Like the other read methods, maps rows straight to DTOs through {@link LivroReadRepository}, so it needs no
+     * transaction: nothing goes through the persistence context. Only the columns {@code fields} needs are read.
+     */
+    public Page<LivroDTO> findAll(Pageable pageable, LivroFields fields) {
+        Page<LivroDTO> page = livroReadRepository.findAll(pageable, fields);
+        expand(page.getContent(), fields);
+        return page;
     }
 
-    @Transactional(readOnly = true)
-    public LivroDTO findById(Long id) {
-        Livro livro = livroRepository.findById(id)
+    /**
+     * Keyset alternative to {@link #findAll(Pageable, LivroFields)}, ordered by titulo and id. Each page seeks
+     * straight to the row after {@code after} through the (titulo, id) index, so deep pages cost the same as the
+     * first one, and no count query is run.
+     */
+    public CursorPage<LivroDTO> findAll(String after, int size, LivroFields fields) {
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        int pageSize = CursorPage.clampSize(size);
+        List<LivroDTO> rows = cursor == null
+                ? livroReadRepository.findFirstPageOrderByTitulo(pageSize + 1, fields)
+                : livroReadRepository.findPageAfter(cursor.key(), cursor.id(), pageSize + 1, fields);
+        CursorPage<LivroDTO> page = CursorPage.of(rows, pageSize, livro -> new KeysetCursor(livro.getTitulo(), livro.getId()));
+        expand(page.getContent(), fields);
+        return page;
+    }
+
+    /**
+     * Ranked full-text search; a blank query matches nothing.
+     */
+    public Page<LivroDTO> search(String query, Pageable pageable, LivroFields fields) {
+        if (!StringUtils.hasText(query)) {
+            return Page.empty(pageable);
+        }
+        Page<LivroDTO> page = livroReadRepository.search(query.strip(), PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()), fields);
+        expand(page.getContent(), fields);
+        return page;
+    }
+
+    public LivroDTO findById(Long id, LivroFields fields) {
+        LivroDTO livro = livroReadRepository.findById(id, fields)
                 .orElseThrow(() -> new ResourceNotFoundException("Livro not found with id " + id));
-        return livroMapper.toDto(livro);
+        expand(List.of(livro), fields);
+        return livro;
+    }
+
+    /**
+     * Many livros in one call, in request order: one query for the livros and their ids, plus at most one per
+     * expanded association, however many ids are asked for.
+     */
+    public MultiGetResult<LivroDTO> findAllById(Collection<Long> ids, LivroFields fields) {
+        Set<Long> distinct = MultiGetResult.distinct(ids);
+        List<LivroDTO> livros = distinct.isEmpty() ? List.of() : livroReadRepository.findAllById(distinct, fields);
+        expand(livros, fields);
+        return MultiGetResult.of(distinct, livros.stream().collect(Collectors.toMap(LivroDTO::getId, Function.identity())));
+    }
+
+    /**
+     * Version of one livro for conditional requests, read without loading the livro.
+     */
+    public long findVersaoById(Long id) {
+        return livroRepository.findVersaoById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Livro not found with id " + id));
+    }
+
+    /**
+     * Change counter of the whole collection, for the ETag of the listings.
+     */
+    public long findVersaoColecao() {
+        return versaoColecaoRepository.findVersao(VersaoColecaoRepository.LIVROS);
+    }
+
+    /**
+     * What the names embedded by {@code fields} add to the version of a response: the change counters of the
+     * autores and assuntos collections, or 0 when nothing is expanded. All counters only grow, so the version of a
+     * livro, or of the livros collection, plus this one changes whenever anything in the response may have.
+     */
+    public long findVersaoExpansoes(LivroFields fields) {
+        long versao = 0;
+        if (fields.expandsAutores()) {
+            versao += versaoColecaoRepository.findVersao(VersaoColecaoRepository.AUTORES);
+        }
+        if (fields.expandsAssuntos()) {
+            versao += versaoColecaoRepository.findVersao(VersaoColecaoRepository.ASSUNTOS);
+        }
+        return versao;
     }
 
     @Transactional
@@ -55,10 +167,16 @@ public class LivroService {
         return livroMapper.toDto(livro);
     }
 
+    /**
+     * @param expectedVersao version the client last saw (from {@code If-Match}); {@code null} updates unconditionally
+     */
     @Transactional
-    public LivroDTO update(Long id, LivroDTO livroDTO) {
+    public LivroDTO update(Long id, LivroDTO livroDTO, Long expectedVersao) {
         Livro livro = livroRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Livro not found with id " + id));
+        if (expectedVersao != null && !expectedVersao.equals(livro.getVersao())) {
+            throw new PreconditionFailedException("Livro " + id + " is at version " + livro.getVersao() + ", not " + expectedVersao);
+        }
 
         livro.setTitulo(livroDTO.getTitulo());
         livro.setEditora(livroDTO.getEditora());
@@ -69,34 +187,66 @@ public class LivroService {
         livro.setAssuntos(getAssuntosFromIds(livroDTO.getAssuntosIds()));
 
         livro = livroRepository.save(livro);
+        // flushed here so the returned versao is the one being committed
+        livroRepository.flush();
         return livroMapper.toDto(livro);
     }
 
+    /**
+     * The delete is conditional on the version that was read, so a concurrent update makes it fail instead of being lost.
+     *
+     * @param expectedVersao version the client last saw (from {@code If-Match}); {@code null} deletes unconditionally
+     */
     @Transactional
-    public void delete(Long id) {
-        if (!livroRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Livro not found with id " + id);
+    public void delete(Long id, Long expectedVersao) {
+        Livro livro = livroRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Livro not found with id " + id));
+        if (expectedVersao != null && !expectedVersao.equals(livro.getVersao())) {
+            throw new PreconditionFailedException("Livro " + id + " is at version " + livro.getVersao() + ", not " + expectedVersao);
         }
-        livroRepository.deleteById(id);
+        livroRepository.delete(livro);
     }
 
-    private Set<Autor> getAutoresFromIds(Set<Long> autoresIds) {
-        if (autoresIds == null || autoresIds.isEmpty()) {
-            return new HashSet<>();
+    /**
+     * Embeds the authors and subjects {@code fields} asks for. Their names come from the reference caches, and
+     * whatever the page needs that isn't cached is read in one query per association, not one per book.
+     */
+    private void expand(List<LivroDTO> livros, LivroFields fields) {
+        if (fields.expandsAutores()) {
+            Map<Long, AutorDTO> autores = referenceCaches.autores().getAll(ids(livros, LivroDTO::getAutoresIds),
+                    uncached -> autorRepository.findAllById(uncached).stream().collect(Collectors.toMap(Autor::getId, autorMapper::toDto)));
+            livros.forEach(livro -> livro.setAutores(embedded(livro.getAutoresIds(), autores, Comparator.comparing(AutorDTO::getNome))));
+        }
+        if (fields.expandsAssuntos()) {
+            Map<Long, AssuntoDTO> assuntos = referenceCaches.assuntos().getAll(ids(livros, LivroDTO::getAssuntosIds),
+                    uncached -> assuntoRepository.findAllById(uncached).stream().collect(Collectors.toMap(Assunto::getId, assuntoMapper::toDto)));
+            livros.forEach(livro -> livro.setAssuntos(embedded(livro.getAssuntosIds(), assuntos, Comparator.comparing(AssuntoDTO::getDescricao))));
         }
-        return autoresIds.stream()
-                .map(autorId -> autorRepository.findById(autorId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Autor not found with id " + autorId)))
-                .collect(Collectors.toSet());
+    }
+
+    private static Set<Long> ids(List<LivroDTO> livros, Function<LivroDTO, Set<Long>> ids) {
+        return livros.stream().flatMap(livro -> ids.apply(livro).stream()).collect(Collectors.toSet());
+    }
+
+    /**
+     * Ids deleted since the livro was read are left out.
+     */
+    private static <D> List<D> embedded(Set<Long> ids, Map<Long, D> byId, Comparator<D> order) {
+        return ids.stream().map(byId::get).filter(Objects::nonNull).sorted(order).toList();
+    }
+
+    /**
+     * Authors already in the reference cache are rebuilt from it; only the others are read, in one query.
+     */
+    private Set<Autor> getAutoresFromIds(Set<Long> autoresIds) {
+        return new HashSet<>(referenceCaches.autores().resolve(autoresIds,
+                uncached -> entityIdResolver.resolve(autorRepository, uncached, Autor::getId, "Autor"),
+                autorMapper::toDto, autorMapper::toEntity).values());
     }
 
     private Set<Assunto> getAssuntosFromIds(Set<Long> assuntosIds) {
-        if (assuntosIds == null || assuntosIds.isEmpty()) {
-            return new HashSet<>();
-        }
-        return assuntosIds.stream()
-                .map(assuntoId -> assuntoRepository.findById(assuntoId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Assunto not found with id " + assuntoId)))
-                .collect(Collectors.toSet());
+        return new HashSet<>(referenceCaches.assuntos().resolve(assuntosIds,
+                uncached -> entityIdResolver.resolve(assuntoRepository, uncached, Assunto::getId, "Assunto"),
+                assuntoMapper::toDto, assuntoMapper::toEntity).values());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,133 @@
+package com.example.biblioteca.service;
+
+import com.example.biblioteca.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of one kind of reference data, keyed by id. Values are DTOs, never entities, so nothing
+ * attached to a persistence context outlives its request.
+ */
+public class ReferenceCache<D> {
+
+    private final Cache<Long, D> cache;
+
+    /**
+     * Bumped before every invalidation, so a load that ran concurrently with one can tell that what it read may
+     * predate the write and must not stay cached.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    ReferenceCache(Cache<Long, D> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @param loader called on a miss; returning {@code null} (the id doesn't exist) caches nothing
+     * @return the cached or loaded value, or {@code null}
+     */
+    public D get(Long id, Function<Long, D> loader) {
+        return cache.get(id, loader);
+    }
+
+    /**
+     * @return the cached value, or {@code null} without loading anything
+     */
+    public D getIfPresent(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    /**
+     * Values for {@code ids}, loading all the uncached ones in a single call. As with {@link #resolve}, loaded values
+     * are returned but not kept if an invalidation happened during the load.
+     *
+     * @param loader loads the ids that were not cached, keyed by id; ids it leaves out don't exist and are
+     *               missing from the result
+     */
+    public Map<Long, D> getAll(Collection<Long> ids, Function<Set<Long>, Map<Long, D>> loader) {
+        long invalidationsBefore = invalidations.get();
+        Set<Long> loaded = new HashSet<>();
+        Map<Long, D> values = cache.getAll(ids, uncached -> {
+            Map<Long, D> read = loader.apply(Collections.unmodifiableSet(uncached));
+            loaded.addAll(read.keySet());
+            return read;
+        });
+        discardIfInvalidatedSince(invalidationsBefore, loaded);
+        return values;
+    }
+
+    /**
+     * Resolves ids to entities, rebuilding cached ones from their DTO and loading only the rest, whose DTOs are
+     * then cached. The rebuilt entities are detached copies: enough to reference them from an association,
+     * which only needs the id.
+     * <p>
+     * The load runs outside the cache, so a write committing meanwhile may invalidate its ids before they are put.
+     * The loaded values are still returned, but dropped from the cache again if any invalidation happened during the
+     * load, so a value read before a commit never outlives it.
+     *
+     * @param loader loads the ids that were not cached, keyed by id; may throw for ids that don't exist
+     */
+    public <T> Map<Long, T> resolve(Collection<Long> ids, Function<Collection<Long>, Map<Long, T>> loader,
+                                    Function<T, D> toDto, Function<D, T> toEntity) {
+        Map<Long, T> resolved = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return resolved;
+        }
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : ids) {
+            D cached = cache.getIfPresent(id);
+            if (cached != null) {
+                resolved.put(id, toEntity.apply(cached));
+            } else {
+                uncached.add(id);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            long invalidationsBefore = invalidations.get();
+            Map<Long, T> loaded = loader.apply(uncached);
+            loaded.forEach((id, entity) -> cache.put(id, toDto.apply(entity)));
+            discardIfInvalidatedSince(invalidationsBefore, loaded.keySet());
+            resolved.putAll(loaded);
+        }
+        return resolved;
+    }
+
+    /**
+     * Drops values that were loaded while an invalidation ran, since they may have been read before the write that
+     * caused it. Checked after the values are in the cache: an invalidation landing between the check and a put
+     * would otherwise be lost.
+     */
+    private void discardIfInvalidatedSince(long invalidationsBefore, Set<Long> loaded) {
+        if (!loaded.isEmpty() && invalidations.get() != invalidationsBefore) {
+            cache.invalidateAll(loaded);
+        }
+    }
+
+    public void invalidateAfterCommit(Long id) {
+        AfterCommit.run(() -> {
+            invalidations.incrementAndGet();
+            cache.invalidate(id);
+        });
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public CacheStatsDTO stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDTO(cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+}
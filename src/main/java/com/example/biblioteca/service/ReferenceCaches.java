@@ -0,0 +1,58 @@
+package com.example.biblioteca.service;
+
+import com.example.biblioteca.config.ReferenceCacheProperties;
+import com.example.biblioteca.dto.AssuntoDTO;
+import com.example.biblioteca.dto.AutorDTO;
+import com.example.biblioteca.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The caches in front of the small, read-mostly author and subject tables, bounded by size and TTL. Services
+ * read through them and invalidate entries when their writes commit.
+ */
+@Component
+public class ReferenceCaches {
+
+    @Autowired
+    private ReferenceCacheProperties referenceCacheProperties;
+
+    private ReferenceCache<AutorDTO> autores;
+
+    private ReferenceCache<AssuntoDTO> assuntos;
+
+    @PostConstruct
+    public void init() {
+        autores = new ReferenceCache<>(newCache());
+        assuntos = new ReferenceCache<>(newCache());
+    }
+
+    public ReferenceCache<AutorDTO> autores() {
+        return autores;
+    }
+
+    public ReferenceCache<AssuntoDTO> assuntos() {
+        return assuntos;
+    }
+
+    public Map<String, CacheStatsDTO> stats() {
+        Map<String, CacheStatsDTO> stats = new LinkedHashMap<>();
+        stats.put("autores", autores.stats());
+        stats.put("assuntos", assuntos.stats());
+        return stats;
+    }
+
+    private <D> Cache<Long, D> newCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(referenceCacheProperties.getMaxSize())
+                .expireAfterWrite(referenceCacheProperties.getTtl())
+                .recordStats()
+                .build();
+    }
+}
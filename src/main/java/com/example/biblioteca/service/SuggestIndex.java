@@ -0,0 +1,141 @@
+package com.example.biblioteca.service;
+
+import com.example.biblioteca.dto.SugestaoDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over short names, for typeahead without a database round trip.
+ * <p>
+ * Names are folded to lower case without accents, and every word start is indexed, so "assis" and "machado de a"
+ * both find "Machado de Assis". Entries live in a sorted skip list keyed by the folded text from each word start,
+ * making a lookup a range scan of {@code O(log n + limit)}. Reads are lock-free. Changes made inside a
+ * transaction are applied only after it commits, so the index never shows data that was rolled back.
+ */
+public class SuggestIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Separates the folded text from the id in the index keys; sorts before any character of a name.
+     */
+    private static final char ID_SEPARATOR = '\u0000';
+
+    private volatile Entries entries = new Entries();
+
+    /**
+     * @return at most {@code limit} entries with a word starting with {@code prefix}, in order of the matched text
+     */
+    public List<SugestaoDTO> suggest(String prefix, int limit) {
+        String folded = fold(prefix);
+        if (folded.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Entries current = entries;
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long id : current.keys.subMap(folded, true, folded + Character.MAX_VALUE, false).values()) {
+            ids.add(id);
+            if (ids.size() == limit) {
+                break;
+            }
+        }
+        List<SugestaoDTO> suggestions = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            String texto = current.texts.get(id);
+            if (texto != null) {
+                suggestions.add(new SugestaoDTO(id, texto));
+            }
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return entries.texts.size();
+    }
+
+    /**
+     * Replaces the whole index, e.g. at startup or after a bulk import that bypassed the services.
+     */
+    public synchronized void rebuild(Collection<SugestaoDTO> all) {
+        Entries rebuilt = new Entries();
+        all.forEach(sugestao -> rebuilt.put(sugestao.getId(), sugestao.getTexto()));
+        entries = rebuilt;
+    }
+
+    public void putAfterCommit(Long id, String texto) {
+        AfterCommit.run(() -> put(id, texto));
+    }
+
+    public void removeAfterCommit(Long id) {
+        AfterCommit.run(() -> remove(id));
+    }
+
+    synchronized void put(Long id, String texto) {
+        entries.remove(id);
+        entries.put(id, texto);
+    }
+
+    synchronized void remove(Long id) {
+        entries.remove(id);
+    }
+
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutMarks = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(withoutMarks.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    /**
+     * The folded text from each word start: "machado de assis", "de assis" and "assis".
+     */
+    private static List<String> fragments(String folded) {
+        List<String> fragments = new ArrayList<>();
+        for (int start = 0; start < folded.length(); start = folded.indexOf(' ', start) + 1) {
+            fragments.add(folded.substring(start));
+            if (folded.indexOf(' ', start) < 0) {
+                break;
+            }
+        }
+        return fragments;
+    }
+
+    private static final class Entries {
+
+        private final NavigableMap<String, Long> keys = new ConcurrentSkipListMap<>();
+        private final Map<Long, String> texts = new ConcurrentHashMap<>();
+
+        void put(Long id, String texto) {
+            String folded = fold(texto);
+            if (folded.isEmpty()) {
+                return;
+            }
+            texts.put(id, texto);
+            for (String fragment : fragments(folded)) {
+                keys.put(fragment + ID_SEPARATOR + id, id);
+            }
+        }
+
+        void remove(Long id) {
+            String texto = texts.remove(id);
+            if (texto != null) {
+                for (String fragment : fragments(fold(texto))) {
+                    keys.remove(fragment + ID_SEPARATOR + id);
+                }
+            }
+        }
+    }
+}
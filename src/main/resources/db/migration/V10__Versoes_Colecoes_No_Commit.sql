@@ -0,0 +1,52 @@
+-- V10__Versoes_Colecoes_No_Commit.sql
+-- Os contadores de versoes_colecoes (V7) eram incrementados por cada instrução de escrita, e a linha do contador
+-- ficava bloqueada até o commit: escritas concorrentes na mesma coleção esperavam umas pelas outras durante toda a
+-- transação (a importação do catálogo, por toda a mesclagem), e caminhos que bloqueavam as coleções em ordens
+-- diferentes (importação: autores e depois livros; exclusão de autor: livros e depois autores) podiam entrar em
+-- deadlock.
+--
+-- Agora as triggers de instrução só anotam, numa tabela própria da transação, quais coleções ela alterou. Uma
+-- constraint trigger adiada incrementa os contadores no commit, sempre em ordem alfabética de coleção: a linha do
+-- contador fica bloqueada apenas do fim da transação ao commit, e a ordem fixa elimina os deadlocks. Como antes, o
+-- incremento faz parte da transação, então ninguém vê o contador novo antes dos dados.
+
+-- Coleções alteradas por transação ainda não confirmada; as linhas são apagadas no próprio commit, por isso a
+-- tabela não precisa de WAL
+CREATE UNLOGGED TABLE versoes_colecoes_pendentes (
+    transacao BIGINT NOT NULL,
+    colecao VARCHAR(20) NOT NULL,
+    PRIMARY KEY (transacao, colecao)
+);
+
+-- Usada pelas triggers de instrução da V7: cada transação anota uma vez cada coleção, sem disputar linhas com as outras
+CREATE OR REPLACE FUNCTION incrementa_versao_colecao() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO versoes_colecoes_pendentes (transacao, colecao)
+    VALUES (txid_current(), TG_ARGV[0])
+    ON CONFLICT DO NOTHING;
+    RETURN NULL;
+END;
+$$;
+
+-- Dispara no commit para cada coleção anotada; a primeira execução incrementa todas as da transação e as
+-- seguintes não encontram mais nada
+CREATE FUNCTION aplica_versoes_colecoes_pendentes() RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    pendente RECORD;
+BEGIN
+    FOR pendente IN
+        SELECT colecao FROM versoes_colecoes_pendentes WHERE transacao = NEW.transacao ORDER BY colecao
+    LOOP
+        UPDATE versoes_colecoes SET versao = versao + 1 WHERE colecao = pendente.colecao;
+    END LOOP;
+    DELETE FROM versoes_colecoes_pendentes WHERE transacao = NEW.transacao;
+    RETURN NULL;
+END;
+$$;
+
+CREATE CONSTRAINT TRIGGER versoes_colecoes_pendentes_no_commit
+    AFTER INSERT ON versoes_colecoes_pendentes
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION aplica_versoes_colecoes_pendentes();
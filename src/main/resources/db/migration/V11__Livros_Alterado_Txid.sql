@@ -0,0 +1,26 @@
+-- V11__Livros_Alterado_Txid.sql
+-- A exportação incremental (GET /livros/export?since=) não pode se basear em atualizado_em: now() é o início da
+-- transação, e uma transação que começou antes de uma exportação mas fez commit depois dela grava um instante
+-- anterior ao que o cliente já recebeu; o livro nunca mais seria exportado.
+--
+-- Cada livro passa a guardar o id da transação que o alterou por último. A exportação devolve como marcador o
+-- xmin de um snapshot tirado antes da leitura: toda transação que ela não enxergou tem id maior ou igual a ele, então
+-- filtrar por alterado_txid >= marcador nunca perde uma alteração (no máximo repete algumas).
+ALTER TABLE livros ADD COLUMN alterado_txid BIGINT NOT NULL DEFAULT 0;
+
+CREATE FUNCTION livros_alterado_txid_trigger() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.alterado_txid := txid_current();
+    RETURN NEW;
+END
+$$;
+
+-- Como atualizado_em, qualquer UPDATE conta, inclusive os das triggers da busca e do versionamento
+CREATE TRIGGER trg_livros_alterado_txid
+    BEFORE INSERT OR UPDATE ON livros
+    FOR EACH ROW EXECUTE FUNCTION livros_alterado_txid_trigger();
+
+-- atualizado_em continua sendo exportado, só não serve mais de marcador
+DROP INDEX idx_livros_atualizado_em_id;
+CREATE INDEX idx_livros_alterado_txid_id ON livros (alterado_txid, id);
@@ -0,0 +1,38 @@
+-- V12__Livros_Versao_Associacoes.sql
+-- A versão de um livro (ETag de GET /livros/{id} e If-Match) cobre os ids de autores e assuntos, mas só mudava
+-- quando a associação era alterada pelo JPA ou pela importação. Excluir um autor ou assunto remove as linhas de
+-- livro_autor/livro_assunto por ON DELETE CASCADE sem tocar nos livros, e um If-None-Match antigo recebia 304 com
+-- autoresIds/assuntosIds que já não existem. Agora qualquer alteração nas associações incrementa a versão.
+--
+-- O incremento é no máximo um por livro e por transação: o JPA já incrementa a versão ao gravar o livro antes das
+-- associações, e um segundo incremento deixaria a versão devolvida pela API diferente da gravada. versao_txid
+-- guarda a transação que mudou a versão por último; as associações só incrementam se não foi a atual.
+ALTER TABLE livros ADD COLUMN versao_txid BIGINT NOT NULL DEFAULT 0;
+
+CREATE FUNCTION livros_versao_txid_trigger() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.versao_txid := txid_current();
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER trg_livros_versao_txid_insert
+    BEFORE INSERT ON livros
+    FOR EACH ROW EXECUTE FUNCTION livros_versao_txid_trigger();
+CREATE TRIGGER trg_livros_versao_txid_update
+    BEFORE UPDATE OF versao ON livros
+    FOR EACH ROW WHEN (OLD.versao IS DISTINCT FROM NEW.versao) EXECUTE FUNCTION livros_versao_txid_trigger();
+
+-- Aproveita o UPDATE por comando que a busca (V6) já faz nos livros das associações alteradas, inclusive nas
+-- removidas em cascata. No SET, l.versao_txid é o valor anterior à trigger acima.
+CREATE OR REPLACE FUNCTION livros_busca_associacoes_trigger() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE livros l
+    SET busca = livro_documento_busca(l.id, l.titulo, l.editora),
+        versao = CASE WHEN l.versao_txid = txid_current() THEN l.versao ELSE l.versao + 1 END
+    WHERE l.id IN (SELECT livro_id FROM alteradas);
+    RETURN NULL;
+END
+$$;
@@ -0,0 +1,27 @@
+-- V2__Relatorio_Filtros.sql
+-- Expõe os ids de autor e livro na view do relatório para que os filtros sejam aplicados no banco.
+-- Agrupar pelos ids também evita que livros homônimos do mesmo autor sejam somados em uma única linha.
+CREATE OR REPLACE VIEW vw_relatorio_livros_por_autor AS
+SELECT
+    a.nome AS autor_nome,
+    l.titulo AS titulo_livro,
+    l.editora AS editora_livro,
+    l.edicao AS edicao_livro,
+    l.ano_publicacao AS ano_publicacao_livro,
+    l.valor AS valor_livro,
+    STRING_AGG(ass.descricao, ', ') AS assuntos_livro,
+    a.id AS autor_id,
+    l.id AS livro_id
+FROM autores a
+JOIN livro_autor la ON a.id = la.autor_id
+JOIN livros l ON l.id = la.livro_id
+LEFT JOIN livro_assunto las ON l.id = las.livro_id
+LEFT JOIN assuntos ass ON ass.id = las.assunto_id
+GROUP BY a.id, a.nome, l.id, l.titulo, l.editora, l.edicao, l.ano_publicacao, l.valor;
+
+-- Índices para os filtros do relatório; as chaves primárias das tabelas de associação começam por livro_id
+CREATE INDEX idx_livro_autor_autor_id ON livro_autor (autor_id);
+CREATE INDEX idx_livro_assunto_assunto_id ON livro_assunto (assunto_id);
+CREATE INDEX idx_livros_editora_lower ON livros (lower(editora));
+CREATE INDEX idx_livros_ano_publicacao ON livros (ano_publicacao);
+CREATE INDEX idx_livros_valor ON livros (valor);
@@ -0,0 +1,13 @@
+-- V3__Sequencias_Pooled.sql
+-- As entidades passam a gerar ids por sequência com alocação em blocos de 50 (otimizador pooled do Hibernate),
+-- o que permite ao Hibernate agrupar INSERTs em lotes JDBC; com IDENTITY cada INSERT precisava ser enviado sozinho.
+-- Cada valor da sequência passa a ser o limite superior de um bloco de 50 ids, por isso ela é avançada para além
+-- do maior id existente mais um bloco inteiro.
+ALTER SEQUENCE autores_id_seq INCREMENT BY 50;
+SELECT setval('autores_id_seq', COALESCE((SELECT max(id) FROM autores), 0) + 50);
+
+ALTER SEQUENCE assuntos_id_seq INCREMENT BY 50;
+SELECT setval('assuntos_id_seq', COALESCE((SELECT max(id) FROM assuntos), 0) + 50);
+
+ALTER SEQUENCE livros_id_seq INCREMENT BY 50;
+SELECT setval('livros_id_seq', COALESCE((SELECT max(id) FROM livros), 0) + 50);
@@ -0,0 +1,19 @@
+-- V4__Importacao_Catalogo.sql
+-- Área de carga da importação de catálogo (COPY). UNLOGGED: não gera WAL e é esvaziada a cada importação,
+-- então perder o conteúdo numa queda do servidor não tem consequência.
+CREATE UNLOGGED TABLE importacao_livros (
+    linha BIGINT GENERATED ALWAYS AS IDENTITY,
+    titulo TEXT,
+    editora TEXT,
+    edicao TEXT,
+    ano_publicacao TEXT,
+    valor TEXT,
+    autores TEXT,
+    assuntos TEXT,
+    livro_id BIGINT
+);
+
+-- Busca por nome/chave natural durante os upserts da importação
+CREATE INDEX idx_autores_nome ON autores (nome);
+CREATE INDEX idx_assuntos_descricao ON assuntos (descricao);
+CREATE INDEX idx_livros_titulo_editora ON livros (titulo, editora);
@@ -0,0 +1,10 @@
+-- V5__Indices_Paginacao_Cursor.sql
+-- Paginação por cursor: cada listagem é ordenada pela chave de exibição com o id como desempate, e o índice
+-- composto permite começar a leitura direto na posição do cursor. Os índices só por nome ficam redundantes.
+DROP INDEX idx_autores_nome;
+CREATE INDEX idx_autores_nome_id ON autores (nome, id);
+
+DROP INDEX idx_assuntos_descricao;
+CREATE INDEX idx_assuntos_descricao_id ON assuntos (descricao, id);
+
+CREATE INDEX idx_livros_titulo_id ON livros (titulo, id);
@@ -0,0 +1,93 @@
+-- V6__Busca_Livros.sql
+-- Busca textual de livros: título, autores, assuntos e editora num tsvector mantido por triggers, em português
+-- e sem distinção de acentos ("memorias" encontra "Memórias").
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+CREATE TEXT SEARCH CONFIGURATION pt_unaccent (COPY = portuguese);
+ALTER TEXT SEARCH CONFIGURATION pt_unaccent
+    ALTER MAPPING FOR hword, hword_part, word WITH unaccent, portuguese_stem;
+
+-- Pesos: título (A) > autores (B) > assuntos (C) > editora (D)
+CREATE FUNCTION livro_documento_busca(p_livro_id BIGINT, p_titulo TEXT, p_editora TEXT) RETURNS tsvector
+LANGUAGE sql STABLE AS $$
+    SELECT setweight(to_tsvector('pt_unaccent', coalesce(p_titulo, '')), 'A')
+        || setweight(to_tsvector('pt_unaccent', coalesce((SELECT string_agg(a.nome, ' ')
+                                                           FROM livro_autor la
+                                                           JOIN autores a ON a.id = la.autor_id
+                                                           WHERE la.livro_id = p_livro_id), '')), 'B')
+        || setweight(to_tsvector('pt_unaccent', coalesce((SELECT string_agg(s.descricao, ' ')
+                                                           FROM livro_assunto ls
+                                                           JOIN assuntos s ON s.id = ls.assunto_id
+                                                           WHERE ls.livro_id = p_livro_id), '')), 'C')
+        || setweight(to_tsvector('pt_unaccent', coalesce(p_editora, '')), 'D')
+$$;
+
+ALTER TABLE livros ADD COLUMN busca tsvector;
+UPDATE livros SET busca = livro_documento_busca(id, titulo, editora);
+CREATE INDEX idx_livros_busca ON livros USING gin (busca);
+
+-- Alterações no próprio livro: recalcula antes de gravar a linha
+CREATE FUNCTION livros_busca_trigger() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.busca := livro_documento_busca(NEW.id, NEW.titulo, NEW.editora);
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER trg_livros_busca
+    BEFORE INSERT OR UPDATE OF titulo, editora ON livros
+    FOR EACH ROW EXECUTE FUNCTION livros_busca_trigger();
+
+-- Associações: um UPDATE por comando, não por linha, para que cargas em massa recalculem cada livro uma vez.
+-- O UPDATE só altera busca, então não dispara trg_livros_busca.
+CREATE FUNCTION livros_busca_associacoes_trigger() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE livros l
+    SET busca = livro_documento_busca(l.id, l.titulo, l.editora)
+    WHERE l.id IN (SELECT livro_id FROM alteradas);
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_livro_autor_busca_insert
+    AFTER INSERT ON livro_autor REFERENCING NEW TABLE AS alteradas
+    FOR EACH STATEMENT EXECUTE FUNCTION livros_busca_associacoes_trigger();
+CREATE TRIGGER trg_livro_autor_busca_delete
+    AFTER DELETE ON livro_autor REFERENCING OLD TABLE AS alteradas
+    FOR EACH STATEMENT EXECUTE FUNCTION livros_busca_associacoes_trigger();
+CREATE TRIGGER trg_livro_assunto_busca_insert
+    AFTER INSERT ON livro_assunto REFERENCING NEW TABLE AS alteradas
+    FOR EACH STATEMENT EXECUTE FUNCTION livros_busca_associacoes_trigger();
+CREATE TRIGGER trg_livro_assunto_busca_delete
+    AFTER DELETE ON livro_assunto REFERENCING OLD TABLE AS alteradas
+    FOR EACH STATEMENT EXECUTE FUNCTION livros_busca_associacoes_trigger();
+
+-- Renomear um autor ou assunto muda o documento de todos os seus livros
+CREATE FUNCTION autores_busca_trigger() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE livros l
+    SET busca = livro_documento_busca(l.id, l.titulo, l.editora)
+    WHERE l.id IN (SELECT livro_id FROM livro_autor WHERE autor_id = NEW.id);
+    RETURN NULL;
+END
+$$;
+
+CREATE FUNCTION assuntos_busca_trigger() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE livros l
+    SET busca = livro_documento_busca(l.id, l.titulo, l.editora)
+    WHERE l.id IN (SELECT livro_id FROM livro_assunto WHERE assunto_id = NEW.id);
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_autores_busca
+    AFTER UPDATE OF nome ON autores
+    FOR EACH ROW WHEN (OLD.nome IS DISTINCT FROM NEW.nome) EXECUTE FUNCTION autores_busca_trigger();
+CREATE TRIGGER trg_assuntos_busca
+    AFTER UPDATE OF descricao ON assuntos
+    FOR EACH ROW WHEN (OLD.descricao IS DISTINCT FROM NEW.descricao) EXECUTE FUNCTION assuntos_busca_trigger();
@@ -0,0 +1,45 @@
+-- V7__Versionamento.sql
+-- Versão de cada linha: controle de concorrência otimista (@Version) e ETag de GET /{id}
+ALTER TABLE livros ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE autores ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE assuntos ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
+
+-- Contador de alterações por coleção, usado como ETag das listagens. É mantido por triggers de instrução, de
+-- modo que também conta as escritas em SQL direto (importação do catálogo, triggers da busca). O incremento
+-- faz parte da transação: quem lê o contador nunca vê um valor novo antes de os dados estarem visíveis.
+-- Escritas concorrentes na mesma coleção esperam umas pelas outras na linha do contador até o commit.
+CREATE TABLE versoes_colecoes (
+    colecao VARCHAR(20) PRIMARY KEY,
+    versao BIGINT NOT NULL
+);
+
+INSERT INTO versoes_colecoes (colecao, versao) VALUES ('livros', 0), ('autores', 0), ('assuntos', 0);
+
+CREATE FUNCTION incrementa_versao_colecao() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE versoes_colecoes SET versao = versao + 1 WHERE colecao = TG_ARGV[0];
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER autores_versao_colecao
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON autores
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versao_colecao('autores');
+
+CREATE TRIGGER assuntos_versao_colecao
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON assuntos
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versao_colecao('assuntos');
+
+-- A listagem de livros inclui os ids de autores e assuntos, então as associações também contam
+CREATE TRIGGER livros_versao_colecao
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON livros
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versao_colecao('livros');
+
+CREATE TRIGGER livro_autor_versao_colecao
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON livro_autor
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versao_colecao('livros');
+
+CREATE TRIGGER livro_assunto_versao_colecao
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON livro_assunto
+    FOR EACH STATEMENT EXECUTE FUNCTION incrementa_versao_colecao('livros');
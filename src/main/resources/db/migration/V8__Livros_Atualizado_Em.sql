@@ -0,0 +1,20 @@
+-- V8__Livros_Atualizado_Em.sql
+-- Momento da última alteração de cada livro, para a exportação incremental (GET /livros/export?since=)
+ALTER TABLE livros ADD COLUMN atualizado_em TIMESTAMPTZ NOT NULL DEFAULT now();
+
+-- Qualquer UPDATE conta, inclusive os das triggers da busca: associações alteradas e autores ou assuntos
+-- renomeados também mudam o que se exporta do livro
+CREATE FUNCTION livros_atualizado_em_trigger() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.atualizado_em := now();
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER trg_livros_atualizado_em
+    BEFORE UPDATE ON livros
+    FOR EACH ROW EXECUTE FUNCTION livros_atualizado_em_trigger();
+
+-- Ordem da exportação; com since, o cursor começa direto no primeiro livro alterado
+CREATE INDEX idx_livros_atualizado_em_id ON livros (atualizado_em, id);
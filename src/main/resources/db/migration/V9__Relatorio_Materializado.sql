@@ -0,0 +1,49 @@
+-- V9__Relatorio_Materializado.sql
+-- O relatório de livros por autor passa a ler linhas pré-calculadas em vez de refazer a junção com STRING_AGG
+-- sobre o catálogo inteiro a cada execução. O nome é mantido, então as consultas continuam as mesmas; a
+-- aplicação atualiza a visão com REFRESH ... CONCURRENTLY quando o catálogo muda (ver RelatorioMaterializadoService).
+DROP VIEW vw_relatorio_livros_por_autor;
+
+CREATE MATERIALIZED VIEW vw_relatorio_livros_por_autor AS
+SELECT
+    a.nome AS autor_nome,
+    l.titulo AS titulo_livro,
+    l.editora AS editora_livro,
+    l.edicao AS edicao_livro,
+    l.ano_publicacao AS ano_publicacao_livro,
+    l.valor AS valor_livro,
+    STRING_AGG(ass.descricao, ', ') AS assuntos_livro,
+    a.id AS autor_id,
+    l.id AS livro_id
+FROM autores a
+JOIN livro_autor la ON a.id = la.autor_id
+JOIN livros l ON l.id = la.livro_id
+LEFT JOIN livro_assunto las ON l.id = las.livro_id
+LEFT JOIN assuntos ass ON ass.id = las.assunto_id
+GROUP BY a.id, a.nome, l.id, l.titulo, l.editora, l.edicao, l.ano_publicacao, l.valor
+WITH DATA;
+
+-- Uma linha por (autor, livro): é a chave com que o REFRESH CONCURRENTLY compara a versão nova com a atual,
+-- e sem um índice único ele não é permitido
+CREATE UNIQUE INDEX idx_relatorio_livros_por_autor_chave ON vw_relatorio_livros_por_autor (autor_id, livro_id);
+
+-- Ordem do relatório e limites das partições da geração paralela
+CREATE INDEX idx_relatorio_livros_por_autor_ordem ON vw_relatorio_livros_por_autor (autor_nome, titulo_livro);
+
+-- Filtros do relatório, antes atendidos pelos índices das tabelas (V2)
+CREATE INDEX idx_relatorio_livros_por_autor_editora ON vw_relatorio_livros_por_autor (lower(editora_livro));
+CREATE INDEX idx_relatorio_livros_por_autor_ano ON vw_relatorio_livros_por_autor (ano_publicacao_livro);
+CREATE INDEX idx_relatorio_livros_por_autor_valor ON vw_relatorio_livros_por_autor (valor_livro);
+
+-- Estado de cada visão materializada. versao é incrementada a cada atualização e faz parte da chave do cache de
+-- relatórios; versao_catalogo é a soma dos contadores de versoes_colecoes lida antes da atualização, então a
+-- visão está desatualizada enquanto a soma atual for diferente
+CREATE TABLE visoes_materializadas (
+    nome VARCHAR(63) PRIMARY KEY,
+    versao BIGINT NOT NULL,
+    versao_catalogo BIGINT NOT NULL,
+    atualizada_em TIMESTAMPTZ NOT NULL
+);
+
+INSERT INTO visoes_materializadas (nome, versao, versao_catalogo, atualizada_em)
+SELECT 'vw_relatorio_livros_por_autor', 0, sum(versao), now() FROM versoes_colecoes;
@@ -1,6 +1,8 @@
 package com.example.biblioteca.api;
 
 import com.example.biblioteca.dto.AssuntoDTO;
+import com.example.biblioteca.dto.MultiGetResult;
+import com.example.biblioteca.dto.SugestaoDTO;
 import com.example.biblioteca.exception.ResourceNotFoundException;
 import com.example.biblioteca.service.AssuntoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -20,6 +22,7 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,7 +41,7 @@ public class AssuntoControllerIntegrationTest {
 
     @Test
     void getAllAssuntos_ReturnsPageOfAssuntoDTOs() throws Exception {
-        AssuntoDTO assuntoDTO = new AssuntoDTO(1L, "Ficção Científica");
+        AssuntoDTO assuntoDTO = new AssuntoDTO(1L, "Ficção Científica", 0L);
         List<AssuntoDTO> assuntoDTOList = Arrays.asList(assuntoDTO);
         Pageable pageable = PageRequest.of(0, 10);
         Page<AssuntoDTO> assuntoDTOPage = new PageImpl<>(assuntoDTOList, pageable, 1);
@@ -54,9 +57,34 @@ public class AssuntoControllerIntegrationTest {
         verify(assuntoService, times(1)).findAll(any(Pageable.class));
     }
 
+    @Test
+    void getAssuntosByIds_ReturnsFoundInRequestOrderAndMissingIds() throws Exception {
+        MultiGetResult<AssuntoDTO> result = new MultiGetResult<>(
+                List.of(new AssuntoDTO(2L, "Poesia", 0L), new AssuntoDTO(1L, "Romance", 0L)), List.of(5L));
+        when(assuntoService.findAllById(List.of(2L, 1L, 5L))).thenReturn(result);
+
+        mockMvc.perform(get("/api/v1/assuntos").param("ids", "2,1,5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].descricao").value("Poesia"))
+                .andExpect(jsonPath("$.content[1].id").value(1L))
+                .andExpect(jsonPath("$.missingIds[0]").value(5L));
+    }
+
+    @Test
+    void suggestAssuntos_Prefix_ReturnsSuggestions() throws Exception {
+        when(assuntoService.suggest("fic", 5)).thenReturn(List.of(new SugestaoDTO(3L, "Ficção Científica")));
+
+        mockMvc.perform(get("/api/v1/assuntos/suggest")
+                        .param("prefix", "fic")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3L))
+                .andExpect(jsonPath("$[0].texto").value("Ficção Científica"));
+    }
+
     @Test
     void getAssuntoById_ExistingId_ReturnsAssuntoDTO() throws Exception {
-        AssuntoDTO assuntoDTO = new AssuntoDTO(1L, "Ficção Científica");
+        AssuntoDTO assuntoDTO = new AssuntoDTO(1L, "Ficção Científica", 0L);
 
         when(assuntoService.findById(1L)).thenReturn(assuntoDTO);
 
@@ -82,8 +110,8 @@ public class AssuntoControllerIntegrationTest {
 
     @Test
     void createAssunto_ValidAssuntoDTO_ReturnsCreatedAssuntoDTO() throws Exception {
-        AssuntoDTO assuntoDTO = new AssuntoDTO(null, "Fantasia");
-        AssuntoDTO createdAssuntoDTO = new AssuntoDTO(2L, "Fantasia");
+        AssuntoDTO assuntoDTO = new AssuntoDTO(null, "Fantasia", 0L);
+        AssuntoDTO createdAssuntoDTO = new AssuntoDTO(2L, "Fantasia", 0L);
 
         when(assuntoService.create(any(AssuntoDTO.class))).thenReturn(createdAssuntoDTO);
 
@@ -99,7 +127,7 @@ public class AssuntoControllerIntegrationTest {
 
     @Test
     void createAssunto_InvalidAssuntoDTO_ReturnsBadRequest() throws Exception {
-        AssuntoDTO invalidAssuntoDTO = new AssuntoDTO(null, ""); // Invalid description
+        AssuntoDTO invalidAssuntoDTO = new AssuntoDTO(null, "", 0L); // Invalid description
 
         mockMvc.perform(post("/api/v1/assuntos")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -111,9 +139,9 @@ public class AssuntoControllerIntegrationTest {
 
     @Test
     void updateAssunto_ExistingIdAndValidAssuntoDTO_ReturnsUpdatedAssuntoDTO() throws Exception {
-        AssuntoDTO updatedAssuntoDTO = new AssuntoDTO(1L, "Romance Histórico");
+        AssuntoDTO updatedAssuntoDTO = new AssuntoDTO(1L, "Romance Histórico", 0L);
 
-        when(assuntoService.update(anyLong(), any(AssuntoDTO.class))).thenReturn(updatedAssuntoDTO);
+        when(assuntoService.update(anyLong(), any(AssuntoDTO.class), isNull())).thenReturn(updatedAssuntoDTO);
 
         mockMvc.perform(put("/api/v1/assuntos/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -122,41 +150,41 @@ public class AssuntoControllerIntegrationTest {
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.descricao").value("Romance Histórico"));
 
-        verify(assuntoService, times(1)).update(anyLong(), any(AssuntoDTO.class));
+        verify(assuntoService, times(1)).update(anyLong(), any(AssuntoDTO.class), isNull());
     }
 
     @Test
     void updateAssunto_NonExistingId_ReturnsNotFound() throws Exception {
-        AssuntoDTO assuntoDTO = new AssuntoDTO(99L, "Assunto Inexistente");
-        when(assuntoService.update(anyLong(), any(AssuntoDTO.class))).thenThrow(new ResourceNotFoundException("Assunto not found"));
+        AssuntoDTO assuntoDTO = new AssuntoDTO(99L, "Assunto Inexistente", 0L);
+        when(assuntoService.update(anyLong(), any(AssuntoDTO.class), isNull())).thenThrow(new ResourceNotFoundException("Assunto not found"));
 
         mockMvc.perform(put("/api/v1/assuntos/{id}", 99L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(assuntoDTO)))
                 .andExpect(status().isNotFound());
 
-        verify(assuntoService, times(1)).update(anyLong(), any(AssuntoDTO.class));
+        verify(assuntoService, times(1)).update(anyLong(), any(AssuntoDTO.class), isNull());
     }
 
     @Test
     void deleteAssunto_ExistingId_ReturnsNoContent() throws Exception {
-        doNothing().when(assuntoService).delete(1L);
+        doNothing().when(assuntoService).delete(1L, null);
 
         mockMvc.perform(delete("/api/v1/assuntos/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
 
-        verify(assuntoService, times(1)).delete(1L);
+        verify(assuntoService, times(1)).delete(1L, null);
     }
 
     @Test
     void deleteAssunto_NonExistingId_ReturnsNotFound() throws Exception {
-        doThrow(new ResourceNotFoundException("Assunto not found")).when(assuntoService).delete(anyLong());
+        doThrow(new ResourceNotFoundException("Assunto not found")).when(assuntoService).delete(anyLong(), isNull());
 
         mockMvc.perform(delete("/api/v1/assuntos/{id}", 99L)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(assuntoService, times(1)).delete(99L);
+        verify(assuntoService, times(1)).delete(99L, null);
     }
 }
@@ -1,7 +1,11 @@
 package com.example.biblioteca.api;
 
 import com.example.biblioteca.dto.AutorDTO;
+import com.example.biblioteca.dto.CursorPage;
+import com.example.biblioteca.dto.MultiGetResult;
+import com.example.biblioteca.exception.InvalidCursorException;
 import com.example.biblioteca.exception.ResourceNotFoundException;
+import com.example.biblioteca.exception.TooManyIdsException;
 import com.example.biblioteca.service.AutorService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -20,6 +24,10 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,7 +46,7 @@ public class AutorControllerIntegrationTest {
 
     @Test
     void getAllAutores_ReturnsPageOfAutorDTOs() throws Exception {
-        AutorDTO autorDTO = new AutorDTO(1L, "Machado de Assis");
+        AutorDTO autorDTO = new AutorDTO(1L, "Machado de Assis", 0L);
         List<AutorDTO> autorDTOList = Arrays.asList(autorDTO);
         Pageable pageable = PageRequest.of(0, 10);
         Page<AutorDTO> autorDTOPage = new PageImpl<>(autorDTOList, pageable, 1);
@@ -54,9 +62,72 @@ public class AutorControllerIntegrationTest {
         verify(autorService, times(1)).findAll(any(Pageable.class));
     }
 
+    @Test
+    void getAllAutoresAfter_CursorParameter_ReturnsCursorPageWithoutTotals() throws Exception {
+        CursorPage<AutorDTO> page = new CursorPage<>(List.of(new AutorDTO(1L, "Machado de Assis", 0L)), 1, "MTpNYWNoYWRv");
+
+        when(autorService.findAll("", 1)).thenReturn(page);
+
+        mockMvc.perform(get("/api/v1/autores")
+                        .param("after", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].nome").value("Machado de Assis"))
+                .andExpect(jsonPath("$.nextCursor").value("MTpNYWNoYWRv"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(autorService, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getAutoresByIds_ReturnsFoundInRequestOrderAndMissingIds() throws Exception {
+        MultiGetResult<AutorDTO> result = new MultiGetResult<>(
+                List.of(new AutorDTO(3L, "Raquel de Queiroz", 0L), new AutorDTO(1L, "Machado de Assis", 0L)), List.of(9L));
+        when(autorService.findAllById(List.of(3L, 9L, 1L))).thenReturn(result);
+
+        mockMvc.perform(get("/api/v1/autores").param("ids", "3,9,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(3L))
+                .andExpect(jsonPath("$.content[1].nome").value("Machado de Assis"))
+                .andExpect(jsonPath("$.missingIds[0]").value(9L));
+
+        verify(autorService, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void lookupAutores_IdsInBody_ReturnsMultiGetResult() throws Exception {
+        when(autorService.findAllById(List.of(1L, 2L))).thenReturn(new MultiGetResult<>(List.of(new AutorDTO(1L, "Machado de Assis", 0L)), List.of(2L)));
+
+        mockMvc.perform(post("/api/v1/autores/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].nome").value("Machado de Assis"))
+                .andExpect(jsonPath("$.missingIds[0]").value(2L));
+    }
+
+    @Test
+    void lookupAutores_TooManyIds_ReturnsBadRequest() throws Exception {
+        when(autorService.findAllById(anyList())).thenThrow(new TooManyIdsException("Cannot look up 1001 ids at once; the maximum is 1000"));
+
+        mockMvc.perform(post("/api/v1/autores/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cannot look up 1001 ids at once; the maximum is 1000"));
+    }
+
+    @Test
+    void getAllAutoresAfter_InvalidCursor_ReturnsBadRequest() throws Exception {
+        when(autorService.findAll(anyString(), anyInt())).thenThrow(new InvalidCursorException("Invalid cursor: x", null));
+
+        mockMvc.perform(get("/api/v1/autores").param("after", "x"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getAutorById_ExistingId_ReturnsAutorDTO() throws Exception {
-        AutorDTO autorDTO = new AutorDTO(1L, "Machado de Assis");
+        AutorDTO autorDTO = new AutorDTO(1L, "Machado de Assis", 0L);
 
         when(autorService.findById(1L)).thenReturn(autorDTO);
 
@@ -82,8 +153,8 @@ public class AutorControllerIntegrationTest {
 
     @Test
     void createAutor_ValidAutorDTO_ReturnsCreatedAutorDTO() throws Exception {
-        AutorDTO autorDTO = new AutorDTO(null, "Guimarães Rosa");
-        AutorDTO createdAutorDTO = new AutorDTO(2L, "Guimarães Rosa");
+        AutorDTO autorDTO = new AutorDTO(null, "Guimarães Rosa", 0L);
+        AutorDTO createdAutorDTO = new AutorDTO(2L, "Guimarães Rosa", 0L);
 
         when(autorService.create(any(AutorDTO.class))).thenReturn(createdAutorDTO);
 
@@ -99,7 +170,7 @@ public class AutorControllerIntegrationTest {
 
     @Test
     void createAutor_InvalidAutorDTO_ReturnsBadRequest() throws Exception {
-        AutorDTO invalidAutorDTO = new AutorDTO(null, ""); // Invalid name
+        AutorDTO invalidAutorDTO = new AutorDTO(null, "", 0L); // Invalid name
 
         mockMvc.perform(post("/api/v1/autores")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -111,9 +182,9 @@ public class AutorControllerIntegrationTest {
 
     @Test
     void updateAutor_ExistingIdAndValidAutorDTO_ReturnsUpdatedAutorDTO() throws Exception {
-        AutorDTO updatedAutorDTO = new AutorDTO(1L, "Carlos Drummond");
+        AutorDTO updatedAutorDTO = new AutorDTO(1L, "Carlos Drummond", 0L);
 
-        when(autorService.update(anyLong(), any(AutorDTO.class))).thenReturn(updatedAutorDTO);
+        when(autorService.update(anyLong(), any(AutorDTO.class), isNull())).thenReturn(updatedAutorDTO);
 
         mockMvc.perform(put("/api/v1/autores/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -122,41 +193,41 @@ public class AutorControllerIntegrationTest {
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.nome").value("Carlos Drummond"));
 
-        verify(autorService, times(1)).update(anyLong(), any(AutorDTO.class));
+        verify(autorService, times(1)).update(anyLong(), any(AutorDTO.class), isNull());
     }
 
     @Test
     void updateAutor_NonExistingId_ReturnsNotFound() throws Exception {
-        AutorDTO autorDTO = new AutorDTO(99L, "Autor Inexistente");
-        when(autorService.update(anyLong(), any(AutorDTO.class))).thenThrow(new ResourceNotFoundException("Autor not found"));
+        AutorDTO autorDTO = new AutorDTO(99L, "Autor Inexistente", 0L);
+        when(autorService.update(anyLong(), any(AutorDTO.class), isNull())).thenThrow(new ResourceNotFoundException("Autor not found"));
 
         mockMvc.perform(put("/api/v1/autores/{id}", 99L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(autorDTO)))
                 .andExpect(status().isNotFound());
 
-        verify(autorService, times(1)).update(anyLong(), any(AutorDTO.class));
+        verify(autorService, times(1)).update(anyLong(), any(AutorDTO.class), isNull());
     }
 
     @Test
     void deleteAutor_ExistingId_ReturnsNoContent() throws Exception {
-        doNothing().when(autorService).delete(1L);
+        doNothing().when(autorService).delete(1L, null);
 
         mockMvc.perform(delete("/api/v1/autores/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
 
-        verify(autorService, times(1)).delete(1L);
+        verify(autorService, times(1)).delete(1L, null);
     }
 
     @Test
     void deleteAutor_NonExistingId_ReturnsNotFound() throws Exception {
-        doThrow(new ResourceNotFoundException("Autor not found")).when(autorService).delete(anyLong());
+        doThrow(new ResourceNotFoundException("Autor not found")).when(autorService).delete(anyLong(), isNull());
 
         mockMvc.perform(delete("/api/v1/autores/{id}", 99L)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(autorService, times(1)).delete(99L);
+        verify(autorService, times(1)).delete(99L, null);
     }
 }
@@ -0,0 +1,40 @@
+package com.example.biblioteca.api;
+
+import com.example.biblioteca.dto.CacheStatsDTO;
+import com.example.biblioteca.service.ReferenceCaches;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CacheController.class)
+public class CacheControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReferenceCaches referenceCaches;
+
+    @Test
+    void getStats_ReturnsStatsPerCache() throws Exception {
+        Map<String, CacheStatsDTO> stats = new LinkedHashMap<>();
+        stats.put("autores", new CacheStatsDTO(2, 30, 10, 0.75, 0));
+        stats.put("assuntos", new CacheStatsDTO(0, 0, 0, 1.0, 0));
+        when(referenceCaches.stats()).thenReturn(stats);
+
+        mockMvc.perform(get("/api/v1/caches/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.autores.size").value(2))
+                .andExpect(jsonPath("$.autores.hitRate").value(0.75))
+                .andExpect(jsonPath("$.assuntos.missCount").value(0));
+    }
+}
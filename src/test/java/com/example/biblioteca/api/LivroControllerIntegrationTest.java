@@ -1,33 +1,61 @@
 package com.example.biblioteca.api;
 
+import com.example.biblioteca.config.ExportacaoProperties;
+import com.example.biblioteca.config.JacksonConfig;
+import com.example.biblioteca.dto.AutorDTO;
+import com.example.biblioteca.dto.CatalogoImportResultDTO;
+import com.example.biblioteca.dto.LivroBatchResultDTO;
+import com.example.biblioteca.dto.FacetaDTO;
 import com.example.biblioteca.dto.LivroDTO;
+import com.example.biblioteca.dto.LivroFacetasDTO;
+import com.example.biblioteca.dto.LivroFields;
+import com.example.biblioteca.dto.LivroFiltro;
+import com.example.biblioteca.dto.MultiGetResult;
+import com.example.biblioteca.exception.PreconditionFailedException;
 import com.example.biblioteca.exception.ResourceNotFoundException;
+import com.example.biblioteca.report.DelimitedFormat;
+import com.example.biblioteca.service.CatalogoImportService;
+import com.example.biblioteca.service.LivroBatchService;
+import com.example.biblioteca.service.LivroExportService;
+import com.example.biblioteca.service.LivroFacetasService;
 import com.example.biblioteca.service.LivroService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(LivroController.class)
+@Import({JacksonConfig.class, ExportacaoProperties.class})
 public class LivroControllerIntegrationTest {
 
     @Autowired
@@ -36,17 +64,29 @@ public class LivroControllerIntegrationTest {
     @MockBean
     private LivroService livroService;
 
+    @MockBean
+    private LivroBatchService livroBatchService;
+
+    @MockBean
+    private CatalogoImportService catalogoImportService;
+
+    @MockBean
+    private LivroExportService livroExportService;
+
+    @MockBean
+    private LivroFacetasService livroFacetasService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     @Test
     void getAllLivros_ReturnsPageOfLivroDTOs() throws Exception {
-        LivroDTO livroDTO = new LivroDTO(1L, "Dom Casmurro", "Editora A", "1ª", "1899", new BigDecimal("50.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)));
+        LivroDTO livroDTO = new LivroDTO(1L, "Dom Casmurro", "Editora A", "1ª", "1899", new BigDecimal("50.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), 0L, null, null);
         List<LivroDTO> livroDTOList = Arrays.asList(livroDTO);
         Pageable pageable = PageRequest.of(0, 10);
         Page<LivroDTO> livroDTOPage = new PageImpl<>(livroDTOList, pageable, 1);
 
-        when(livroService.findAll(any(Pageable.class))).thenReturn(livroDTOPage);
+        when(livroService.findAll(any(Pageable.class), eq(LivroFields.ALL))).thenReturn(livroDTOPage);
 
         mockMvc.perform(get("/api/v1/livros")
                         .contentType(MediaType.APPLICATION_JSON))
@@ -54,14 +94,29 @@ public class LivroControllerIntegrationTest {
                 .andExpect(jsonPath("$.content[0].id").value(1L))
                 .andExpect(jsonPath("$.content[0].titulo").value("Dom Casmurro"));
 
-        verify(livroService, times(1)).findAll(any(Pageable.class));
+        verify(livroService, times(1)).findAll(any(Pageable.class), any(LivroFields.class));
+    }
+
+    @Test
+    void searchLivros_QueryParameter_ReturnsRankedPage() throws Exception {
+        LivroDTO livroDTO = new LivroDTO(1L, "Memórias Póstumas de Brás Cubas", "Editora A", "1ª", "1881", new BigDecimal("45.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), 0L, null, null);
+
+        when(livroService.search(eq("memorias bras"), any(Pageable.class), eq(LivroFields.ALL))).thenReturn(new PageImpl<>(List.of(livroDTO), PageRequest.of(0, 20), 1));
+
+        mockMvc.perform(get("/api/v1/livros/search")
+                        .param("q", "memorias bras"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].titulo").value("Memórias Póstumas de Brás Cubas"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        verify(livroService, never()).findById(anyLong(), any(LivroFields.class));
     }
 
     @Test
     void getLivroById_ExistingId_ReturnsLivroDTO() throws Exception {
-        LivroDTO livroDTO = new LivroDTO(1L, "Dom Casmurro", "Editora A", "1ª", "1899", new BigDecimal("50.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)));
+        LivroDTO livroDTO = new LivroDTO(1L, "Dom Casmurro", "Editora A", "1ª", "1899", new BigDecimal("50.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), 0L, null, null);
 
-        when(livroService.findById(1L)).thenReturn(livroDTO);
+        when(livroService.findById(1L, LivroFields.ALL)).thenReturn(livroDTO);
 
         mockMvc.perform(get("/api/v1/livros/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -69,24 +124,132 @@ public class LivroControllerIntegrationTest {
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.titulo").value("Dom Casmurro"));
 
-        verify(livroService, times(1)).findById(1L);
+        verify(livroService, times(1)).findById(1L, LivroFields.ALL);
+    }
+
+    @Test
+    void getLivroById_ReturnsETagAndAnswersIfNoneMatchWithoutLoading() throws Exception {
+        LivroDTO livroDTO = new LivroDTO(1L, "Dom Casmurro", "Editora A", "1ª", "1899", new BigDecimal("50.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), 5L, null, null);
+        when(livroService.findById(1L, LivroFields.ALL)).thenReturn(livroDTO);
+        when(livroService.findVersaoById(1L)).thenReturn(5L);
+
+        mockMvc.perform(get("/api/v1/livros/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+                .andExpect(jsonPath("$.versao").value(5));
+
+        mockMvc.perform(get("/api/v1/livros/{id}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+                .andExpect(content().string(""));
+
+        verify(livroService, times(1)).findById(1L, LivroFields.ALL);
+        verify(livroService, times(1)).findVersaoById(1L);
+    }
+
+    @Test
+    void getAllLivros_IfNoneMatchCollectionVersao_ReturnsNotModified() throws Exception {
+        when(livroService.findVersaoColecao()).thenReturn(12L);
+
+        mockMvc.perform(get("/api/v1/livros")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"12\""))
+                .andExpect(status().isNotModified());
+
+        verify(livroService, never()).findAll(any(Pageable.class), any(LivroFields.class));
+    }
+
+    @Test
+    void getAllLivros_Fields_WritesOnlyRequestedProperties() throws Exception {
+        LivroDTO livroDTO = new LivroDTO();
+        livroDTO.setId(1L);
+        livroDTO.setTitulo("Dom Casmurro");
+        livroDTO.setValor(new BigDecimal("50.00"));
+        LivroFields fields = LivroFields.parse("titulo,valor", null);
+        when(livroService.findAll(any(Pageable.class), eq(fields))).thenReturn(new PageImpl<>(List.of(livroDTO), PageRequest.of(0, 20), 1));
+
+        mockMvc.perform(get("/api/v1/livros").param("fields", "titulo,valor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1L))
+                .andExpect(jsonPath("$.content[0].titulo").value("Dom Casmurro"))
+                .andExpect(jsonPath("$.content[0].valor").value(50.00))
+                .andExpect(jsonPath("$.content[0].editora").doesNotExist())
+                .andExpect(jsonPath("$.content[0].autoresIds").doesNotExist())
+                .andExpect(jsonPath("$.content[0].versao").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void getAllLivros_UnknownField_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/livros").param("fields", "titulo,senha"))
+                .andExpect(status().isBadRequest());
+
+        verify(livroService, never()).findAll(any(Pageable.class), any(LivroFields.class));
+    }
+
+    @Test
+    void getLivroById_ExpandAutores_EmbedsNamesAndVersionsTheirCollection() throws Exception {
+        LivroDTO livroDTO = new LivroDTO(1L, "Dom Casmurro", "Editora A", "1ª", "1899", new BigDecimal("50.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), 5L,
+                List.of(new AutorDTO(1L, "Machado de Assis", 0L)), null);
+        LivroFields fields = LivroFields.parse(null, "autores");
+        when(livroService.findVersaoExpansoes(fields)).thenReturn(7L);
+        when(livroService.findById(1L, fields)).thenReturn(livroDTO);
+
+        mockMvc.perform(get("/api/v1/livros/{id}", 1L).param("expand", "autores"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5-e7\""))
+                .andExpect(jsonPath("$.autores[0].nome").value("Machado de Assis"))
+                .andExpect(jsonPath("$.autoresIds[0]").value(1))
+                .andExpect(jsonPath("$.assuntos").doesNotExist());
+    }
+
+    @Test
+    void getLivrosByIds_ReturnsFoundAndMissingIdsWithCollectionETag() throws Exception {
+        LivroDTO livroDTO = new LivroDTO(2L, "Helena", "Editora A", "1ª", "1876", new BigDecimal("30.00"), new HashSet<>(Set.of(1L)), new HashSet<>(), 0L, null, null);
+        when(livroService.findVersaoColecao()).thenReturn(12L);
+        when(livroService.findAllById(List.of(2L, 8L), LivroFields.ALL)).thenReturn(new MultiGetResult<>(List.of(livroDTO), List.of(8L)));
+
+        mockMvc.perform(get("/api/v1/livros").param("ids", "2,8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"12\""))
+                .andExpect(jsonPath("$.content[0].titulo").value("Helena"))
+                .andExpect(jsonPath("$.missingIds[0]").value(8L));
+
+        verify(livroService, never()).findAll(any(Pageable.class), any(LivroFields.class));
+    }
+
+    @Test
+    void lookupLivros_IdsInBodyWithFields_TrimsEachLivro() throws Exception {
+        LivroDTO livroDTO = new LivroDTO();
+        livroDTO.setId(1L);
+        livroDTO.setTitulo("Dom Casmurro");
+        LivroFields fields = LivroFields.parse("titulo", null);
+        when(livroService.findAllById(List.of(1L, 3L), fields)).thenReturn(new MultiGetResult<>(List.of(livroDTO), List.of(3L)));
+
+        mockMvc.perform(post("/api/v1/livros/lookup").param("fields", "titulo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 3]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].titulo").value("Dom Casmurro"))
+                .andExpect(jsonPath("$.content[0].valor").doesNotExist())
+                .andExpect(jsonPath("$.missingIds[0]").value(3L));
     }
 
     @Test
     void getLivroById_NonExistingId_ReturnsNotFound() throws Exception {
-        when(livroService.findById(anyLong())).thenThrow(new ResourceNotFoundException("Livro not found"));
+        when(livroService.findById(anyLong(), any(LivroFields.class))).thenThrow(new ResourceNotFoundException("Livro not found"));
 
         mockMvc.perform(get("/api/v1/livros/{id}", 99L)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(livroService, times(1)).findById(99L);
+        verify(livroService, times(1)).findById(99L, LivroFields.ALL);
     }
 
     @Test
     void createLivro_ValidLivroDTO_ReturnsCreatedLivroDTO() throws Exception {
-        LivroDTO livroDTO = new LivroDTO(null, "Memórias Póstumas", "Editora B", "2ª", "1881", new BigDecimal("60.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)));
-        LivroDTO createdLivroDTO = new LivroDTO(2L, "Memórias Póstumas", "Editora B", "2ª", "1881", new BigDecimal("60.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)));
+        LivroDTO livroDTO = new LivroDTO(null, "Memórias Póstumas", "Editora B", "2ª", "1881", new BigDecimal("60.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), 0L, null, null);
+        LivroDTO createdLivroDTO = new LivroDTO(2L, "Memórias Póstumas", "Editora B", "2ª", "1881", new BigDecimal("60.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), 0L, null, null);
 
         when(livroService.create(any(LivroDTO.class))).thenReturn(createdLivroDTO);
 
@@ -102,7 +265,7 @@ public class LivroControllerIntegrationTest {
 
     @Test
     void createLivro_InvalidLivroDTO_ReturnsBadRequest() throws Exception {
-        LivroDTO invalidLivroDTO = new LivroDTO(null, "", "Editora B", "2ª", "1881", new BigDecimal("60.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L))); // Invalid title
+        LivroDTO invalidLivroDTO = new LivroDTO(null, "", "Editora B", "2ª", "1881", new BigDecimal("60.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), 0L, null, null); // Invalid title
 
         mockMvc.perform(post("/api/v1/livros")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -114,9 +277,9 @@ public class LivroControllerIntegrationTest {
 
     @Test
     void updateLivro_ExistingIdAndValidLivroDTO_ReturnsUpdatedLivroDTO() throws Exception {
-        LivroDTO updatedLivroDTO = new LivroDTO(1L, "Quincas Borba", "Editora C", "1ª", "1891", new BigDecimal("55.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)));
+        LivroDTO updatedLivroDTO = new LivroDTO(1L, "Quincas Borba", "Editora C", "1ª", "1891", new BigDecimal("55.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), 0L, null, null);
 
-        when(livroService.update(anyLong(), any(LivroDTO.class))).thenReturn(updatedLivroDTO);
+        when(livroService.update(anyLong(), any(LivroDTO.class), isNull())).thenReturn(updatedLivroDTO);
 
         mockMvc.perform(put("/api/v1/livros/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -125,41 +288,213 @@ public class LivroControllerIntegrationTest {
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.titulo").value("Quincas Borba"));
 
-        verify(livroService, times(1)).update(anyLong(), any(LivroDTO.class));
+        verify(livroService, times(1)).update(anyLong(), any(LivroDTO.class), isNull());
     }
 
     @Test
     void updateLivro_NonExistingId_ReturnsNotFound() throws Exception {
-        LivroDTO livroDTO = new LivroDTO(99L, "Livro Inexistente", "Editora X", "1ª", "2000", new BigDecimal("10.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)));
-        when(livroService.update(anyLong(), any(LivroDTO.class))).thenThrow(new ResourceNotFoundException("Livro not found"));
+        LivroDTO livroDTO = new LivroDTO(99L, "Livro Inexistente", "Editora X", "1ª", "2000", new BigDecimal("10.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), 0L, null, null);
+        when(livroService.update(anyLong(), any(LivroDTO.class), isNull())).thenThrow(new ResourceNotFoundException("Livro not found"));
 
         mockMvc.perform(put("/api/v1/livros/{id}", 99L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(livroDTO)))
                 .andExpect(status().isNotFound());
 
-        verify(livroService, times(1)).update(anyLong(), any(LivroDTO.class));
+        verify(livroService, times(1)).update(anyLong(), any(LivroDTO.class), isNull());
+    }
+
+    @Test
+    void updateLivro_IfMatch_PassesExpectedVersaoAndReturnsNewETag() throws Exception {
+        LivroDTO livroDTO = new LivroDTO(1L, "Dom Casmurro", "Editora A", "1ª", "1899", new BigDecimal("50.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), 4L, null, null);
+        when(livroService.update(eq(1L), any(LivroDTO.class), eq(3L))).thenReturn(livroDTO);
+
+        mockMvc.perform(put("/api/v1/livros/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(livroDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    void updateLivro_IfMatchFromExpandedResponse_ReturnsPreconditionFailed() throws Exception {
+        LivroDTO livroDTO = new LivroDTO(1L, "Dom Casmurro", "Editora A", "1ª", "1899", new BigDecimal("50.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), 5L, null, null);
+        LivroFields fields = LivroFields.parse(null, "autores");
+        when(livroService.findVersaoExpansoes(fields)).thenReturn(7L);
+        when(livroService.findById(1L, fields)).thenReturn(livroDTO);
+        String eTag = mockMvc.perform(get("/api/v1/livros/{id}", 1L).param("expand", "autores"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // the expanded tag must not be read as livro version 12, or 5, which may well be current
+        mockMvc.perform(put("/api/v1/livros/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(livroDTO)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(livroService, never()).update(anyLong(), any(LivroDTO.class), any());
+    }
+
+    @Test
+    void deleteLivro_StaleIfMatch_ReturnsPreconditionFailed() throws Exception {
+        doThrow(new PreconditionFailedException("Livro 1 is at version 4, not 3")).when(livroService).delete(1L, 3L);
+
+        mockMvc.perform(delete("/api/v1/livros/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"3\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/api/v1/livros/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "W/\"3\""))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(livroService, times(1)).delete(1L, 3L);
     }
 
     @Test
     void deleteLivro_ExistingId_ReturnsNoContent() throws Exception {
-        doNothing().when(livroService).delete(1L);
+        doNothing().when(livroService).delete(1L, null);
 
         mockMvc.perform(delete("/api/v1/livros/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
 
-        verify(livroService, times(1)).delete(1L);
+        verify(livroService, times(1)).delete(1L, null);
     }
 
     @Test
     void deleteLivro_NonExistingId_ReturnsNotFound() throws Exception {
-        doThrow(new ResourceNotFoundException("Livro not found")).when(livroService).delete(anyLong());
+        doThrow(new ResourceNotFoundException("Livro not found")).when(livroService).delete(anyLong(), isNull());
 
         mockMvc.perform(delete("/api/v1/livros/{id}", 99L)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(livroService, times(1)).delete(99L);
+        verify(livroService, times(1)).delete(99L, null);
+    }
+
+    @Test
+    void createLivros_NdjsonBody_ReturnsBatchResult() throws Exception {
+        LivroBatchResultDTO result = new LivroBatchResultDTO(2, 1, List.of(new LivroBatchResultDTO.Failure(1, "titulo: O título do livro é obrigatório")));
+
+        when(livroBatchService.createAll(any(InputStream.class))).thenReturn(result);
+
+        mockMvc.perform(post("/api/v1/livros/batch")
+                        .contentType("application/x-ndjson")
+                        .content("{\"titulo\":\"Dom Casmurro\"}\n{\"titulo\":\"\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failures[0].index").value(1));
+
+        verify(livroBatchService, times(1)).createAll(any(InputStream.class));
+    }
+
+    @Test
+    void importCatalogo_TsvBody_ImportsWithTsvFormat() throws Exception {
+        CatalogoImportResultDTO result = new CatalogoImportResultDTO();
+        result.setRows(1);
+        result.setLivrosCreated(1);
+
+        when(catalogoImportService.importCatalogo(eq(DelimitedFormat.TSV), any(InputStream.class))).thenReturn(result);
+
+        mockMvc.perform(post("/api/v1/livros/import")
+                        .contentType("text/tab-separated-values;charset=UTF-8")
+                        .content("titulo\teditora\tedicao\tano_publicacao\tvalor\tautores\tassuntos\n"
+                                + "Dom Casmurro\tGarnier\t1ª\t1899\t39.90\tMachado de Assis\tRomance\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(1))
+                .andExpect(jsonPath("$.livrosCreated").value(1));
+
+        verify(catalogoImportService, times(1)).importCatalogo(eq(DelimitedFormat.TSV), any(InputStream.class));
+    }
+
+    @Test
+    void exportLivros_StreamsNdjson() throws Exception {
+        when(livroExportService.exportNdjson(isNull(), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+        when(livroExportService.currentSyncToken()).thenReturn(1234L);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/livros/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string("X-Export-Since", "1234"))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    void exportLivros_OutlastsTheDefaultAsyncTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/livros/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // 30 seconds is Tomcat's default; a full export of a large catalogue takes far longer
+        long timeout = result.getRequest().getAsyncContext().getTimeout();
+        assertEquals(new ExportacaoProperties().getTimeout().toMillis(), timeout);
+        assertTrue(timeout > 30_000, "export would be cut off after " + timeout + " ms");
+        // let the task finish so it doesn't call the mocks during the next test
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+
+    @Test
+    void exportLivros_WithSince_PassesItToTheService() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/livros/export").param("since", "1234"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        verify(livroExportService).exportNdjson(eq(1234L), any(OutputStream.class));
+    }
+
+    @Test
+    void exportLivros_InvalidSince_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/livros/export").param("since", "ontem"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid value 'ontem' for parameter since"));
+
+        verify(livroExportService, never()).exportNdjson(any(), any());
+    }
+
+    @Test
+    void getFacetas_ReturnsCountsWithVersionETag() throws Exception {
+        LivroFacetasDTO facetas = new LivroFacetasDTO(3, List.of(new FacetaDTO("7", "Romance", 2)), List.of(new FacetaDTO("Garnier", "Garnier", 3)),
+                List.of(new FacetaDTO("1890", "1890-1899", 3)), List.of(new FacetaDTO("20-50", "20 a 50", 3)));
+        when(livroFacetasService.findVersao()).thenReturn(42L);
+        when(livroFacetasService.findFacetas(any(LivroFiltro.class), eq(42L))).thenReturn(facetas);
+
+        mockMvc.perform(get("/api/v1/livros/facets").param("editora", "Garnier").param("assuntoIds", "7"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"42\""))
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.assuntos[0].nome").value("Romance"))
+                .andExpect(jsonPath("$.decadas[0].chave").value("1890"))
+                .andExpect(jsonPath("$.faixasValor[0].livros").value(3));
+
+        verify(livroFacetasService).findFacetas(argThat(filtro -> "Garnier".equals(filtro.getEditora())
+                && List.of(7L).equals(filtro.getAssuntoIds())), eq(42L));
+    }
+
+    @Test
+    void getFacetas_MatchingIfNoneMatch_ReturnsNotModified() throws Exception {
+        when(livroFacetasService.findVersao()).thenReturn(42L);
+
+        mockMvc.perform(get("/api/v1/livros/facets").header(HttpHeaders.IF_NONE_MATCH, "\"42\""))
+                .andExpect(status().isNotModified());
+
+        verify(livroFacetasService, never()).findFacetas(any(LivroFiltro.class), anyLong());
+    }
+
+    @Test
+    void getFacetas_InvalidFilter_ReturnsUnprocessableEntity() throws Exception {
+        mockMvc.perform(get("/api/v1/livros/facets").param("anoInicio", "2000").param("anoFim", "1990"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(livroFacetasService, never()).findFacetas(any(LivroFiltro.class), anyLong());
     }
 }
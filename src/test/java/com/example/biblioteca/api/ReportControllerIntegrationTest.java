@@ -0,0 +1,135 @@
+package com.example.biblioteca.api;
+
+import com.example.biblioteca.config.RelatorioProperties;
+import com.example.biblioteca.dto.LivroFiltro;
+import com.example.biblioteca.report.DelimitedFormat;
+import com.example.biblioteca.report.DelimitedReportService;
+import com.example.biblioteca.report.RelatorioMaterializadoService;
+import com.example.biblioteca.report.ReportCacheKey;
+import com.example.biblioteca.report.ReportFormat;
+import com.example.biblioteca.report.ReportJobService;
+import com.example.biblioteca.report.ReportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReportController.class)
+@Import(RelatorioProperties.class)
+public class ReportControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReportService reportService;
+
+    @MockBean
+    private ReportJobService reportJobService;
+
+    @MockBean
+    private DelimitedReportService delimitedReportService;
+
+    @MockBean
+    private RelatorioMaterializadoService relatorioMaterializadoService;
+
+    @Test
+    void getLivrosPorAutorReport_StreamsReportWithHeaders() throws Exception {
+        ReportCacheKey key = key(ReportFormat.PDF);
+        when(reportService.livrosPorAutorKey(eq(ReportFormat.PDF), any(LivroFiltro.class))).thenReturn(key);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("%PDF".getBytes(StandardCharsets.US_ASCII));
+            return null;
+        }).when(reportService).exportReport(eq(key), any(LivroFiltro.class), any(OutputStream.class), any());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/relatorios/livros-por-autor").param("format", "pdf"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/pdf"))
+                .andExpect(header().string(HttpHeaders.ETAG, key.eTag()))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(content().string("%PDF"));
+    }
+
+    @Test
+    void getLivrosPorAutorReport_MatchingETag_ReturnsNotModifiedWithoutRendering() throws Exception {
+        ReportCacheKey key = key(ReportFormat.PDF);
+        when(reportService.livrosPorAutorKey(eq(ReportFormat.PDF), any(LivroFiltro.class))).thenReturn(key);
+
+        mockMvc.perform(get("/api/v1/relatorios/livros-por-autor").header(HttpHeaders.IF_NONE_MATCH, key.eTag()))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, key.eTag()));
+        verify(reportService, never()).exportReport(any(ReportCacheKey.class), any(), any(), any());
+    }
+
+    @Test
+    void getLivrosPorAutorReport_OutlastsTheDefaultAsyncTimeout() throws Exception {
+        when(reportService.livrosPorAutorKey(eq(ReportFormat.PDF), any(LivroFiltro.class))).thenReturn(key(ReportFormat.PDF));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/relatorios/livros-por-autor"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        long timeout = result.getRequest().getAsyncContext().getTimeout();
+        assertEquals(new RelatorioProperties().getTimeout().toMillis(), timeout);
+        assertTrue(timeout > 30_000, "report would be cut off after " + timeout + " ms");
+        // let the task finish so it doesn't call the mocks during the next test
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+
+    @Test
+    void exportLivrosPorAutor_StreamsRowsWithHeaders() throws Exception {
+        when(delimitedReportService.exportLivrosPorAutor(eq(DelimitedFormat.CSV), any(LivroFiltro.class), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    invocation.<OutputStream>getArgument(2).write("autor,titulo\r\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/api/v1/relatorios/livros-por-autor.csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "form-data; name=\"filename\"; filename=\"livros-por-autor.csv\""))
+                .andExpect(content().string("autor,titulo\r\n"));
+    }
+
+    @Test
+    void exportLivrosPorAutor_OutlastsTheDefaultAsyncTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/relatorios/livros-por-autor.tsv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // 30 seconds is Tomcat's default; exporting a large catalogue takes far longer
+        long timeout = result.getRequest().getAsyncContext().getTimeout();
+        assertEquals(new RelatorioProperties().getExport().getTimeout().toMillis(), timeout);
+        assertTrue(timeout > 30_000, "export would be cut off after " + timeout + " ms");
+        // let the task finish so it doesn't call the mocks during the next test
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+
+    private static ReportCacheKey key(ReportFormat format) {
+        return new ReportCacheKey("livros_por_autor", format, Map.of(), 7L);
+    }
+}
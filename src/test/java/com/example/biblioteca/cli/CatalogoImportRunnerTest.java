@@ -0,0 +1,77 @@
+package com.example.biblioteca.cli;
+
+import com.example.biblioteca.dto.CatalogoImportResultDTO;
+import com.example.biblioteca.exception.CatalogoImportInProgressException;
+import com.example.biblioteca.report.DelimitedFormat;
+import com.example.biblioteca.service.CatalogoImportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogoImportRunnerTest {
+
+    @Mock
+    private CatalogoImportService catalogoImportService;
+
+    @InjectMocks
+    private CatalogoImportRunner runner;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void run_WithoutOption_DoesNothing() {
+        runner.run(new DefaultApplicationArguments("--server.port=8080"));
+
+        verifyNoInteractions(catalogoImportService);
+    }
+
+    @Test
+    void importFiles_DetectsFormatFromExtension() throws Exception {
+        Path csv = Files.writeString(dir.resolve("catalogo.csv"), "titulo,editora\n");
+        Path tsv = Files.writeString(dir.resolve("catalogo.TSV"), "titulo\teditora\n");
+        when(catalogoImportService.importCatalogo(any(DelimitedFormat.class), any(InputStream.class))).thenReturn(new CatalogoImportResultDTO());
+
+        int exitCode = runner.importFiles(List.of(csv.toString(), tsv.toString()));
+
+        assertEquals(0, exitCode);
+        verify(catalogoImportService).importCatalogo(eq(DelimitedFormat.CSV), any(InputStream.class));
+        verify(catalogoImportService).importCatalogo(eq(DelimitedFormat.TSV), any(InputStream.class));
+    }
+
+    @Test
+    void importFiles_FailedImport_StopsWithExitCodeOne() throws Exception {
+        Path first = Files.writeString(dir.resolve("a.csv"), "");
+        Path second = Files.writeString(dir.resolve("b.csv"), "");
+        when(catalogoImportService.importCatalogo(any(DelimitedFormat.class), any(InputStream.class)))
+                .thenThrow(new CatalogoImportInProgressException("busy"));
+
+        int exitCode = runner.importFiles(List.of(first.toString(), second.toString()));
+
+        assertEquals(1, exitCode);
+        verify(catalogoImportService, times(1)).importCatalogo(any(DelimitedFormat.class), any(InputStream.class));
+    }
+
+    @Test
+    void importFiles_UnknownExtension_ReturnsExitCodeOne() throws Exception {
+        Path xml = Files.writeString(dir.resolve("catalogo.xml"), "<livros/>");
+
+        assertEquals(1, runner.importFiles(List.of(xml.toString(), dir.resolve("missing.csv").toString())));
+        verifyNoInteractions(catalogoImportService);
+    }
+}
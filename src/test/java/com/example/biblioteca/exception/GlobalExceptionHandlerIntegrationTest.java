@@ -43,7 +43,7 @@ public class GlobalExceptionHandlerIntegrationTest {
 
     @Test
     void handleMethodArgumentNotValidException_ReturnsUnprocessableEntityAndErrorResponse() throws Exception {
-        AutorDTO invalidAutorDTO = new AutorDTO(null, ""); // Empty name, which is invalid
+        AutorDTO invalidAutorDTO = new AutorDTO(null, "", 0L); // Empty name, which is invalid
 
         mockMvc.perform(post("/api/v1/autores")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,102 @@
+package com.example.biblioteca.report;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DelimitedReportWriterTest {
+
+    private static final String HEADER = "autorNome,tituloLivro,editoraLivro,edicaoLivro,anoPublicacaoLivro,valorLivro,assuntosLivro";
+
+    @Test
+    void writeAll_Csv_WritesHeaderAndRows() throws Exception {
+        String csv = write(DelimitedFormat.CSV, List.<String[]>of(
+                new String[]{"Machado de Assis", "Dom Casmurro", "Garnier", "1", "1899", "39.90", "Romance"}));
+
+        assertEquals(HEADER + "\r\nMachado de Assis,Dom Casmurro,Garnier,1,1899,39.90,Romance\r\n", csv);
+    }
+
+    @Test
+    void writeAll_Csv_QuotesValuesWithDelimitersQuotesAndLineBreaks() throws Exception {
+        String csv = write(DelimitedFormat.CSV, List.<String[]>of(
+                new String[]{"Assis, Machado de", "O \"Alienista\"", "Linha\nquebrada", null, "1882", "10.00", ""}));
+
+        assertTrue(csv.endsWith("\"Assis, Machado de\",\"O \"\"Alienista\"\"\",\"Linha\nquebrada\",,1882,10.00,\r\n"));
+    }
+
+    @Test
+    void writeAll_Tsv_ReplacesTabsAndLineBreaks() throws Exception {
+        String tsv = write(DelimitedFormat.TSV, List.<String[]>of(
+                new String[]{"Autor\tcom tab", "Título, com vírgula", "Linha\r\nquebrada", "2", "2001", "5.50", "A; B"}));
+
+        assertTrue(tsv.endsWith("Autor com tab\tTítulo, com vírgula\tLinha  quebrada\t2\t2001\t5.50\tA; B\n"));
+    }
+
+    @Test
+    @Tag("performance")
+    void writeAll_LargeCatalogue_SustainsHighThroughput() throws Exception {
+        long rows = 2_000_000;
+        CountingOutputStream out = new CountingOutputStream();
+        ResultSet resultSet = syntheticResultSet(rows, row -> new String[]{
+                "Autor " + row / 25, "Livro " + row, "Editora", "1", "2001", "49.90", "Romance, Ficção"});
+
+        long start = System.nanoTime();
+        long written = new DelimitedReportWriter(out, DelimitedFormat.CSV, 64 * 1024).writeAll(resultSet);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(rows, written);
+        double rowsPerSecond = rows / seconds;
+        System.out.printf("Wrote %d rows (%d MB of CSV) in %.2f s: %.0f rows/s with -Xmx%dm%n", rows,
+                out.count / (1024 * 1024), seconds, rowsPerSecond, Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        assertTrue(rowsPerSecond > 50_000, "expected more than 50k rows/s, got " + rowsPerSecond);
+    }
+
+    private static String write(DelimitedFormat format, List<String[]> rows) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DelimitedReportWriter(out, format, 16).writeAll(syntheticResultSet(rows.size(), row -> rows.get((int) row)));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Minimal forward-only result set supporting just what the writer uses; rows are generated on demand.
+     */
+    private static ResultSet syntheticResultSet(long rows, LongFunction<String[]> rowFactory) {
+        long[] current = {-1};
+        String[][] values = {null};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "next" -> {
+                        if (++current[0] >= rows) {
+                            yield false;
+                        }
+                        values[0] = rowFactory.apply(current[0]);
+                        yield true;
+                    }
+                    case "getString" -> values[0][(Integer) args[0] - 1];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.biblioteca.report;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RelatorioLivroDataSourceTest {
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Mock
+    private JRField field;
+
+    private RelatorioLivroDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new RelatorioLivroDataSource(resultSet);
+    }
+
+    @Test
+    void next_DelegatesToResultSet() throws Exception {
+        when(resultSet.next()).thenReturn(true, false);
+
+        assertTrue(dataSource.next());
+        assertFalse(dataSource.next());
+        verify(resultSet, times(2)).next();
+    }
+
+    @Test
+    void getFieldValue_KnownField_ReadsMappedColumn() throws Exception {
+        doReturn("valorLivro").when(field).getName();
+        doReturn(BigDecimal.class).when(field).getValueClass();
+        when(resultSet.getObject("valor_livro", BigDecimal.class)).thenReturn(new BigDecimal("50.00"));
+
+        assertEquals(new BigDecimal("50.00"), dataSource.getFieldValue(field));
+    }
+
+    @Test
+    void getFieldValue_UnknownField_ThrowsJRException() {
+        doReturn("inexistente").when(field).getName();
+
+        assertThrows(JRException.class, () -> dataSource.getFieldValue(field));
+    }
+
+    @Test
+    void next_SQLException_IsWrappedInJRException() throws Exception {
+        when(resultSet.next()).thenThrow(new SQLException("connection reset"));
+
+        assertThrows(JRException.class, () -> dataSource.next());
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.config.RelatorioProperties;
+import com.example.biblioteca.dto.RelatorioAtualizacaoDTO;
+import com.example.biblioteca.repository.RelatorioMaterializadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RelatorioMaterializadoServiceTest {
+
+    private static final Instant T0 = Instant.parse("2024-05-01T10:00:00Z");
+
+    @Mock
+    private RelatorioMaterializadoRepository relatorioMaterializadoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private RelatorioProperties relatorioProperties = new RelatorioProperties();
+
+    @InjectMocks
+    private RelatorioMaterializadoService relatorioMaterializadoService;
+
+    @BeforeEach
+    void setUp() {
+        relatorioProperties.getMaterializacao().setQuietPeriod(Duration.ofSeconds(10));
+        relatorioProperties.getMaterializacao().setMaxDelay(Duration.ofSeconds(60));
+        relatorioMaterializadoService.init();
+    }
+
+    @Test
+    void refreshIfChanged_CatalogueUnchanged_DoesNotRefresh() {
+        when(relatorioMaterializadoRepository.findVersaoCatalogo()).thenReturn(5L);
+        when(relatorioMaterializadoRepository.findEstado()).thenReturn(estado(5L));
+
+        assertFalse(relatorioMaterializadoService.refreshIfChanged(T0));
+
+        verify(relatorioMaterializadoRepository, never()).refresh(anyLong());
+    }
+
+    @Test
+    void refreshIfChanged_WaitsForTheCatalogueToBeQuiet() {
+        when(relatorioMaterializadoRepository.findEstado()).thenReturn(estado(5L));
+        when(relatorioMaterializadoRepository.findVersaoCatalogo()).thenReturn(6L);
+        when(relatorioMaterializadoRepository.tryLock()).thenReturn(true);
+
+        assertFalse(relatorioMaterializadoService.refreshIfChanged(T0));
+        assertFalse(relatorioMaterializadoService.refreshIfChanged(T0.plusSeconds(9)));
+        assertTrue(relatorioMaterializadoService.refreshIfChanged(T0.plusSeconds(10)));
+
+        verify(relatorioMaterializadoRepository, times(1)).refresh(6L);
+    }
+
+    @Test
+    void refreshIfChanged_NewChangesRestartTheQuietPeriod() {
+        when(relatorioMaterializadoRepository.findEstado()).thenReturn(estado(5L));
+        when(relatorioMaterializadoRepository.findVersaoCatalogo()).thenReturn(6L, 7L, 7L);
+
+        assertFalse(relatorioMaterializadoService.refreshIfChanged(T0));
+        assertFalse(relatorioMaterializadoService.refreshIfChanged(T0.plusSeconds(8)));
+        assertFalse(relatorioMaterializadoService.refreshIfChanged(T0.plusSeconds(12)));
+
+        verify(relatorioMaterializadoRepository, never()).refresh(anyLong());
+    }
+
+    @Test
+    void refreshIfChanged_ContinuousChanges_RefreshesAfterMaxDelay() {
+        when(relatorioMaterializadoRepository.findEstado()).thenReturn(estado(5L));
+        long[] versao = {5L};
+        when(relatorioMaterializadoRepository.findVersaoCatalogo()).thenAnswer(invocation -> ++versao[0]);
+        when(relatorioMaterializadoRepository.tryLock()).thenReturn(true);
+
+        for (int segundos = 0; segundos < 60; segundos += 5) {
+            assertFalse(relatorioMaterializadoService.refreshIfChanged(T0.plusSeconds(segundos)));
+        }
+        assertTrue(relatorioMaterializadoService.refreshIfChanged(T0.plusSeconds(60)));
+    }
+
+    @Test
+    void refreshIfChanged_AnotherInstanceRefreshing_StaysPending() {
+        when(relatorioMaterializadoRepository.findEstado()).thenReturn(estado(5L));
+        when(relatorioMaterializadoRepository.findVersaoCatalogo()).thenReturn(6L);
+        when(relatorioMaterializadoRepository.tryLock()).thenReturn(false, true);
+
+        relatorioMaterializadoService.refreshIfChanged(T0);
+        assertFalse(relatorioMaterializadoService.refreshIfChanged(T0.plusSeconds(10)));
+        assertTrue(relatorioMaterializadoService.refreshIfChanged(T0.plusSeconds(15)));
+
+        verify(relatorioMaterializadoRepository, times(1)).refresh(6L);
+    }
+
+    @Test
+    void findAtualizacao_ReportsPendingChanges() {
+        OffsetDateTime atualizadaEm = OffsetDateTime.now().minusHours(3);
+        when(relatorioMaterializadoRepository.findEstado()).thenReturn(new RelatorioMaterializadoRepository.Estado(4L, 5L, atualizadaEm));
+        when(relatorioMaterializadoRepository.findVersaoCatalogo()).thenReturn(6L, 6L, 5L);
+        relatorioMaterializadoService.refreshIfChanged(T0);
+
+        RelatorioAtualizacaoDTO desatualizado = relatorioMaterializadoService.findAtualizacao(T0.plusSeconds(7));
+        assertTrue(desatualizado.isDesatualizado());
+        // counted from the pending change, not from the refresh three hours ago
+        assertEquals(7, desatualizado.getDefasagemSegundos());
+        assertEquals(4L, desatualizado.getVersao());
+        assertEquals(atualizadaEm, desatualizado.getAtualizadoEm());
+
+        RelatorioAtualizacaoDTO atual = relatorioMaterializadoService.findAtualizacao(T0.plusSeconds(8));
+        assertFalse(atual.isDesatualizado());
+        assertEquals(0, atual.getDefasagemSegundos());
+    }
+
+    @Test
+    void findAtualizacao_ChangeNotYetChecked_ReportsNoLag() {
+        when(relatorioMaterializadoRepository.findEstado()).thenReturn(estado(5L));
+        when(relatorioMaterializadoRepository.findVersaoCatalogo()).thenReturn(6L);
+
+        RelatorioAtualizacaoDTO atualizacao = relatorioMaterializadoService.findAtualizacao(T0);
+
+        assertTrue(atualizacao.isDesatualizado());
+        assertEquals(0, atualizacao.getDefasagemSegundos());
+    }
+
+    private static RelatorioMaterializadoRepository.Estado estado(long versaoCatalogo) {
+        return new RelatorioMaterializadoRepository.Estado(1L, versaoCatalogo, OffsetDateTime.now());
+    }
+}
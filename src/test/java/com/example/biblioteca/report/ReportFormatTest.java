@@ -0,0 +1,42 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.exception.UnsupportedReportFormatException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportFormatTest {
+
+    @Test
+    void negotiate_FormatParameter_TakesPrecedenceOverAccept() {
+        assertEquals(ReportFormat.XLSX, ReportFormat.negotiate("XLSX", List.of(MediaType.APPLICATION_PDF)));
+    }
+
+    @Test
+    void negotiate_NoPreference_DefaultsToPdf() {
+        assertEquals(ReportFormat.PDF, ReportFormat.negotiate(null, List.of()));
+        assertEquals(ReportFormat.PDF, ReportFormat.negotiate(null, MediaType.parseMediaTypes("*/*")));
+    }
+
+    @Test
+    void negotiate_AcceptHeader_PicksHighestQualitySupportedType() {
+        List<MediaType> accepted = MediaType.parseMediaTypes("application/json, application/pdf;q=0.5, text/csv;q=0.9");
+
+        assertEquals(ReportFormat.CSV, ReportFormat.negotiate(null, accepted));
+    }
+
+    @Test
+    void negotiate_WildcardSubtype_PicksFirstMatchingFormat() {
+        assertEquals(ReportFormat.HTML, ReportFormat.negotiate(null, MediaType.parseMediaTypes("text/*")));
+    }
+
+    @Test
+    void negotiate_NothingSupportedAccepted_ThrowsUnsupportedReportFormatException() {
+        assertThrows(UnsupportedReportFormatException.class,
+                () -> ReportFormat.negotiate(null, MediaType.parseMediaTypes("application/json")));
+        assertThrows(UnsupportedReportFormatException.class, () -> ReportFormat.negotiate("docx", List.of()));
+    }
+}
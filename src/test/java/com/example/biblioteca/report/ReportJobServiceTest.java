@@ -0,0 +1,115 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.config.RelatorioProperties;
+import com.example.biblioteca.dto.LivroFiltro;
+import com.example.biblioteca.exception.ReportJobNotReadyException;
+import com.example.biblioteca.exception.ReportJobRejectedException;
+import com.example.biblioteca.exception.ResourceNotFoundException;
+import net.sf.jasperreports.engine.JRException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReportJobServiceTest {
+
+    @Mock
+    private ReportService reportService;
+
+    @Spy
+    private RelatorioProperties relatorioProperties = new RelatorioProperties();
+
+    @InjectMocks
+    private ReportJobService reportJobService;
+
+    @BeforeEach
+    void setUp() {
+        relatorioProperties.getJobs().setMaxConcurrency(1);
+        relatorioProperties.getJobs().setQueueCapacity(1);
+        reportJobService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportJobService.shutdown();
+    }
+
+    @Test
+    void submit_RendersReportInBackground() throws Exception {
+        byte[] pdf = "%PDF".getBytes();
+        doAnswer(invocation -> {
+            invocation.getArgument(3, LongConsumer.class).accept(42L);
+            invocation.getArgument(2, OutputStream.class).write(pdf);
+            return null;
+        }).when(reportService).exportReport(eq(ReportFormat.PDF), any(LivroFiltro.class), any(OutputStream.class), any(LongConsumer.class));
+
+        ReportJob job = reportJobService.submit(ReportFormat.PDF, new LivroFiltro());
+        awaitFinished(job);
+
+        assertEquals(ReportJobStatus.COMPLETED, job.getStatus());
+        assertEquals(42L, job.getRowsProcessed());
+        Path content = reportJobService.getContent(job.getId());
+        assertArrayEquals(pdf, Files.readAllBytes(content));
+    }
+
+    @Test
+    void submit_RenderFails_MarksJobFailed() throws Exception {
+        doThrow(new JRException("template broken"))
+                .when(reportService).exportReport(eq(ReportFormat.PDF), any(LivroFiltro.class), any(OutputStream.class), any(LongConsumer.class));
+
+        ReportJob job = reportJobService.submit(ReportFormat.PDF, new LivroFiltro());
+        awaitFinished(job);
+
+        assertEquals(ReportJobStatus.FAILED, job.getStatus());
+        assertEquals("template broken", job.getErrorMessage());
+        assertThrows(ReportJobNotReadyException.class, () -> reportJobService.getContent(job.getId()));
+    }
+
+    @Test
+    void submit_QueueFull_ThrowsReportJobRejectedException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS))
+                .when(reportService).exportReport(eq(ReportFormat.PDF), any(LivroFiltro.class), any(OutputStream.class), any(LongConsumer.class));
+
+        ReportJob running = reportJobService.submit(ReportFormat.PDF, new LivroFiltro());
+        ReportJob queued = reportJobService.submit(ReportFormat.PDF, new LivroFiltro());
+
+        assertThrows(ReportJobRejectedException.class, () -> reportJobService.submit(ReportFormat.PDF, new LivroFiltro()));
+        assertThrows(ReportJobNotReadyException.class, () -> reportJobService.getContent(queued.getId()));
+        release.countDown();
+        awaitFinished(running);
+        awaitFinished(queued);
+        assertEquals(ReportJobStatus.COMPLETED, queued.getStatus());
+    }
+
+    @Test
+    void findById_UnknownJob_ThrowsResourceNotFoundException() {
+        assertThrows(ResourceNotFoundException.class, () -> reportJobService.findById(UUID.randomUUID()));
+    }
+
+    private void awaitFinished(ReportJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished(), "job did not finish in time");
+    }
+}
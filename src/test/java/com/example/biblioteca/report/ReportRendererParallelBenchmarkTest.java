@@ -0,0 +1,97 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.config.RelatorioProperties;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JRVirtualizer;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fills the same synthetic catalogue with 1, 2, 4... partitions, up to the number of available cores, and
+ * reports the wall-clock time of each run. Run with {@code -Pperformance}.
+ */
+@Tag("performance")
+public class ReportRendererParallelBenchmarkTest {
+
+    private static final long ROWS = 200_000;
+    private static final int LIVROS_POR_AUTOR = 25;
+
+    private JasperReport jasperReport;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReportTemplateRegistry registry = new ReportTemplateRegistry();
+        ReflectionTestUtils.setField(registry, "resourceLoader", new DefaultResourceLoader());
+        registry.loadTemplates();
+        jasperReport = registry.getTemplate("livros_por_autor");
+    }
+
+    @Test
+    void fillPartitions_LargeCatalogue_ScalesWithCores() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        Map<Integer, Long> millisByPartitions = new LinkedHashMap<>();
+        int pages = -1;
+        for (int partitions = 1; partitions <= Math.max(2, cores); partitions *= 2) {
+            long start = System.currentTimeMillis();
+            int filledPages = fill(partitions);
+            millisByPartitions.put(partitions, System.currentTimeMillis() - start);
+            if (pages >= 0) {
+                // partitions end on partly filled pages, so allow one extra page per partition boundary
+                assertTrue(Math.abs(filledPages - pages) < partitions, "unexpected page count " + filledPages);
+            }
+            pages = filledPages;
+        }
+
+        long baseline = millisByPartitions.get(1);
+        millisByPartitions.forEach((partitions, millis) -> System.out.printf(
+                "%d partition(s): %d ms (%.2fx) for %d rows on %d core(s)%n", partitions, millis,
+                (double) baseline / millis, ROWS, cores));
+        if (cores >= 4) {
+            assertTrue(millisByPartitions.get(4) * 1.5 < baseline, "expected 4 partitions to be at least 1.5x faster");
+        }
+    }
+
+    private int fill(int partitions) throws Exception {
+        RelatorioProperties relatorioProperties = new RelatorioProperties();
+        relatorioProperties.getVirtualizer().setMaxPages(100);
+        relatorioProperties.getParallel().setPartitions(partitions);
+        ReportRenderer reportRenderer = new ReportRenderer();
+        ReflectionTestUtils.setField(reportRenderer, "relatorioProperties", relatorioProperties);
+        reportRenderer.init();
+
+        long rowsPerPartition = ROWS / partitions;
+        JRVirtualizer virtualizer = reportRenderer.createVirtualizer();
+        try {
+            JasperPrint jasperPrint = reportRenderer.fillPartitions(jasperReport, Map.of(), partitions, (partition, filler) ->
+                    filler.apply(new SyntheticRelatorioDataSource(partition * rowsPerPartition, rowsPerPartition, LIVROS_POR_AUTOR)),
+                    virtualizer);
+            int pages = jasperPrint.getPages().size();
+            // most pages were swapped out while the partitions were filled, so this checks the renumbering stuck
+            assertEquals(String.valueOf(pages), pageNumber(jasperPrint.getPages().get(pages - 1)));
+            assertEquals(String.valueOf(pages / 2), pageNumber(jasperPrint.getPages().get(pages / 2 - 1)));
+            return pages;
+        } finally {
+            virtualizer.cleanup();
+            reportRenderer.shutdown();
+        }
+    }
+
+    private static String pageNumber(JRPrintPage page) {
+        return page.getElements().stream()
+                .filter(element -> ReportRenderer.PAGE_NUMBER_KEY.equals(element.getKey()))
+                .map(element -> ((JRPrintText) element).getFullText())
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.config.RelatorioProperties;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportRendererTest {
+
+    private ReportRenderer reportRenderer;
+    private JasperReport jasperReport;
+    private JasperPrint jasperPrint;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        reportRenderer = new ReportRenderer();
+        ReflectionTestUtils.setField(reportRenderer, "relatorioProperties", new RelatorioProperties());
+        reportRenderer.init();
+
+        ReportTemplateRegistry registry = new ReportTemplateRegistry();
+        ReflectionTestUtils.setField(registry, "resourceLoader", new DefaultResourceLoader());
+        registry.loadTemplates();
+        jasperReport = registry.getTemplate("livros_por_autor");
+        jasperPrint = reportRenderer.fill(jasperReport, Map.of("createdBy", "teste"), new SyntheticRelatorioDataSource(30, 3), null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportRenderer.shutdown();
+    }
+
+    @Test
+    void export_Pdf_WritesPdfDocument() throws Exception {
+        assertTrue(export(ReportFormat.PDF).startsWith("%PDF"));
+    }
+
+    @Test
+    void export_Html_WritesHtmlMarkup() throws Exception {
+        String html = export(ReportFormat.HTML);
+
+        assertTrue(html.contains("<html"));
+        assertTrue(html.contains("Livro 29"));
+    }
+
+    @Test
+    void export_Xlsx_WritesZipPackage() throws Exception {
+        assertTrue(export(ReportFormat.XLSX).startsWith("PK"));
+    }
+
+    @Test
+    void export_Csv_WritesRows() throws Exception {
+        assertTrue(export(ReportFormat.CSV).contains("Livro 29"));
+    }
+
+    @Test
+    void fillPartitions_StitchesPartitionsInAuthorOrderWithContinuousPageNumbers() throws Exception {
+        int rowsPerPartition = 300;
+        JasperPrint single = reportRenderer.fill(jasperReport, Map.of(), new SyntheticRelatorioDataSource(3 * rowsPerPartition, 3), null);
+
+        JasperPrint stitched = reportRenderer.fillPartitions(jasperReport, Map.of(), 3, (partition, filler) ->
+                filler.apply(new SyntheticRelatorioDataSource(partition * rowsPerPartition, rowsPerPartition, 3)), null);
+
+        assertEquals(texts(single, text -> text.startsWith("Autor: ")), texts(stitched, text -> text.startsWith("Autor: ")));
+        List<String> pageNumbers = new ArrayList<>();
+        for (JRPrintPage page : stitched.getPages()) {
+            page.getElements().stream()
+                    .filter(element -> ReportRenderer.PAGE_NUMBER_KEY.equals(element.getKey()))
+                    .forEach(element -> pageNumbers.add(((JRPrintText) element).getFullText()));
+        }
+        assertEquals(IntStream.rangeClosed(1, stitched.getPages().size()).mapToObj(String::valueOf).toList(), pageNumbers);
+        assertEquals(1, texts(stitched, "Relatório de Livros por Autor"::equals).size());
+    }
+
+    private static List<String> texts(JasperPrint print, Predicate<String> filter) {
+        List<String> texts = new ArrayList<>();
+        for (JRPrintPage page : print.getPages()) {
+            for (JRPrintElement element : page.getElements()) {
+                if (element instanceof JRPrintText text && filter.test(text.getFullText())) {
+                    texts.add(text.getFullText());
+                }
+            }
+        }
+        return texts;
+    }
+
+    private String export(ReportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportRenderer.export(jasperPrint, format, out);
+        return out.toString(StandardCharsets.ISO_8859_1);
+    }
+}
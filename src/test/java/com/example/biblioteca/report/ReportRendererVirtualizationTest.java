@@ -0,0 +1,81 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.config.RelatorioProperties;
+import net.sf.jasperreports.engine.JRVirtualizer;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fills a few hundred thousand rows with virtualization enabled. Run with {@code -Pperformance}, which caps the
+ * heap at 128 MB; the same report filled entirely in heap needs several times that.
+ * <p>
+ * The document is exported as HTML, which streams page by page. The PDF library keeps per-page bookkeeping
+ * until the document is closed, so PDF exports of this size still need a larger heap.
+ */
+@Tag("performance")
+public class ReportRendererVirtualizationTest {
+
+    private static final long ROWS = 300_000;
+
+    private ReportRenderer reportRenderer;
+    private JasperReport jasperReport;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RelatorioProperties relatorioProperties = new RelatorioProperties();
+        relatorioProperties.getVirtualizer().setMaxPages(20);
+        reportRenderer = new ReportRenderer();
+        ReflectionTestUtils.setField(reportRenderer, "relatorioProperties", relatorioProperties);
+
+        ReportTemplateRegistry registry = new ReportTemplateRegistry();
+        ReflectionTestUtils.setField(registry, "resourceLoader", new DefaultResourceLoader());
+        registry.loadTemplates();
+        jasperReport = registry.getTemplate("livros_por_autor");
+    }
+
+    @Test
+    void fillAndExport_LargeCatalogueWithSwapFileVirtualizer_FitsInSmallHeap() throws Exception {
+        assertTrue(reportRenderer.shouldVirtualize(ROWS));
+        long maxHeapMb = Runtime.getRuntime().maxMemory() / (1024 * 1024);
+        long start = System.currentTimeMillis();
+
+        JRVirtualizer virtualizer = reportRenderer.createVirtualizer();
+        try {
+            JasperPrint jasperPrint = reportRenderer.fill(jasperReport, Map.of("createdBy", "teste"),
+                    new SyntheticRelatorioDataSource(ROWS, 25), virtualizer);
+            CountingOutputStream out = new CountingOutputStream();
+            reportRenderer.export(jasperPrint, ReportFormat.HTML, out);
+
+            assertTrue(jasperPrint.getPages().size() > 1000);
+            assertTrue(out.count > 0);
+            System.out.printf("Rendered %d rows into %d pages (%d KB of HTML) in %d ms with -Xmx%dm%n",
+                    ROWS, jasperPrint.getPages().size(), out.count / 1024, System.currentTimeMillis() - start, maxHeapMb);
+        } finally {
+            virtualizer.cleanup();
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.biblioteca.report;
+
+import com.example.biblioteca.dto.LivroFiltro;
+import com.example.biblioteca.repository.RelatorioLivroRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReportServiceTest {
+
+    @Mock
+    private RelatorioLivroRepository relatorioLivroRepository;
+
+    @Mock
+    private ReportTemplateRegistry reportTemplateRegistry;
+
+    @Mock
+    private ReportRenderer reportRenderer;
+
+    @Mock
+    private ReportCache reportCache;
+
+    @Mock
+    private RelatorioMaterializadoService relatorioMaterializadoService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ReportService reportService;
+
+    private final LivroFiltro semFiltro = new LivroFiltro();
+
+    @Test
+    void livrosPorAutorKey_SameDataVersion_ReturnsSameETag() {
+        when(relatorioMaterializadoService.currentVersion()).thenReturn(7L);
+
+        assertEquals(reportService.livrosPorAutorKey(ReportFormat.PDF, semFiltro).eTag(), reportService.livrosPorAutorKey(ReportFormat.PDF, semFiltro).eTag());
+    }
+
+    @Test
+    void livrosPorAutorKey_DifferentFormats_ReturnDifferentETags() {
+        when(relatorioMaterializadoService.currentVersion()).thenReturn(7L);
+
+        assertNotEquals(reportService.livrosPorAutorKey(ReportFormat.PDF, semFiltro).eTag(), reportService.livrosPorAutorKey(ReportFormat.CSV, semFiltro).eTag());
+    }
+
+    @Test
+    void livrosPorAutorKey_ViewRefreshed_ReturnsDifferentETag() {
+        when(relatorioMaterializadoService.currentVersion()).thenReturn(7L, 8L);
+
+        assertNotEquals(reportService.livrosPorAutorKey(ReportFormat.PDF, semFiltro).eTag(), reportService.livrosPorAutorKey(ReportFormat.PDF, semFiltro).eTag());
+    }
+
+    @Test
+    void livrosPorAutorKey_EquivalentFilters_ReturnSameETag() {
+        when(relatorioMaterializadoService.currentVersion()).thenReturn(7L);
+        LivroFiltro filtro = new LivroFiltro();
+        filtro.setAutorIds(List.of(3L, 1L));
+        filtro.setValorMinimo(new BigDecimal("10.0"));
+        LivroFiltro equivalente = new LivroFiltro();
+        equivalente.setAutorIds(List.of(1L, 3L, 1L));
+        equivalente.setValorMinimo(new BigDecimal("10.00"));
+
+        assertEquals(reportService.livrosPorAutorKey(ReportFormat.PDF, filtro).eTag(),
+                reportService.livrosPorAutorKey(ReportFormat.PDF, equivalente).eTag());
+    }
+
+    @Test
+    void livrosPorAutorKey_DifferentFilters_ReturnDifferentETags() {
+        when(relatorioMaterializadoService.currentVersion()).thenReturn(7L);
+        LivroFiltro filtro = new LivroFiltro();
+        filtro.setAnoInicio(1990);
+
+        assertNotEquals(reportService.livrosPorAutorKey(ReportFormat.PDF, semFiltro).eTag(),
+                reportService.livrosPorAutorKey(ReportFormat.PDF, filtro).eTag());
+    }
+
+    @Test
+    void exportReport_CachedReport_SkipsRendering() throws Exception {
+        byte[] pdf = "%PDF".getBytes();
+        when(relatorioMaterializadoService.currentVersion()).thenReturn(7L);
+        ReportCacheKey key = reportService.livrosPorAutorKey(ReportFormat.PDF, semFiltro);
+        when(reportCache.get(key)).thenReturn(pdf);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportService.exportReport(ReportFormat.PDF, semFiltro, out, row -> { });
+
+        assertArrayEquals(pdf, out.toByteArray());
+        verifyNoInteractions(reportTemplateRegistry, reportRenderer, relatorioLivroRepository, transactionManager);
+        verify(reportCache, never()).put(any(), any());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.biblioteca.report;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportTemplateRegistryTest {
+
+    private ReportTemplateRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registry = new ReportTemplateRegistry();
+        ReflectionTestUtils.setField(registry, "resourceLoader", new DefaultResourceLoader());
+        registry.loadTemplates();
+    }
+
+    @Test
+    void getTemplate_KnownTemplate_ReturnsCompiledReport() throws JRException {
+        JasperReport report = registry.getTemplate("livros_por_autor");
+
+        assertNotNull(report);
+        assertEquals("livros_por_autor", report.getName());
+    }
+
+    @Test
+    void getTemplate_CalledTwice_ReusesCompiledReport() throws JRException {
+        JasperReport first = registry.getTemplate("livros_por_autor");
+        JasperReport second = registry.getTemplate("livros_por_autor");
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void getTemplate_UnknownTemplate_ThrowsJRException() {
+        assertThrows(JRException.class, () -> registry.getTemplate("inexistente"));
+    }
+}
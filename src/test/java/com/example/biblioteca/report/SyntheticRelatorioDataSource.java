@@ -0,0 +1,49 @@
+package com.example.biblioteca.report;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRField;
+
+import java.math.BigDecimal;
+
+/**
+ * Generates livros-por-autor rows on the fly, so report tests can fill arbitrarily large catalogues without a
+ * database and without holding the rows in memory.
+ */
+class SyntheticRelatorioDataSource implements JRDataSource {
+
+    private final long rows;
+    private final long firstRow;
+    private final int livrosPorAutor;
+    private long current;
+
+    SyntheticRelatorioDataSource(long rows, int livrosPorAutor) {
+        this(0, rows, livrosPorAutor);
+    }
+
+    SyntheticRelatorioDataSource(long firstRow, long rows, int livrosPorAutor) {
+        this.firstRow = firstRow;
+        this.rows = rows;
+        this.livrosPorAutor = livrosPorAutor;
+        this.current = firstRow - 1;
+    }
+
+    @Override
+    public boolean next() {
+        current++;
+        return current < firstRow + rows;
+    }
+
+    @Override
+    public Object getFieldValue(JRField field) {
+        return switch (field.getName()) {
+            case "autorNome" -> String.format("Autor %08d", current / livrosPorAutor);
+            case "tituloLivro" -> "Livro " + current;
+            case "editoraLivro" -> "Editora " + (current % 50);
+            case "edicaoLivro" -> (current % 5 + 1) + "ª";
+            case "anoPublicacaoLivro" -> String.valueOf(1900 + current % 120);
+            case "valorLivro" -> BigDecimal.valueOf(1000 + current % 20000, 2);
+            case "assuntosLivro" -> "Assunto " + (current % 30) + ", Assunto " + (current % 7);
+            default -> null;
+        };
+    }
+}
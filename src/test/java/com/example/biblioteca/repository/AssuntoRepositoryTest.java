@@ -21,7 +21,7 @@ public class AssuntoRepositoryTest {
 
     @Test
     void findById_ExistingAssunto_ReturnsAssunto() {
-        Assunto assunto = new Assunto(null, "Assunto Teste");
+        Assunto assunto = new Assunto(null, "Assunto Teste", null);
         entityManager.persistAndFlush(assunto);
 
         Optional<Assunto> foundAssunto = assuntoRepository.findById(assunto.getId());
@@ -32,7 +32,7 @@ public class AssuntoRepositoryTest {
 
     @Test
     void save_NewAssunto_PersistsAssunto() {
-        Assunto assunto = new Assunto(null, "Novo Assunto");
+        Assunto assunto = new Assunto(null, "Novo Assunto", null);
         Assunto savedAssunto = assuntoRepository.save(assunto);
 
         assertNotNull(savedAssunto.getId());
@@ -41,7 +41,7 @@ public class AssuntoRepositoryTest {
 
     @Test
     void delete_ExistingAssunto_RemovesAssunto() {
-        Assunto assunto = new Assunto(null, "Assunto para Excluir");
+        Assunto assunto = new Assunto(null, "Assunto para Excluir", null);
         entityManager.persistAndFlush(assunto);
 
         assuntoRepository.deleteById(assunto.getId());
@@ -21,7 +21,7 @@ public class AutorRepositoryTest {
 
     @Test
     void findById_ExistingAutor_ReturnsAutor() {
-        Autor autor = new Autor(null, "Autor Teste");
+        Autor autor = new Autor(null, "Autor Teste", null);
         entityManager.persistAndFlush(autor);
 
         Optional<Autor> foundAutor = autorRepository.findById(autor.getId());
@@ -32,7 +32,7 @@ public class AutorRepositoryTest {
 
     @Test
     void save_NewAutor_PersistsAutor() {
-        Autor autor = new Autor(null, "Novo Autor");
+        Autor autor = new Autor(null, "Novo Autor", null);
         Autor savedAutor = autorRepository.save(autor);
 
         assertNotNull(savedAutor.getId());
@@ -41,7 +41,7 @@ public class AutorRepositoryTest {
 
     @Test
     void delete_ExistingAutor_RemovesAutor() {
-        Autor autor = new Autor(null, "Autor para Excluir");
+        Autor autor = new Autor(null, "Autor para Excluir", null);
         entityManager.persistAndFlush(autor);
 
         autorRepository.deleteById(autor.getId());
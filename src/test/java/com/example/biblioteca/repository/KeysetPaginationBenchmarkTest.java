@@ -0,0 +1,95 @@
+package com.example.biblioteca.repository;
+
+import com.example.biblioteca.domain.Autor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads one page of authors at increasing depths with offset pagination (what {@code GET /autores?page=} runs,
+ * count included) and with the keyset queries, and reports the median time of each. Needs the PostgreSQL
+ * database of the {@code test} profile; run with {@code -Pperformance}.
+ */
+@Tag("performance")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+public class KeysetPaginationBenchmarkTest {
+
+    private static final int AUTORES = 200_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int[] DEPTHS = {0, 1_000, 10_000, 100_000, 199_000};
+    private static final int RUNS = 5;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // the test profile builds the schema from the entities, so create the index from the migration by hand
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_autores_nome_id ON autores (nome, id)");
+        List<Object[]> nomes = new ArrayList<>(AUTORES);
+        for (int i = 0; i < AUTORES; i++) {
+            // few distinct names, so the id tie-breaker is exercised
+            nomes.add(new Object[]{"Autor " + (i % 5_000)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO autores (id, nome, versao) VALUES (nextval('autores_id_seq'), ?, 0)", nomes);
+        jdbcTemplate.execute("ANALYZE autores");
+    }
+
+    @Test
+    void deepPages_KeysetStaysFlatWhileOffsetGrows() {
+        Sort sort = Sort.by("nome", "id");
+        System.out.printf("%10s %12s %12s%n", "depth", "offset (ms)", "keyset (ms)");
+        for (int depth : DEPTHS) {
+            Pageable offsetPage = PageRequest.of(depth / PAGE_SIZE, PAGE_SIZE, sort);
+            // the keyset cursor for this depth is the row just before it, read once outside the measurement
+            Autor previous = depth == 0 ? null : autorRepository.findAll(PageRequest.of(depth - 1, 1, sort)).getContent().get(0);
+            Pageable limit = PageRequest.of(0, PAGE_SIZE);
+
+            double offsetMillis = medianMillis(() -> autorRepository.findAll(offsetPage));
+            double keysetMillis = medianMillis(() -> previous == null
+                    ? autorRepository.findFirstPageOrderByNome(limit)
+                    : autorRepository.findPageAfter(previous.getNome(), previous.getId(), limit));
+            System.out.printf("%10d %12.2f %12.2f%n", depth, offsetMillis, keysetMillis);
+
+            Page<Autor> expected = autorRepository.findAll(offsetPage);
+            List<Autor> actual = previous == null
+                    ? autorRepository.findFirstPageOrderByNome(limit)
+                    : autorRepository.findPageAfter(previous.getNome(), previous.getId(), limit);
+            assertEquals(expected.map(Autor::getId).getContent(), actual.stream().map(Autor::getId).toList(),
+                    "keyset page differs from offset page at depth " + depth);
+        }
+    }
+
+    private double medianMillis(Supplier<?> query) {
+        query.get();
+        double[] samples = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query.get();
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+}
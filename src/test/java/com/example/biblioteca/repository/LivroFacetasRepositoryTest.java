@@ -0,0 +1,101 @@
+package com.example.biblioteca.repository;
+
+import com.example.biblioteca.domain.Assunto;
+import com.example.biblioteca.domain.Livro;
+import com.example.biblioteca.dto.FacetaDTO;
+import com.example.biblioteca.dto.LivroFacetasDTO;
+import com.example.biblioteca.dto.LivroFiltro;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GROUPING SETS and width_bucket are PostgreSQL-specific, so this runs against the database of the {@code test} profile.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(LivroFacetasRepository.class)
+public class LivroFacetasRepositoryTest {
+
+    private static final List<BigDecimal> FAIXAS = List.of(new BigDecimal("50"), new BigDecimal("20"));
+
+    @Autowired
+    private LivroFacetasRepository livroFacetasRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Assunto romance;
+    private Assunto poesia;
+
+    @BeforeEach
+    void setUp() {
+        romance = entityManager.persist(new Assunto(null, "Romance", null));
+        poesia = entityManager.persist(new Assunto(null, "Poesia", null));
+        persist("Garnier", "1899", "10.00", Set.of(romance));
+        persist("Garnier", "1891", "20.00", Set.of(romance, poesia));
+        persist("Ática", "1975", "75.50", Set.of(poesia));
+        persist("Ática", null, "30.00", Set.of());
+        entityManager.flush();
+    }
+
+    @Test
+    void findFacetas_CountsEveryFacetInOneQuery() {
+        LivroFacetasDTO facetas = livroFacetasRepository.findFacetas(new LivroFiltro(), FAIXAS);
+
+        assertEquals(4, facetas.getTotal());
+        assertEquals(List.of(List.of("Poesia", 2L), List.of("Romance", 2L)), describe(facetas.getAssuntos()));
+        assertEquals(String.valueOf(poesia.getId()), facetas.getAssuntos().get(0).getChave());
+        assertEquals(List.of(List.of("Garnier", 2L), List.of("Ática", 2L)), describe(facetas.getEditoras()));
+        assertEquals(List.of(List.of("1890-1899", 2L), List.of("1970-1979", 1L)), describe(facetas.getDecadas()));
+        assertEquals(List.of(List.of("Menos de 20", 1L), List.of("20 a 50", 2L), List.of("50 ou mais", 1L)), describe(facetas.getFaixasValor()));
+        assertEquals(List.of("-20", "20-50", "50-"), facetas.getFaixasValor().stream().map(FacetaDTO::getChave).toList());
+    }
+
+    @Test
+    void findFacetas_AppliesTheFilter() {
+        LivroFiltro filtro = new LivroFiltro();
+        filtro.setEditora("garnier");
+        filtro.setAssuntoIds(List.of(poesia.getId()));
+
+        LivroFacetasDTO facetas = livroFacetasRepository.findFacetas(filtro, FAIXAS);
+
+        assertEquals(1, facetas.getTotal());
+        assertEquals(List.of(List.of("Poesia", 1L), List.of("Romance", 1L)), describe(facetas.getAssuntos()));
+        assertEquals(List.of(List.of("20 a 50", 1L)), describe(facetas.getFaixasValor()));
+    }
+
+    @Test
+    void findFacetas_NoMatch_ReturnsZeroTotal() {
+        LivroFiltro filtro = new LivroFiltro();
+        filtro.setAnoInicio(2020);
+
+        LivroFacetasDTO facetas = livroFacetasRepository.findFacetas(filtro, FAIXAS);
+
+        assertEquals(0, facetas.getTotal());
+        assertTrue(facetas.getAssuntos().isEmpty());
+        assertTrue(facetas.getEditoras().isEmpty());
+    }
+
+    private static List<List<Object>> describe(List<FacetaDTO> facetas) {
+        return facetas.stream().map(faceta -> List.<Object>of(faceta.getNome(), faceta.getLivros())).toList();
+    }
+
+    private void persist(String editora, String anoPublicacao, String valor, Set<Assunto> assuntos) {
+        entityManager.persist(new Livro(null, "Livro", editora, "1ª", anoPublicacao, new BigDecimal(valor),
+                new HashSet<>(), new HashSet<>(assuntos), null));
+    }
+}
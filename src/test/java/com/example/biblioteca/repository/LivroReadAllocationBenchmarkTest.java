@@ -0,0 +1,137 @@
+package com.example.biblioteca.repository;
+
+import com.example.biblioteca.domain.Livro;
+import com.example.biblioteca.dto.LivroDTO;
+import com.example.biblioteca.dto.LivroFields;
+import com.example.biblioteca.mapper.LivroMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads the same page of books through managed entities mapped to DTOs (the read path before
+ * {@link LivroReadRepository}: page of entities, join fetch of both associations, MapStruct) and through the
+ * projection, and reports the median heap allocated by the reading thread per request. Needs the PostgreSQL
+ * database of the {@code test} profile and a HotSpot JVM; run with {@code -Pperformance}.
+ */
+@Tag("performance")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(LivroReadRepository.class)
+public class LivroReadAllocationBenchmarkTest {
+
+    private static final int LIVROS = 10_000;
+    private static final int AUTORES = 500;
+    private static final int[] PAGE_SIZES = {20, 100, 500};
+    private static final int RUNS = 15;
+
+    private final LivroMapper livroMapper = Mappers.getMapper(LivroMapper.class);
+
+    private final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private LivroReadRepository livroReadRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> autores = new ArrayList<>(AUTORES);
+        for (int i = 0; i < AUTORES; i++) {
+            autores.add(new Object[]{"Autor " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO autores (id, nome, versao) VALUES (nextval('autores_id_seq'), ?, 0)", autores);
+        List<Object[]> livros = new ArrayList<>(LIVROS);
+        for (int i = 0; i < LIVROS; i++) {
+            livros.add(new Object[]{"Livro " + i, "Editora " + (i % 50), String.valueOf(1 + i % 3) + "ª", String.valueOf(1900 + i % 120)});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO livros (id, titulo, editora, edicao, ano_publicacao, valor, versao)
+                VALUES (nextval('livros_id_seq'), ?, ?, ?, ?, 42.50, 0)
+                """, livros);
+        // two authors per book
+        jdbcTemplate.update("""
+                INSERT INTO livro_autor (livro_id, autor_id)
+                SELECT l.id, a.id FROM livros l JOIN autores a ON a.id % 250 = l.id % 250
+                """);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void listingPage_ProjectionAllocatesLessThanEntities() {
+        Sort sort = Sort.by("titulo");
+        System.out.printf("%10s %18s %18s%n", "page size", "entities (KiB)", "projection (KiB)");
+        for (int size : PAGE_SIZES) {
+            Pageable pageable = PageRequest.of(3, size, sort);
+
+            double entityKib = medianAllocatedKib(() -> readThroughEntities(pageable));
+            double projectionKib = medianAllocatedKib(() -> livroReadRepository.findAll(pageable, LivroFields.ALL));
+            System.out.printf("%10d %18.1f %18.1f%n", size, entityKib, projectionKib);
+
+            assertEquals(describe(readThroughEntities(pageable)), describe(livroReadRepository.findAll(pageable, LivroFields.ALL)),
+                    "projection differs from the entity path for page size " + size);
+            assertTrue(projectionKib < entityKib, "projection allocated " + projectionKib + " KiB against " + entityKib + " KiB for page size " + size);
+        }
+    }
+
+    private Page<LivroDTO> readThroughEntities(Pageable pageable) {
+        Page<Livro> livros = livroRepository.findAll(pageable);
+        entityManager.createQuery("SELECT DISTINCT l FROM Livro l LEFT JOIN FETCH l.autores WHERE l IN :livros", Livro.class)
+                .setParameter("livros", livros.getContent())
+                .getResultList();
+        entityManager.createQuery("SELECT DISTINCT l FROM Livro l LEFT JOIN FETCH l.assuntos WHERE l IN :livros", Livro.class)
+                .setParameter("livros", livros.getContent())
+                .getResultList();
+        Page<LivroDTO> page = livros.map(livroMapper::toDto);
+        // the request's persistence context ends here too
+        entityManager.clear();
+        return page;
+    }
+
+    private static List<List<Object>> describe(Page<LivroDTO> page) {
+        return page.getContent().stream()
+                .map(livro -> List.<Object>of(livro.getId(), livro.getTitulo(), livro.getValor(), livro.getAutoresIds(), livro.getAssuntosIds()))
+                .toList();
+    }
+
+    private double medianAllocatedKib(Supplier<?> read) {
+        read.get();
+        long threadId = Thread.currentThread().getId();
+        double[] samples = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            read.get();
+            samples[i] = (threadMXBean.getThreadAllocatedBytes(threadId) - before) / 1024.0;
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+}
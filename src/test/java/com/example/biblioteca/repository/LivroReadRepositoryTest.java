@@ -0,0 +1,138 @@
+package com.example.biblioteca.repository;
+
+import com.example.biblioteca.domain.Assunto;
+import com.example.biblioteca.domain.Autor;
+import com.example.biblioteca.domain.Livro;
+import com.example.biblioteca.dto.LivroDTO;
+import com.example.biblioteca.dto.LivroFields;
+import com.example.biblioteca.exception.InvalidSortException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The array subqueries are PostgreSQL-specific, so this runs against the database of the {@code test} profile.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(LivroReadRepository.class)
+public class LivroReadRepositoryTest {
+
+    @Autowired
+    private LivroReadRepository livroReadRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Autor machado;
+    private Autor alencar;
+    private Assunto romance;
+
+    @BeforeEach
+    void setUp() {
+        machado = entityManager.persist(new Autor(null, "Machado de Assis", null));
+        alencar = entityManager.persist(new Autor(null, "José de Alencar", null));
+        romance = entityManager.persist(new Assunto(null, "Romance", null));
+    }
+
+    @Test
+    void findById_MapsColumnsAndAssociationIds() {
+        Livro livro = persist("Dom Casmurro", "Garnier", Set.of(machado, alencar), Set.of(romance));
+        entityManager.flush();
+
+        LivroDTO dto = livroReadRepository.findById(livro.getId(), LivroFields.ALL).orElseThrow();
+
+        assertEquals("Dom Casmurro", dto.getTitulo());
+        assertEquals("Garnier", dto.getEditora());
+        assertEquals(0, new BigDecimal("50.00").compareTo(dto.getValor()));
+        assertEquals(Set.of(machado.getId(), alencar.getId()), dto.getAutoresIds());
+        assertEquals(Set.of(romance.getId()), dto.getAssuntosIds());
+        assertEquals(livro.getVersao(), dto.getVersao());
+        assertTrue(livroReadRepository.findById(-1L, LivroFields.ALL).isEmpty());
+    }
+
+    @Test
+    void findById_SparseFields_LeavesUnrequestedPropertiesNull() {
+        Livro livro = persist("Dom Casmurro", "Garnier", Set.of(machado), Set.of(romance));
+        entityManager.flush();
+
+        LivroDTO dto = livroReadRepository.findById(livro.getId(), LivroFields.parse("titulo", "autores")).orElseThrow();
+
+        assertEquals("Dom Casmurro", dto.getTitulo());
+        assertNull(dto.getEditora());
+        assertNull(dto.getValor());
+        // read for the expansion and the ETag, even though they were not asked for
+        assertEquals(Set.of(machado.getId()), dto.getAutoresIds());
+        assertEquals(livro.getVersao(), dto.getVersao());
+        assertNull(dto.getAssuntosIds());
+    }
+
+    @Test
+    void findAllById_ReadsExistingIdsOnly() {
+        Livro helena = persist("Helena", "Garnier", Set.of(machado), Set.of());
+        Livro iracema = persist("Iracema", "Garnier", Set.of(alencar), Set.of(romance));
+        entityManager.flush();
+
+        List<LivroDTO> livros = livroReadRepository.findAllById(List.of(iracema.getId(), -1L, helena.getId()), LivroFields.ALL);
+
+        assertEquals(Set.of(helena.getId(), iracema.getId()), livros.stream().map(LivroDTO::getId).collect(Collectors.toSet()));
+        assertTrue(livros.stream().allMatch(livro -> livro.getAutoresIds().size() == 1));
+    }
+
+    @Test
+    void findAll_SortsByRequestedPropertyThenId() {
+        Livro helena = persist("Helena", "Garnier", Set.of(machado), Set.of());
+        Livro iracema = persist("Iracema", "Garnier", Set.of(alencar), Set.of());
+        Livro senhora = persist("Senhora", "Ática", Set.of(alencar), Set.of());
+        entityManager.flush();
+
+        Page<LivroDTO> page = livroReadRepository.findAll(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "editora")), LivroFields.ALL);
+
+        assertEquals(List.of(helena.getId(), iracema.getId()), page.getContent().stream().map(LivroDTO::getId).toList());
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of(senhora.getId()),
+                livroReadRepository.findAll(PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "editora")), LivroFields.ALL).getContent().stream().map(LivroDTO::getId).toList());
+        assertTrue(page.getContent().get(0).getAssuntosIds().isEmpty());
+    }
+
+    @Test
+    void findAll_UnknownSortProperty_ThrowsInvalidSortException() {
+        assertThrows(InvalidSortException.class, () -> livroReadRepository.findAll(PageRequest.of(0, 10, Sort.by("autores")), LivroFields.ALL));
+    }
+
+    @Test
+    void findPageAfter_ReturnsRowsAfterCursorInKeysetOrder() {
+        Livro helena = persist("Helena", "Garnier", Set.of(machado), Set.of());
+        Livro iracema = persist("Iracema", "Garnier", Set.of(alencar), Set.of());
+        Livro outraIracema = persist("Iracema", "Ática", Set.of(alencar), Set.of());
+        entityManager.flush();
+
+        List<LivroDTO> first = livroReadRepository.findFirstPageOrderByTitulo(2, LivroFields.ALL);
+        List<LivroDTO> next = livroReadRepository.findPageAfter(iracema.getTitulo(), iracema.getId(), 2, LivroFields.ALL);
+
+        assertEquals(List.of(helena.getId(), iracema.getId()), first.stream().map(LivroDTO::getId).toList());
+        assertEquals(List.of(outraIracema.getId()), next.stream().map(LivroDTO::getId).toList());
+    }
+
+    private Livro persist(String titulo, String editora, Set<Autor> autores, Set<Assunto> assuntos) {
+        return entityManager.persist(new Livro(null, titulo, editora, "1ª", "1899", new BigDecimal("50.00"),
+                new HashSet<>(autores), new HashSet<>(assuntos), null));
+    }
+}
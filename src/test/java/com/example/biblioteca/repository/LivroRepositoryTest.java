@@ -26,12 +26,12 @@ public class LivroRepositoryTest {
 
     @Test
     void findById_ExistingLivro_ReturnsLivro() {
-        Autor autor = new Autor(null, "Autor Livro Teste");
-        Assunto assunto = new Assunto(null, "Assunto Livro Teste");
+        Autor autor = new Autor(null, "Autor Livro Teste", null);
+        Assunto assunto = new Assunto(null, "Assunto Livro Teste", null);
         entityManager.persistAndFlush(autor);
         entityManager.persistAndFlush(assunto);
 
-        Livro livro = new Livro(null, "Titulo Livro Teste", "Editora Teste", "1a", "2023", new BigDecimal("99.99"), new HashSet<>(Set.of(autor)), new HashSet<>(Set.of(assunto)));
+        Livro livro = new Livro(null, "Titulo Livro Teste", "Editora Teste", "1a", "2023", new BigDecimal("99.99"), new HashSet<>(Set.of(autor)), new HashSet<>(Set.of(assunto)), null);
         entityManager.persistAndFlush(livro);
 
         Optional<Livro> foundLivro = livroRepository.findById(livro.getId());
@@ -44,12 +44,12 @@ public class LivroRepositoryTest {
 
     @Test
     void save_NewLivro_PersistsLivroWithRelationships() {
-        Autor autor = new Autor(null, "Autor Teste Save");
-        Assunto assunto = new Assunto(null, "Assunto Teste Save");
+        Autor autor = new Autor(null, "Autor Teste Save", null);
+        Assunto assunto = new Assunto(null, "Assunto Teste Save", null);
         entityManager.persistAndFlush(autor);
         entityManager.persistAndFlush(assunto);
 
-        Livro livro = new Livro(null, "Novo Livro", "Nova Editora", "2a", "2024", new BigDecimal("120.00"), new HashSet<>(Set.of(autor)), new HashSet<>(Set.of(assunto)));
+        Livro livro = new Livro(null, "Novo Livro", "Nova Editora", "2a", "2024", new BigDecimal("120.00"), new HashSet<>(Set.of(autor)), new HashSet<>(Set.of(assunto)), null);
         Livro savedLivro = livroRepository.save(livro);
 
         assertNotNull(savedLivro.getId());
@@ -60,12 +60,12 @@ public class LivroRepositoryTest {
 
     @Test
     void delete_ExistingLivro_RemovesLivro() {
-        Autor autor = new Autor(null, "Autor Delete");
-        Assunto assunto = new Assunto(null, "Assunto Delete");
+        Autor autor = new Autor(null, "Autor Delete", null);
+        Assunto assunto = new Assunto(null, "Assunto Delete", null);
         entityManager.persistAndFlush(autor);
         entityManager.persistAndFlush(assunto);
 
-        Livro livro = new Livro(null, "Livro para Excluir", "Editora Delete", "3a", "2020", new BigDecimal("75.50"), new HashSet<>(Set.of(autor)), new HashSet<>(Set.of(assunto)));
+        Livro livro = new Livro(null, "Livro para Excluir", "Editora Delete", "3a", "2020", new BigDecimal("75.50"), new HashSet<>(Set.of(autor)), new HashSet<>(Set.of(assunto)), null);
         entityManager.persistAndFlush(livro);
 
         livroRepository.deleteById(livro.getId());
@@ -0,0 +1,95 @@
+package com.example.biblioteca.repository;
+
+import com.example.biblioteca.dto.LivroDTO;
+import com.example.biblioteca.dto.LivroFields;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Seeds a large catalogue and measures the latency distribution of {@link LivroReadRepository#search}. The p99 must
+ * stay under {@code busca.p99-budget-ms} (default 200 ms). The search column, text search configuration and
+ * triggers come from the Flyway migrations, so this runs them instead of letting Hibernate build the schema; it
+ * needs an empty PostgreSQL database for the {@code test} profile. Run with {@code -Pperformance}.
+ */
+@Tag("performance")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none"})
+@Import(LivroReadRepository.class)
+public class LivroSearchBenchmarkTest {
+
+    private static final int LIVROS = 200_000;
+    private static final int QUERIES = 1_000;
+
+    private static final String[] PALAVRAS = {
+            "memórias", "póstumas", "coração", "sertão", "cidade", "noite", "história", "viagem", "mar", "tempo",
+            "ensaio", "cegueira", "amor", "guerra", "poemas", "contos", "estrela", "caminho", "sombra", "jardim",
+            "família", "ilha", "vidas", "secas", "rio", "montanha", "verão", "inverno", "segredo", "canção"
+    };
+
+    @Autowired
+    private LivroReadRepository livroReadRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO autores (nome) SELECT 'Autor ' || g FROM generate_series(1, 5000) g");
+        jdbcTemplate.update("INSERT INTO assuntos (descricao) SELECT 'Assunto ' || g FROM generate_series(1, 200) g");
+        // titles of three words drawn from the vocabulary, so every query word matches a realistic share of books
+        jdbcTemplate.update("""
+                INSERT INTO livros (titulo, editora, edicao, ano_publicacao, valor)
+                SELECT initcap(p[1 + (g * 7) % n] || ' ' || p[1 + (g * 13) % n] || ' ' || p[1 + (g * 31) % n]),
+                       'Editora ' || (g % 50), '1ª', (1900 + g % 120)::text, (g % 200) + 9.90
+                FROM generate_series(1, ?) g, (SELECT ?::text[] AS p, cardinality(?::text[]) AS n) v
+                """, LIVROS, PALAVRAS, PALAVRAS);
+        jdbcTemplate.update("""
+                INSERT INTO livro_autor (livro_id, autor_id)
+                SELECT l.id, a.id FROM livros l JOIN autores a ON a.id = 1 + l.id % 5000
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO livro_assunto (livro_id, assunto_id)
+                SELECT l.id, s.id FROM livros l JOIN assuntos s ON s.id = 1 + l.id % 200
+                """);
+        jdbcTemplate.execute("ANALYZE livros");
+    }
+
+    @Test
+    void search_LargeCatalogue_P99WithinBudget() {
+        Page<LivroDTO> accents = livroReadRepository.search("memorias postumas", PageRequest.of(0, 20), LivroFields.ALL);
+        assertTrue(accents.getTotalElements() > 0, "accent-insensitive search found nothing");
+
+        Random random = new Random(42);
+        double[] millis = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String query = PALAVRAS[random.nextInt(PALAVRAS.length)] + (random.nextBoolean() ? " " + PALAVRAS[random.nextInt(PALAVRAS.length)] : "");
+            long start = System.nanoTime();
+            livroReadRepository.search(query, PageRequest.of(random.nextInt(3), 20), LivroFields.ALL).getContent();
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        double p50 = millis[QUERIES / 2];
+        double p99 = millis[(int) Math.ceil(QUERIES * 0.99) - 1];
+        System.out.printf("search over %d livros: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", LIVROS, p50, p99, millis[QUERIES - 1]);
+
+        long budget = Long.getLong("busca.p99-budget-ms", 200);
+        assertTrue(p99 <= budget, "p99 of " + p99 + " ms exceeds the " + budget + " ms budget");
+    }
+}
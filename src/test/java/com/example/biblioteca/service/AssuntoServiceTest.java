@@ -1,5 +1,6 @@
 package com.example.biblioteca.service;
 
+import com.example.biblioteca.config.ReferenceCacheProperties;
 import com.example.biblioteca.domain.Assunto;
 import com.example.biblioteca.dto.AssuntoDTO;
 import com.example.biblioteca.exception.ResourceNotFoundException;
@@ -10,11 +11,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
 import java.util.Optional;
@@ -31,6 +34,9 @@ public class AssuntoServiceTest {
     @Mock
     private AssuntoMapper assuntoMapper;
 
+    @Spy
+    private ReferenceCaches referenceCaches = new ReferenceCaches();
+
     @InjectMocks
     private AssuntoService assuntoService;
 
@@ -40,8 +46,10 @@ public class AssuntoServiceTest {
 
     @BeforeEach
     void setUp() {
-        assunto = new Assunto(1L, "Ficção Científica");
-        assuntoDTO = new AssuntoDTO(1L, "Ficção Científica");
+        ReflectionTestUtils.setField(referenceCaches, "referenceCacheProperties", new ReferenceCacheProperties());
+        referenceCaches.init();
+        assunto = new Assunto(1L, "Ficção Científica", null);
+        assuntoDTO = new AssuntoDTO(1L, "Ficção Científica", null);
         pageable = PageRequest.of(0, 10);
     }
 
@@ -99,14 +107,14 @@ public class AssuntoServiceTest {
 
     @Test
     void update_ExistingIdAndValidAssuntoDTO_ReturnsUpdatedAssuntoDTO() {
-        AssuntoDTO updatedAssuntoDTO = new AssuntoDTO(1L, "Fantasia");
-        Assunto updatedAssunto = new Assunto(1L, "Fantasia");
+        AssuntoDTO updatedAssuntoDTO = new AssuntoDTO(1L, "Fantasia", null);
+        Assunto updatedAssunto = new Assunto(1L, "Fantasia", null);
 
         when(assuntoRepository.findById(1L)).thenReturn(Optional.of(assunto));
         when(assuntoRepository.save(any(Assunto.class))).thenReturn(updatedAssunto);
         when(assuntoMapper.toDto(updatedAssunto)).thenReturn(updatedAssuntoDTO);
 
-        AssuntoDTO result = assuntoService.update(1L, updatedAssuntoDTO);
+        AssuntoDTO result = assuntoService.update(1L, updatedAssuntoDTO, null);
 
         assertNotNull(result);
         assertEquals(updatedAssuntoDTO.getDescricao(), result.getDescricao());
@@ -119,7 +127,7 @@ public class AssuntoServiceTest {
     void update_NonExistingId_ThrowsResourceNotFoundException() {
         when(assuntoRepository.findById(anyLong())).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> assuntoService.update(99L, assuntoDTO));
+        assertThrows(ResourceNotFoundException.class, () -> assuntoService.update(99L, assuntoDTO, null));
         verify(assuntoRepository, times(1)).findById(99L);
         verify(assuntoRepository, never()).save(any(Assunto.class));
         verify(assuntoMapper, never()).toDto(any(Assunto.class));
@@ -127,20 +135,19 @@ public class AssuntoServiceTest {
 
     @Test
     void delete_ExistingId_DeletesAssunto() {
-        when(assuntoRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(assuntoRepository).deleteById(1L);
+        when(assuntoRepository.findById(1L)).thenReturn(Optional.of(assunto));
 
-        assertDoesNotThrow(() -> assuntoService.delete(1L));
-        verify(assuntoRepository, times(1)).existsById(1L);
-        verify(assuntoRepository, times(1)).deleteById(1L);
+        assertDoesNotThrow(() -> assuntoService.delete(1L, null));
+        verify(assuntoRepository, times(1)).findById(1L);
+        verify(assuntoRepository, times(1)).delete(assunto);
     }
 
     @Test
     void delete_NonExistingId_ThrowsResourceNotFoundException() {
-        when(assuntoRepository.existsById(anyLong())).thenReturn(false);
+        when(assuntoRepository.findById(anyLong())).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> assuntoService.delete(99L));
-        verify(assuntoRepository, times(1)).existsById(99L);
-        verify(assuntoRepository, never()).deleteById(anyLong());
+        assertThrows(ResourceNotFoundException.class, () -> assuntoService.delete(99L, null));
+        verify(assuntoRepository, times(1)).findById(99L);
+        verify(assuntoRepository, never()).delete(any(Assunto.class));
     }
 }
@@ -1,8 +1,16 @@
 package com.example.biblioteca.service;
 
+import com.example.biblioteca.config.ReferenceCacheProperties;
 import com.example.biblioteca.domain.Autor;
 import com.example.biblioteca.dto.AutorDTO;
+import com.example.biblioteca.dto.CursorPage;
+import com.example.biblioteca.dto.KeysetCursor;
+import com.example.biblioteca.dto.MultiGetResult;
+import com.example.biblioteca.dto.SugestaoDTO;
+import com.example.biblioteca.exception.InvalidCursorException;
+import com.example.biblioteca.exception.PreconditionFailedException;
 import com.example.biblioteca.exception.ResourceNotFoundException;
+import com.example.biblioteca.exception.TooManyIdsException;
 import com.example.biblioteca.mapper.AutorMapper;
 import com.example.biblioteca.repository.AutorRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,14 +18,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +45,9 @@ public class AutorServiceTest {
     @Mock
     private AutorMapper autorMapper;
 
+    @Spy
+    private ReferenceCaches referenceCaches = new ReferenceCaches();
+
     @InjectMocks
     private AutorService autorService;
 
@@ -40,8 +57,10 @@ public class AutorServiceTest {
 
     @BeforeEach
     void setUp() {
-        autor = new Autor(1L, "Machado de Assis");
-        autorDTO = new AutorDTO(1L, "Machado de Assis");
+        ReflectionTestUtils.setField(referenceCaches, "referenceCacheProperties", new ReferenceCacheProperties());
+        referenceCaches.init();
+        autor = new Autor(1L, "Machado de Assis", null);
+        autorDTO = new AutorDTO(1L, "Machado de Assis", null);
         pageable = PageRequest.of(0, 10);
     }
 
@@ -60,6 +79,67 @@ public class AutorServiceTest {
         verify(autorMapper, times(1)).toDto(autor);
     }
 
+    @Test
+    void findAllAfter_BlankCursor_ReturnsFirstPageWithNextCursor() {
+        Autor segundo = new Autor(7L, "Machado de Assis", null);
+        Autor terceiro = new Autor(3L, "Raquel de Queiroz", null);
+        when(autorRepository.findFirstPageOrderByNome(PageRequest.of(0, 3))).thenReturn(List.of(autor, segundo, terceiro));
+        when(autorMapper.toDto(any(Autor.class))).thenAnswer(invocation -> {
+            Autor a = invocation.getArgument(0);
+            return new AutorDTO(a.getId(), a.getNome(), null);
+        });
+
+        CursorPage<AutorDTO> result = autorService.findAll("", 2);
+
+        assertEquals(List.of(1L, 7L), result.getContent().stream().map(AutorDTO::getId).toList());
+        assertEquals(new KeysetCursor("Machado de Assis", 7L), KeysetCursor.decode(result.getNextCursor()));
+        verify(autorRepository, never()).count();
+    }
+
+    @Test
+    void findAllAfter_Cursor_SeeksPastCursorAndEndsOnLastPage() {
+        String after = new KeysetCursor("Machado de Assis", 7L).encode();
+        when(autorRepository.findPageAfter("Machado de Assis", 7L, PageRequest.of(0, 3))).thenReturn(List.of(autor));
+        when(autorMapper.toDto(autor)).thenReturn(autorDTO);
+
+        CursorPage<AutorDTO> result = autorService.findAll(after, 2);
+
+        assertEquals(List.of(autorDTO), result.getContent());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void findAllAfter_MalformedCursor_ThrowsInvalidCursorException() {
+        assertThrows(InvalidCursorException.class, () -> autorService.findAll("not a cursor!", 10));
+        assertThrows(InvalidCursorException.class, () -> autorService.findAll(
+                Base64.getUrlEncoder().encodeToString("no-id".getBytes()), 10));
+        verifyNoInteractions(autorRepository);
+    }
+
+    @Test
+    void keysetCursor_KeyWithSeparatorAndAccents_RoundTrips() {
+        KeysetCursor cursor = new KeysetCursor("Poesia: Lírica & Épica", 42L);
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+        assertFalse(cursor.encode().contains("="));
+    }
+
+    @Test
+    void suggest_FollowsServiceWrites() {
+        when(autorRepository.findAllSugestoes()).thenReturn(List.of(new SugestaoDTO(1L, "Machado de Assis")));
+        autorService.reloadSuggestions();
+        Autor renomeado = new Autor(1L, "Joaquim Maria Machado de Assis", null);
+        when(autorRepository.findById(1L)).thenReturn(Optional.of(renomeado));
+        when(autorRepository.save(renomeado)).thenReturn(renomeado);
+
+        assertEquals(1L, autorService.suggest("mach", 10).get(0).getId());
+        autorService.update(1L, new AutorDTO(1L, "Joaquim Maria Machado de Assis", null), null);
+        assertEquals("Joaquim Maria Machado de Assis", autorService.suggest("joaq", 10).get(0).getTexto());
+        autorService.delete(1L, null);
+        assertTrue(autorService.suggest("mach", 10).isEmpty());
+        verify(autorRepository, times(1)).findAllSugestoes();
+    }
+
     @Test
     void findById_ExistingId_ReturnsAutorDTO() {
         when(autorRepository.findById(1L)).thenReturn(Optional.of(autor));
@@ -73,6 +153,52 @@ public class AutorServiceTest {
         verify(autorMapper, times(1)).toDto(autor);
     }
 
+    @Test
+    void findById_RepeatedAndAfterUpdate_ReadsThroughCache() {
+        Autor renomeado = new Autor(1L, "João Guimarães Rosa", null);
+        AutorDTO renomeadoDTO = new AutorDTO(1L, "João Guimarães Rosa", null);
+        when(autorRepository.findById(1L)).thenReturn(Optional.of(autor));
+        // both entities have id 1 and so are equal, so map by name
+        when(autorMapper.toDto(any(Autor.class))).thenAnswer(invocation ->
+                invocation.getArgument(0, Autor.class).getNome().equals(renomeado.getNome()) ? renomeadoDTO : autorDTO);
+        when(autorRepository.save(any(Autor.class))).thenReturn(renomeado);
+
+        autorService.findById(1L);
+        assertEquals(autorDTO, autorService.findById(1L));
+        verify(autorRepository, times(1)).findById(1L);
+        assertEquals(1L, referenceCaches.autores().stats().getHitCount());
+
+        // outside a transaction the invalidation runs right away
+        autorService.update(1L, renomeadoDTO, null);
+        when(autorRepository.findById(1L)).thenReturn(Optional.of(renomeado));
+        assertEquals(renomeadoDTO, autorService.findById(1L));
+    }
+
+    @Test
+    void findAllById_LoadsUncachedIdsInOneQueryAndKeepsRequestOrder() {
+        Autor alencar = new Autor(2L, "José de Alencar", null);
+        AutorDTO alencarDTO = new AutorDTO(2L, "José de Alencar", null);
+        when(autorRepository.findById(1L)).thenReturn(Optional.of(autor));
+        when(autorMapper.toDto(any(Autor.class))).thenAnswer(invocation ->
+                invocation.getArgument(0, Autor.class).getId() == 1L ? autorDTO : alencarDTO);
+        when(autorRepository.findAllById(Set.of(2L, 99L))).thenReturn(List.of(alencar));
+        autorService.findById(1L);
+
+        MultiGetResult<AutorDTO> result = autorService.findAllById(List.of(2L, 99L, 1L, 2L));
+
+        assertEquals(List.of(alencarDTO, autorDTO), result.getContent());
+        assertEquals(List.of(99L), result.getMissingIds());
+        verify(autorRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void findAllById_TooManyIds_ThrowsTooManyIdsException() {
+        List<Long> ids = LongStream.rangeClosed(1, MultiGetResult.MAX_IDS + 1).boxed().toList();
+
+        assertThrows(TooManyIdsException.class, () -> autorService.findAllById(ids));
+        verifyNoInteractions(autorRepository);
+    }
+
     @Test
     void findById_NonExistingId_ThrowsResourceNotFoundException() {
         when(autorRepository.findById(anyLong())).thenReturn(Optional.empty());
@@ -99,14 +225,14 @@ public class AutorServiceTest {
 
     @Test
     void update_ExistingIdAndValidAutorDTO_ReturnsUpdatedAutorDTO() {
-        AutorDTO updatedAutorDTO = new AutorDTO(1L, "João Guimarães Rosa");
-        Autor updatedAutor = new Autor(1L, "João Guimarães Rosa");
+        AutorDTO updatedAutorDTO = new AutorDTO(1L, "João Guimarães Rosa", null);
+        Autor updatedAutor = new Autor(1L, "João Guimarães Rosa", null);
 
         when(autorRepository.findById(1L)).thenReturn(Optional.of(autor));
         when(autorRepository.save(any(Autor.class))).thenReturn(updatedAutor);
         when(autorMapper.toDto(updatedAutor)).thenReturn(updatedAutorDTO);
 
-        AutorDTO result = autorService.update(1L, updatedAutorDTO);
+        AutorDTO result = autorService.update(1L, updatedAutorDTO, null);
 
         assertNotNull(result);
         assertEquals(updatedAutorDTO.getNome(), result.getNome());
@@ -119,7 +245,7 @@ public class AutorServiceTest {
     void update_NonExistingId_ThrowsResourceNotFoundException() {
         when(autorRepository.findById(anyLong())).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> autorService.update(99L, autorDTO));
+        assertThrows(ResourceNotFoundException.class, () -> autorService.update(99L, autorDTO, null));
         verify(autorRepository, times(1)).findById(99L);
         verify(autorRepository, never()).save(any(Autor.class));
         verify(autorMapper, never()).toDto(any(Autor.class));
@@ -127,20 +253,47 @@ public class AutorServiceTest {
 
     @Test
     void delete_ExistingId_DeletesAutor() {
-        when(autorRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(autorRepository).deleteById(1L);
+        when(autorRepository.findById(1L)).thenReturn(Optional.of(autor));
+
+        assertDoesNotThrow(() -> autorService.delete(1L, null));
+        verify(autorRepository, times(1)).findById(1L);
+        verify(autorRepository, times(1)).delete(autor);
+    }
+
+    @Test
+    void delete_StaleExpectedVersao_ThrowsPreconditionFailedException() {
+        autor.setVersao(2L);
+        when(autorRepository.findById(1L)).thenReturn(Optional.of(autor));
+
+        assertThrows(PreconditionFailedException.class, () -> autorService.delete(1L, 1L));
+        verify(autorRepository, never()).delete(any(Autor.class));
+
+        assertDoesNotThrow(() -> autorService.delete(1L, 2L));
+        verify(autorRepository, times(1)).delete(autor);
+    }
 
-        assertDoesNotThrow(() -> autorService.delete(1L));
-        verify(autorRepository, times(1)).existsById(1L);
-        verify(autorRepository, times(1)).deleteById(1L);
+    @Test
+    void findVersaoById_CachedAutor_SkipsRepository() {
+        autor.setVersao(7L);
+        autorDTO.setVersao(7L);
+        when(autorRepository.findById(1L)).thenReturn(Optional.of(autor));
+        when(autorMapper.toDto(autor)).thenReturn(autorDTO);
+        when(autorRepository.findVersaoById(2L)).thenReturn(Optional.of(3L));
+
+        autorService.findById(1L);
+
+        assertEquals(7L, autorService.findVersaoById(1L));
+        assertEquals(3L, autorService.findVersaoById(2L));
+        assertThrows(ResourceNotFoundException.class, () -> autorService.findVersaoById(99L));
+        verify(autorRepository, never()).findVersaoById(1L);
     }
 
     @Test
     void delete_NonExistingId_ThrowsResourceNotFoundException() {
-        when(autorRepository.existsById(anyLong())).thenReturn(false);
+        when(autorRepository.findById(anyLong())).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> autorService.delete(99L));
-        verify(autorRepository, times(1)).existsById(99L);
-        verify(autorRepository, never()).deleteById(anyLong());
+        assertThrows(ResourceNotFoundException.class, () -> autorService.delete(99L, null));
+        verify(autorRepository, times(1)).findById(99L);
+        verify(autorRepository, never()).delete(any(Autor.class));
     }
 }
@@ -0,0 +1,97 @@
+package com.example.biblioteca.service;
+
+import com.example.biblioteca.config.ImportacaoProperties;
+import com.example.biblioteca.dto.CatalogoImportResultDTO;
+import com.example.biblioteca.exception.CatalogoImportInProgressException;
+import com.example.biblioteca.report.DelimitedFormat;
+import com.example.biblioteca.repository.CatalogoImportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogoImportServiceTest {
+
+    @Mock
+    private CatalogoImportRepository catalogoImportRepository;
+
+    @Mock
+    private AutorService autorService;
+
+    @Mock
+    private AssuntoService assuntoService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ImportacaoProperties importacaoProperties = new ImportacaoProperties();
+
+    @InjectMocks
+    private CatalogoImportService catalogoImportService;
+
+    private final InputStream file = new ByteArrayInputStream(new byte[0]);
+
+    @BeforeEach
+    void setUp() {
+        catalogoImportService.init();
+    }
+
+    @Test
+    void importCatalogo_StagesFileAndMergesInOrder() {
+        when(catalogoImportRepository.tryLock()).thenReturn(true);
+        when(catalogoImportRepository.copyIntoStaging(eq(DelimitedFormat.TSV), eq(file), anyInt())).thenReturn(1000L);
+        when(catalogoImportRepository.deleteInvalidRows()).thenReturn(3);
+        when(catalogoImportRepository.deleteDuplicateRows()).thenReturn(2);
+        when(catalogoImportRepository.insertMissingAutores()).thenReturn(10);
+        when(catalogoImportRepository.insertMissingAssuntos()).thenReturn(4);
+        when(catalogoImportRepository.updateLivros()).thenReturn(5);
+        when(catalogoImportRepository.insertLivros()).thenReturn(990);
+
+        CatalogoImportResultDTO result = catalogoImportService.importCatalogo(DelimitedFormat.TSV, file);
+
+        assertEquals(1000L, result.getRows());
+        assertEquals(3L, result.getRejected());
+        assertEquals(2L, result.getDuplicates());
+        assertEquals(10L, result.getAutoresCreated());
+        assertEquals(4L, result.getAssuntosCreated());
+        assertEquals(5L, result.getLivrosUpdated());
+        assertEquals(990L, result.getLivrosCreated());
+        assertTrue(result.getRowsPerSecond() > 0);
+        InOrder inOrder = inOrder(catalogoImportRepository);
+        inOrder.verify(catalogoImportRepository).truncateStaging();
+        inOrder.verify(catalogoImportRepository).copyIntoStaging(DelimitedFormat.TSV, file, 64 * 1024);
+        inOrder.verify(catalogoImportRepository).deleteInvalidRows();
+        inOrder.verify(catalogoImportRepository).insertMissingAutores();
+        inOrder.verify(catalogoImportRepository).insertLivros();
+        // new books get their ids before the associations are synced
+        inOrder.verify(catalogoImportRepository).resolveLivros();
+        inOrder.verify(catalogoImportRepository).syncAssociations();
+        verify(catalogoImportRepository, times(2)).resolveLivros();
+        verify(autorService).reloadSuggestions();
+        verify(assuntoService).reloadSuggestions();
+    }
+
+    @Test
+    void importCatalogo_AnotherImportRunning_ThrowsWithoutTouchingStaging() {
+        when(catalogoImportRepository.tryLock()).thenReturn(false);
+
+        assertThrows(CatalogoImportInProgressException.class, () -> catalogoImportService.importCatalogo(DelimitedFormat.CSV, file));
+
+        verify(catalogoImportRepository, never()).truncateStaging();
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.biblioteca.service;
+
+import com.example.biblioteca.config.ImportacaoProperties;
+import com.example.biblioteca.domain.Assunto;
+import com.example.biblioteca.domain.Autor;
+import com.example.biblioteca.domain.Livro;
+import com.example.biblioteca.dto.LivroBatchResultDTO;
+import com.example.biblioteca.mapper.LivroMapper;
+import com.example.biblioteca.repository.AssuntoRepository;
+import com.example.biblioteca.repository.AutorRepository;
+import com.example.biblioteca.repository.LivroRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mapstruct.factory.Mappers;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LivroBatchServiceTest {
+
+    @Mock
+    private LivroRepository livroRepository;
+
+    @Mock
+    private AutorRepository autorRepository;
+
+    @Mock
+    private AssuntoRepository assuntoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private EntityIdResolver entityIdResolver;
+
+    @Spy
+    private ImportacaoProperties importacaoProperties = new ImportacaoProperties();
+
+    @InjectMocks
+    private LivroBatchService livroBatchService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(livroBatchService, "livroMapper", Mappers.getMapper(LivroMapper.class));
+        ReflectionTestUtils.setField(livroBatchService, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(livroBatchService, "objectMapper", new ObjectMapper());
+        importacaoProperties.setChunkSize(2);
+        livroBatchService.init();
+        lenient().when(autorRepository.findAllById(anyIterable())).thenReturn(List.of(new Autor(1L, "Machado de Assis", null)));
+        lenient().when(assuntoRepository.findAllById(anyIterable())).thenReturn(List.of(new Assunto(1L, "Romance", null)));
+    }
+
+    @Test
+    void createAll_JsonArray_SavesValidLivrosInChunksAndReportsFailures() throws Exception {
+        String body = "[" + String.join(",",
+                livro("Dom Casmurro", "[1]"),
+                livro("", "[1]"),
+                livro("Quincas Borba", "[1, 9]"),
+                livro("Helena", "[1]"),
+                livro("Iaiá Garcia", "[]")) + "]";
+
+        LivroBatchResultDTO result = livroBatchService.createAll(stream(body));
+
+        assertEquals(5, result.getTotal());
+        assertEquals(3, result.getCreated());
+        assertEquals(List.of(1, 2), result.getFailures().stream().map(LivroBatchResultDTO.Failure::getIndex).toList());
+        assertTrue(result.getFailures().get(0).getMessage().startsWith("titulo: "));
+        assertEquals("Autor not found with id 9", result.getFailures().get(1).getMessage());
+        // 4 valid books in chunks of 2: one statement batch per chunk
+        verify(livroRepository, times(2)).saveAll(anyIterable());
+        verify(autorRepository, times(2)).findAllById(anyIterable());
+        verify(autorRepository, never()).findById(any());
+    }
+
+    @Test
+    void createAll_NdjsonStream_ReadsOneLivroPerLine() throws Exception {
+        String body = livro("Dom Casmurro", "[1]") + "\n" + livro("Helena", "[1]") + "\n" + livro("Iaiá Garcia", "[1]") + "\n";
+
+        LivroBatchResultDTO result = livroBatchService.createAll(stream(body));
+
+        assertEquals(3, result.getTotal());
+        assertEquals(3, result.getCreated());
+        assertTrue(result.getFailures().isEmpty());
+    }
+
+    @Test
+    void createAll_ChunkRejectedByDatabase_RetriesOneByOneAndReportsOnlyOffendingLivro() throws Exception {
+        ArgumentCaptor<Iterable<Livro>> saved = ArgumentCaptor.captor();
+        when(livroRepository.saveAll(saved.capture())).thenAnswer(invocation -> {
+            Iterable<Livro> livros = invocation.getArgument(0);
+            for (Livro livro : livros) {
+                if (livro.getTitulo().equals("Duplicado")) {
+                    throw new DataIntegrityViolationException("duplicate key");
+                }
+            }
+            return livros;
+        });
+
+        LivroBatchResultDTO result = livroBatchService.createAll(stream("[" + livro("Helena", "[1]") + "," + livro("Duplicado", "[1]") + "]"));
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        assertEquals("Could not save livro: duplicate key", result.getFailures().get(0).getMessage());
+        // the whole chunk once, then each book on its own
+        assertEquals(3, saved.getAllValues().size());
+    }
+
+    @Test
+    void createAll_ClearsPersistenceContextAfterEachChunk() throws Exception {
+        List<Livro> managed = new ArrayList<>();
+        List<Integer> managedAtSave = new ArrayList<>();
+        when(livroRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Livro> livros = invocation.getArgument(0);
+            livros.forEach(managed::add);
+            managedAtSave.add(managed.size());
+            return livros;
+        });
+        doAnswer(invocation -> {
+            managed.clear();
+            return null;
+        }).when(entityManager).clear();
+
+        String body = "[" + String.join(",",
+                livro("Dom Casmurro", "[1]"), livro("Helena", "[1]"),
+                livro("Quincas Borba", "[1]"), livro("Iaiá Garcia", "[1]"),
+                livro("Ressurreição", "[1]")) + "]";
+        LivroBatchResultDTO result = livroBatchService.createAll(stream(body));
+
+        assertEquals(5, result.getCreated());
+        // each chunk starts from an empty context instead of piling up on the previous ones
+        assertEquals(List.of(2, 2, 1), managedAtSave);
+        assertTrue(managed.isEmpty());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void createAll_WrongFieldType_ReportsItemAndContinues() throws Exception {
+        String body = "[" + livro("Helena", "[1]") + ",{\"titulo\":\"X\",\"valor\":\"caro\"}," + livro("Iaiá Garcia", "[1]") + "]";
+
+        LivroBatchResultDTO result = livroBatchService.createAll(stream(body));
+
+        assertEquals(3, result.getTotal());
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        assertTrue(result.getFailures().get(0).getMessage().startsWith("Invalid livro: "));
+    }
+
+    private static String livro(String titulo, String autoresIds) {
+        return """
+                {"titulo":"%s","editora":"Garnier","anoPublicacao":"1899","valor":39.90,"autoresIds":%s,"assuntosIds":[1]}"""
+                .formatted(titulo, autoresIds);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.biblioteca.service;
+
+import com.example.biblioteca.config.FacetasProperties;
+import com.example.biblioteca.dto.LivroFacetasDTO;
+import com.example.biblioteca.dto.LivroFiltro;
+import com.example.biblioteca.repository.LivroFacetasRepository;
+import com.example.biblioteca.repository.VersaoColecaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LivroFacetasServiceTest {
+
+    @Mock
+    private LivroFacetasRepository livroFacetasRepository;
+
+    @Mock
+    private VersaoColecaoRepository versaoColecaoRepository;
+
+    @Spy
+    private FacetasProperties facetasProperties = new FacetasProperties();
+
+    @InjectMocks
+    private LivroFacetasService livroFacetasService;
+
+    @BeforeEach
+    void setUp() {
+        livroFacetasService.init();
+    }
+
+    @Test
+    void findVersao_AddsLivrosAndAssuntosCounters() {
+        when(versaoColecaoRepository.findVersao(VersaoColecaoRepository.LIVROS)).thenReturn(10L);
+        when(versaoColecaoRepository.findVersao(VersaoColecaoRepository.ASSUNTOS)).thenReturn(3L);
+
+        assertEquals(13L, livroFacetasService.findVersao());
+    }
+
+    @Test
+    void findFacetas_EquivalentFilterAndSameVersion_QueriesOnce() {
+        LivroFacetasDTO facetas = new LivroFacetasDTO();
+        when(livroFacetasRepository.findFacetas(any(LivroFiltro.class), anyList())).thenReturn(facetas);
+
+        assertSame(facetas, livroFacetasService.findFacetas(filtro(List.of(2L, 1L), " Garnier"), 7L));
+        assertSame(facetas, livroFacetasService.findFacetas(filtro(List.of(1L, 2L, 2L), "garnier"), 7L));
+
+        List<BigDecimal> faixasValor = facetasProperties.getFaixasValor();
+        verify(livroFacetasRepository, times(1)).findFacetas(any(LivroFiltro.class), eq(faixasValor));
+    }
+
+    @Test
+    void findFacetas_NewVersionOrOtherFilter_QueriesAgain() {
+        when(livroFacetasRepository.findFacetas(any(LivroFiltro.class), anyList())).thenAnswer(invocation -> new LivroFacetasDTO());
+
+        LivroFacetasDTO first = livroFacetasService.findFacetas(filtro(List.of(1L), null), 7L);
+        LivroFacetasDTO otherVersion = livroFacetasService.findFacetas(filtro(List.of(1L), null), 8L);
+        LivroFacetasDTO otherFilter = livroFacetasService.findFacetas(filtro(List.of(2L), null), 8L);
+
+        assertNotSame(first, otherVersion);
+        assertNotSame(otherVersion, otherFilter);
+        verify(livroFacetasRepository, times(3)).findFacetas(any(LivroFiltro.class), anyList());
+    }
+
+    private static LivroFiltro filtro(List<Long> assuntoIds, String editora) {
+        LivroFiltro filtro = new LivroFiltro();
+        filtro.setAssuntoIds(assuntoIds);
+        filtro.setEditora(editora);
+        return filtro;
+    }
+}
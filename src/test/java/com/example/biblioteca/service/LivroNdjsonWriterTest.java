@@ -0,0 +1,136 @@
+package com.example.biblioteca.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LivroNdjsonWriterTest {
+
+    private static final OffsetDateTime ATUALIZADO_EM = OffsetDateTime.of(2024, 5, 1, 10, 30, 0, 0, ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void writeAll_WritesOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = new LivroNdjsonWriter(objectMapper.getFactory(), out, 10)
+                .writeAll(syntheticResultSet(List.of(row(1L, "Dom Casmurro", new Long[]{1L, 2L}), row(2L, "Quincas \"Borba\"\n", new Long[]{}))));
+
+        assertEquals(2, rows);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length, "each object ends with a newline");
+        assertEquals("", lines[2]);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("Dom Casmurro", first.get("titulo").asText());
+        assertTrue(first.get("edicao").isNull());
+        assertTrue(lines[0].contains("\"valor\":39.90"), "valor keeps its scale");
+        assertEquals("[1,2]", first.get("autoresIds").toString());
+        assertEquals("[7]", first.get("assuntosIds").toString());
+        assertEquals(3L, first.get("versao").asLong());
+        assertEquals("2024-05-01T10:30Z", first.get("atualizadoEm").asText());
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals("Quincas \"Borba\"\n", second.get("titulo").asText());
+        assertEquals(0, second.get("autoresIds").size());
+    }
+
+    @Test
+    void writeAll_FlushesEveryBatchAndLeavesTheStreamOpen() throws Exception {
+        FlushCountingOutputStream out = new FlushCountingOutputStream();
+        List<Map<String, Object>> livros = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            livros.add(row(id, "Livro " + id, new Long[]{}));
+        }
+
+        new LivroNdjsonWriter(objectMapper.getFactory(), out, 2).writeAll(syntheticResultSet(livros));
+
+        // after rows 2 and 4, then the final flush
+        assertEquals(3, out.flushes);
+        assertFalse(out.closed);
+    }
+
+    @Test
+    void writeAll_EmptyResultSet_WritesNothing() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = new LivroNdjsonWriter(objectMapper.getFactory(), out, 10).writeAll(syntheticResultSet(List.of()));
+
+        assertEquals(0, rows);
+        assertEquals(0, out.size());
+    }
+
+    private static Map<String, Object> row(long id, String titulo, Long[] autoresIds) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("titulo", titulo);
+        row.put("editora", "Garnier");
+        row.put("edicao", null);
+        row.put("ano_publicacao", "1899");
+        row.put("valor", new BigDecimal("39.90"));
+        row.put("autores_ids", autoresIds);
+        row.put("assuntos_ids", new Long[]{7L});
+        row.put("versao", 3L);
+        row.put("atualizado_em", ATUALIZADO_EM);
+        return row;
+    }
+
+    /**
+     * Minimal forward-only result set supporting just what the writer uses, with columns read by label.
+     */
+    private static ResultSet syntheticResultSet(List<Map<String, Object>> rows) {
+        int[] current = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "next" -> ++current[0] < rows.size();
+                    case "getLong", "getString", "getBigDecimal", "getObject" -> rows.get(current[0]).get((String) args[0]);
+                    case "getArray" -> array((Long[]) rows.get(current[0]).get((String) args[0]));
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Array array(Long[] values) {
+        return (Array) Proxy.newProxyInstance(Array.class.getClassLoader(), new Class<?>[]{Array.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getArray" -> values;
+                    case "free" -> null;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static class FlushCountingOutputStream extends OutputStream {
+        private int flushes;
+        private boolean closed;
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+        }
+    }
+}
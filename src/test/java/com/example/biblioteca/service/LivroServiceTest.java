@@ -1,30 +1,47 @@
 package com.example.biblioteca.service;
 
+import com.example.biblioteca.config.ReferenceCacheProperties;
 import com.example.biblioteca.domain.Assunto;
 import com.example.biblioteca.domain.Autor;
 import com.example.biblioteca.domain.Livro;
+import com.example.biblioteca.dto.AutorDTO;
+import com.example.biblioteca.dto.CursorPage;
+import com.example.biblioteca.dto.KeysetCursor;
 import com.example.biblioteca.dto.LivroDTO;
+import com.example.biblioteca.dto.LivroFields;
+import com.example.biblioteca.dto.MultiGetResult;
+import com.example.biblioteca.exception.PreconditionFailedException;
 import com.example.biblioteca.exception.ResourceNotFoundException;
+import com.example.biblioteca.mapper.AssuntoMapper;
+import com.example.biblioteca.mapper.AutorMapper;
 import com.example.biblioteca.mapper.LivroMapper;
 import com.example.biblioteca.repository.AssuntoRepository;
 import com.example.biblioteca.repository.AutorRepository;
+import com.example.biblioteca.repository.LivroReadRepository;
 import com.example.biblioteca.repository.LivroRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mapstruct.factory.Mappers;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,6 +52,9 @@ public class LivroServiceTest {
     @Mock
     private LivroRepository livroRepository;
 
+    @Mock
+    private LivroReadRepository livroReadRepository;
+
     @Mock
     private AutorRepository autorRepository;
 
@@ -44,6 +64,18 @@ public class LivroServiceTest {
     @Mock
     private LivroMapper livroMapper;
 
+    @Spy
+    private EntityIdResolver entityIdResolver;
+
+    @Spy
+    private ReferenceCaches referenceCaches = new ReferenceCaches();
+
+    @Spy
+    private AutorMapper autorMapper = Mappers.getMapper(AutorMapper.class);
+
+    @Spy
+    private AssuntoMapper assuntoMapper = Mappers.getMapper(AssuntoMapper.class);
+
     @InjectMocks
     private LivroService livroService;
 
@@ -55,55 +87,124 @@ public class LivroServiceTest {
 
     @BeforeEach
     void setUp() {
-        autor = new Autor(1L, "Machado de Assis");
-        assunto = new Assunto(1L, "Romance");
-        livro = new Livro(1L, "Dom Casmurro", "Editora A", "1ª", "1899", new BigDecimal("50.00"), new HashSet<>(Set.of(autor)), new HashSet<>(Set.of(assunto)));
-        livroDTO = new LivroDTO(1L, "Dom Casmurro", "Editora A", "1ª", "1899", new BigDecimal("50.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)));
+        ReflectionTestUtils.setField(referenceCaches, "referenceCacheProperties", new ReferenceCacheProperties());
+        referenceCaches.init();
+        autor = new Autor(1L, "Machado de Assis", null);
+        assunto = new Assunto(1L, "Romance", null);
+        livro = new Livro(1L, "Dom Casmurro", "Editora A", "1ª", "1899", new BigDecimal("50.00"), new HashSet<>(Set.of(autor)), new HashSet<>(Set.of(assunto)), null);
+        livroDTO = new LivroDTO(1L, "Dom Casmurro", "Editora A", "1ª", "1899", new BigDecimal("50.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), null, null, null);
         pageable = PageRequest.of(0, 10);
     }
 
     @Test
-    void findAll_ReturnsPageOfLivroDTOs() {
-        Page<Livro> livroPage = new PageImpl<>(Arrays.asList(livro), pageable, 1);
-        when(livroRepository.findAll(pageable)).thenReturn(livroPage);
-        when(livroMapper.toDto(livro)).thenReturn(livroDTO);
+    void findAll_ReadsDtosWithoutEntities() {
+        Page<LivroDTO> livroDTOPage = new PageImpl<>(List.of(livroDTO), pageable, 1);
+        when(livroReadRepository.findAll(pageable, LivroFields.ALL)).thenReturn(livroDTOPage);
 
-        Page<LivroDTO> result = livroService.findAll(pageable);
+        Page<LivroDTO> result = livroService.findAll(pageable, LivroFields.ALL);
 
-        assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(livroDTO, result.getContent().get(0));
-        verify(livroRepository, times(1)).findAll(pageable);
-        verify(livroMapper, times(1)).toDto(livro);
+        verifyNoInteractions(livroRepository, livroMapper);
+    }
+
+    @Test
+    void findAllAfter_SeeksPastCursorAndDropsLookAheadRow() {
+        LivroDTO seguinte = new LivroDTO(2L, "Helena", "Editora A", "1ª", "1876", new BigDecimal("30.00"), new HashSet<>(), new HashSet<>(), 0L, null, null);
+        when(livroReadRepository.findPageAfter("Casa Velha", 9L, 2, LivroFields.ALL)).thenReturn(List.of(livroDTO, seguinte));
+
+        CursorPage<LivroDTO> result = livroService.findAll(new KeysetCursor("Casa Velha", 9L).encode(), 1, LivroFields.ALL);
+
+        assertEquals(List.of(livroDTO), result.getContent());
+        assertEquals(new KeysetCursor("Dom Casmurro", 1L), KeysetCursor.decode(result.getNextCursor()));
+        verify(livroReadRepository, never()).findFirstPageOrderByTitulo(anyInt(), any(LivroFields.class));
+    }
+
+    @Test
+    void findAllAfter_BlankCursor_ReadsFirstPage() {
+        when(livroReadRepository.findFirstPageOrderByTitulo(21, LivroFields.ALL)).thenReturn(List.of(livroDTO));
+
+        CursorPage<LivroDTO> result = livroService.findAll("", 20, LivroFields.ALL);
+
+        assertEquals(List.of(livroDTO), result.getContent());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void search_RanksInRepositoryIgnoringSort() {
+        Pageable sorted = PageRequest.of(1, 5, Sort.by("titulo"));
+        when(livroReadRepository.search("memorias postumas", PageRequest.of(1, 5), LivroFields.ALL)).thenReturn(new PageImpl<>(List.of(livroDTO), sorted, 6));
+
+        Page<LivroDTO> result = livroService.search("  memorias postumas ", sorted, LivroFields.ALL);
+
+        assertEquals(List.of(livroDTO), result.getContent());
+        assertEquals(6, result.getTotalElements());
+    }
+
+    @Test
+    void search_BlankQuery_ReturnsEmptyPageWithoutQuerying() {
+        Page<LivroDTO> result = livroService.search(" ", pageable, LivroFields.ALL);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(livroReadRepository);
     }
 
     @Test
     void findById_ExistingId_ReturnsLivroDTO() {
-        when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
-        when(livroMapper.toDto(livro)).thenReturn(livroDTO);
+        when(livroReadRepository.findById(1L, LivroFields.ALL)).thenReturn(Optional.of(livroDTO));
 
-        LivroDTO result = livroService.findById(1L);
+        LivroDTO result = livroService.findById(1L, LivroFields.ALL);
 
-        assertNotNull(result);
         assertEquals(livroDTO, result);
-        verify(livroRepository, times(1)).findById(1L);
-        verify(livroMapper, times(1)).toDto(livro);
+        verify(livroReadRepository, times(1)).findById(1L, LivroFields.ALL);
+        verifyNoInteractions(livroRepository, livroMapper);
     }
 
     @Test
     void findById_NonExistingId_ThrowsResourceNotFoundException() {
-        when(livroRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(livroReadRepository.findById(anyLong(), any(LivroFields.class))).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> livroService.findById(99L));
-        verify(livroRepository, times(1)).findById(99L);
-        verify(livroMapper, never()).toDto(any(Livro.class));
+        assertThrows(ResourceNotFoundException.class, () -> livroService.findById(99L, LivroFields.ALL));
+        verify(livroReadRepository, times(1)).findById(99L, LivroFields.ALL);
+    }
+
+    @Test
+    void findAllById_ReturnsRequestOrderAndReportsMissingIds() {
+        LivroDTO helena = new LivroDTO(2L, "Helena", "Editora A", "1ª", "1876", new BigDecimal("30.00"), new HashSet<>(), new HashSet<>(), 0L, null, null);
+        when(livroReadRepository.findAllById(Set.of(2L, 7L, 1L), LivroFields.ALL)).thenReturn(List.of(livroDTO, helena));
+
+        MultiGetResult<LivroDTO> result = livroService.findAllById(List.of(2L, 7L, 1L, 2L), LivroFields.ALL);
+
+        assertEquals(List.of(helena, livroDTO), result.getContent());
+        assertEquals(List.of(7L), result.getMissingIds());
+        verify(livroReadRepository, times(1)).findAllById(any(), any(LivroFields.class));
+        verifyNoInteractions(livroRepository);
+    }
+
+    @Test
+    void findAll_ExpandAutores_EmbedsNamesWithOneQueryPerPage() {
+        LivroFields fields = LivroFields.parse("titulo", "autores");
+        LivroDTO helena = new LivroDTO(2L, "Helena", null, null, null, null, new HashSet<>(Set.of(1L, 2L)), null, null, null, null);
+        when(livroReadRepository.findAll(pageable, fields)).thenReturn(new PageImpl<>(List.of(livroDTO, helena), pageable, 2));
+        Autor alencar = new Autor(2L, "José de Alencar", null);
+        when(autorRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(autor, alencar));
+
+        Page<LivroDTO> result = livroService.findAll(pageable, fields);
+        livroService.findAll(pageable, fields);
+
+        assertEquals(List.of("Machado de Assis"), result.getContent().get(0).getAutores().stream().map(AutorDTO::getNome).toList());
+        assertEquals(List.of("José de Alencar", "Machado de Assis"), result.getContent().get(1).getAutores().stream().map(AutorDTO::getNome).toList());
+        assertNull(result.getContent().get(0).getAssuntos());
+        // the second page was served from the reference cache
+        verify(autorRepository, times(1)).findAllById(any());
+        verifyNoInteractions(assuntoRepository);
     }
 
     @Test
     void create_ValidLivroDTO_ReturnsCreatedLivroDTO() {
         when(livroMapper.toEntity(livroDTO)).thenReturn(livro);
-        when(autorRepository.findById(1L)).thenReturn(Optional.of(autor));
-        when(assuntoRepository.findById(1L)).thenReturn(Optional.of(assunto));
+        when(autorRepository.findAllById(Set.of(1L))).thenReturn(List.of(autor));
+        when(assuntoRepository.findAllById(Set.of(1L))).thenReturn(List.of(assunto));
         when(livroRepository.save(any(Livro.class))).thenReturn(livro);
         when(livroMapper.toDto(livro)).thenReturn(livroDTO);
 
@@ -112,8 +213,8 @@ public class LivroServiceTest {
         assertNotNull(result);
         assertEquals(livroDTO, result);
         verify(livroMapper, times(1)).toEntity(livroDTO);
-        verify(autorRepository, times(1)).findById(1L);
-        verify(assuntoRepository, times(1)).findById(1L);
+        verify(autorRepository, times(1)).findAllById(Set.of(1L));
+        verify(assuntoRepository, times(1)).findAllById(Set.of(1L));
         verify(livroRepository, times(1)).save(any(Livro.class));
         verify(livroMapper, times(1)).toDto(livro);
     }
@@ -122,61 +223,121 @@ public class LivroServiceTest {
     void create_InvalidAutorId_ThrowsResourceNotFoundException() {
         livroDTO.setAutoresIds(new HashSet<>(Set.of(99L)));
         when(livroMapper.toEntity(livroDTO)).thenReturn(livro);
-        when(autorRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(autorRepository.findAllById(Set.of(99L))).thenReturn(List.of());
 
         assertThrows(ResourceNotFoundException.class, () -> livroService.create(livroDTO));
         verify(livroMapper, times(1)).toEntity(livroDTO);
-        verify(autorRepository, times(1)).findById(99L);
+        verify(autorRepository, times(1)).findAllById(Set.of(99L));
+        verify(livroRepository, never()).save(any(Livro.class));
+    }
+
+    @Test
+    void create_ManyAutoresAndAssuntos_ResolvesEachAssociationWithOneQuery() {
+        Set<Long> ids = LongStream.rangeClosed(1, 10).boxed().collect(Collectors.toSet());
+        livroDTO.setAutoresIds(ids);
+        livroDTO.setAssuntosIds(ids);
+        when(livroMapper.toEntity(livroDTO)).thenReturn(livro);
+        when(autorRepository.findAllById(ids)).thenReturn(ids.stream().map(id -> new Autor(id, "Autor " + id, null)).toList());
+        when(assuntoRepository.findAllById(ids)).thenReturn(ids.stream().map(id -> new Assunto(id, "Assunto " + id, null)).toList());
+        when(livroRepository.save(any(Livro.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        livroService.create(livroDTO);
+
+        verify(autorRepository, times(1)).findAllById(ids);
+        verify(assuntoRepository, times(1)).findAllById(ids);
+        verifyNoMoreInteractions(autorRepository, assuntoRepository);
+        assertEquals(10, livro.getAutores().size());
+        assertEquals(10, livro.getAssuntos().size());
+    }
+
+    @Test
+    void create_CachedAutores_OnlyLoadsUncachedIds() {
+        livroDTO.setAutoresIds(new HashSet<>(Set.of(1L, 2L)));
+        when(livroMapper.toEntity(livroDTO)).thenReturn(livro);
+        when(autorRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(autor, new Autor(2L, "Graciliano Ramos", null)));
+        when(assuntoRepository.findAllById(Set.of(1L))).thenReturn(List.of(assunto));
+        when(livroRepository.save(any(Livro.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        livroService.create(livroDTO);
+
+        livroDTO.setAutoresIds(new HashSet<>(Set.of(1L, 2L, 3L)));
+        when(autorRepository.findAllById(Set.of(3L))).thenReturn(List.of(new Autor(3L, "Clarice Lispector", null)));
+        livroService.create(livroDTO);
+
+        verify(autorRepository, times(1)).findAllById(Set.of(1L, 2L));
+        verify(autorRepository, times(1)).findAllById(Set.of(3L));
+        verify(assuntoRepository, times(1)).findAllById(Set.of(1L));
+        assertEquals(Set.of(1L, 2L, 3L), livro.getAutores().stream().map(Autor::getId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void create_SeveralMissingIds_ListsEveryMissingId() {
+        livroDTO.setAutoresIds(new HashSet<>(Set.of(1L, 7L, 3L)));
+        when(livroMapper.toEntity(livroDTO)).thenReturn(livro);
+        when(autorRepository.findAllById(Set.of(1L, 3L, 7L))).thenReturn(List.of(autor));
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> livroService.create(livroDTO));
+
+        assertEquals("Autor not found with ids 3, 7", exception.getMessage());
         verify(livroRepository, never()).save(any(Livro.class));
     }
 
     @Test
     void update_ExistingIdAndValidLivroDTO_ReturnsUpdatedLivroDTO() {
-        LivroDTO updatedLivroDTO = new LivroDTO(1L, "Memórias Póstumas", "Editora B", "2ª", "1881", new BigDecimal("60.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)));
-        Livro updatedLivro = new Livro(1L, "Memórias Póstumas", "Editora B", "2ª", "1881", new BigDecimal("60.00"), new HashSet<>(Set.of(autor)), new HashSet<>(Set.of(assunto)));
+        LivroDTO updatedLivroDTO = new LivroDTO(1L, "Memórias Póstumas", "Editora B", "2ª", "1881", new BigDecimal("60.00"), new HashSet<>(Set.of(1L)), new HashSet<>(Set.of(1L)), null, null, null);
+        Livro updatedLivro = new Livro(1L, "Memórias Póstumas", "Editora B", "2ª", "1881", new BigDecimal("60.00"), new HashSet<>(Set.of(autor)), new HashSet<>(Set.of(assunto)), null);
 
         when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
-        when(autorRepository.findById(1L)).thenReturn(Optional.of(autor));
-        when(assuntoRepository.findById(1L)).thenReturn(Optional.of(assunto));
+        when(autorRepository.findAllById(Set.of(1L))).thenReturn(List.of(autor));
+        when(assuntoRepository.findAllById(Set.of(1L))).thenReturn(List.of(assunto));
         when(livroRepository.save(any(Livro.class))).thenReturn(updatedLivro);
         when(livroMapper.toDto(updatedLivro)).thenReturn(updatedLivroDTO);
 
-        LivroDTO result = livroService.update(1L, updatedLivroDTO);
+        LivroDTO result = livroService.update(1L, updatedLivroDTO, null);
 
         assertNotNull(result);
         assertEquals(updatedLivroDTO.getTitulo(), result.getTitulo());
         verify(livroRepository, times(1)).findById(1L);
-        verify(autorRepository, times(1)).findById(1L);
-        verify(assuntoRepository, times(1)).findById(1L);
+        verify(autorRepository, times(1)).findAllById(Set.of(1L));
+        verify(assuntoRepository, times(1)).findAllById(Set.of(1L));
         verify(livroRepository, times(1)).save(any(Livro.class));
         verify(livroMapper, times(1)).toDto(updatedLivro);
     }
 
+    @Test
+    void update_StaleExpectedVersao_ThrowsPreconditionFailedException() {
+        livro.setVersao(4L);
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
+
+        PreconditionFailedException exception = assertThrows(PreconditionFailedException.class, () -> livroService.update(1L, livroDTO, 3L));
+
+        assertEquals("Livro 1 is at version 4, not 3", exception.getMessage());
+        verify(livroRepository, never()).save(any(Livro.class));
+    }
+
     @Test
     void update_NonExistingId_ThrowsResourceNotFoundException() {
         when(livroRepository.findById(anyLong())).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> livroService.update(99L, livroDTO));
+        assertThrows(ResourceNotFoundException.class, () -> livroService.update(99L, livroDTO, null));
         verify(livroRepository, times(1)).findById(99L);
         verify(livroRepository, never()).save(any(Livro.class));
     }
 
     @Test
     void delete_ExistingId_DeletesLivro() {
-        when(livroRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(livroRepository).deleteById(1L);
+        when(livroRepository.findById(1L)).thenReturn(Optional.of(livro));
 
-        assertDoesNotThrow(() -> livroService.delete(1L));
-        verify(livroRepository, times(1)).existsById(1L);
-        verify(livroRepository, times(1)).deleteById(1L);
+        assertDoesNotThrow(() -> livroService.delete(1L, null));
+        verify(livroRepository, times(1)).findById(1L);
+        verify(livroRepository, times(1)).delete(livro);
     }
 
     @Test
     void delete_NonExistingId_ThrowsResourceNotFoundException() {
-        when(livroRepository.existsById(anyLong())).thenReturn(false);
+        when(livroRepository.findById(anyLong())).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> livroService.delete(99L));
-        verify(livroRepository, times(1)).existsById(99L);
-        verify(livroRepository, never()).deleteById(anyLong());
+        assertThrows(ResourceNotFoundException.class, () -> livroService.delete(99L, null));
+        verify(livroRepository, times(1)).findById(99L);
+        verify(livroRepository, never()).delete(any(Livro.class));
     }
 }
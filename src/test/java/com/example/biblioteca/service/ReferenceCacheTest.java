@@ -0,0 +1,106 @@
+package com.example.biblioteca.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceCacheTest {
+
+    private final ReferenceCache<String> referenceCache = new ReferenceCache<>(Caffeine.newBuilder().<Long, String>build());
+
+    @Test
+    void resolve_LoadsUncachedIdsAndCachesThem() {
+        Map<Long, String> resolved = referenceCache.resolve(List.of(1L, 2L), ReferenceCacheTest::load,
+                Function.identity(), Function.identity());
+
+        assertEquals(Map.of(1L, "autor 1", 2L, "autor 2"), resolved);
+        assertEquals("autor 1", referenceCache.getIfPresent(1L));
+        assertEquals("autor 2", referenceCache.getIfPresent(2L));
+    }
+
+    @Test
+    void resolve_InvalidatedDuringLoad_DoesNotCacheWhatWasRead() {
+        Map<Long, String> resolved = referenceCache.resolve(List.of(1L), ids -> {
+            Map<Long, String> lidos = load(ids);
+            // a write to autor 1 commits after the row was read but before the load returns
+            referenceCache.invalidateAfterCommit(1L);
+            return lidos;
+        }, Function.identity(), Function.identity());
+
+        assertEquals("autor 1", resolved.get(1L));
+        assertNull(referenceCache.getIfPresent(1L));
+    }
+
+    @Test
+    void getAll_InvalidatedDuringLoad_DoesNotCacheWhatWasRead() {
+        referenceCache.getAll(List.of(3L), ReferenceCacheTest::load);
+
+        Map<Long, String> values = referenceCache.getAll(List.of(1L, 2L, 3L), ids -> {
+            Map<Long, String> lidos = load(ids);
+            referenceCache.invalidateAfterCommit(2L);
+            return lidos;
+        });
+
+        assertEquals(Map.of(1L, "autor 1", 2L, "autor 2", 3L, "autor 3"), values);
+        assertNull(referenceCache.getIfPresent(1L));
+        assertNull(referenceCache.getIfPresent(2L));
+        // cached before the load, not read by it
+        assertEquals("autor 3", referenceCache.getIfPresent(3L));
+    }
+
+    @Test
+    void getAll_ConcurrentInvalidateAll_DoesNotCacheWhatWasRead() throws Exception {
+        CountDownLatch lido = new CountDownLatch(1);
+        CountDownLatch invalidado = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<Long, String>> values = executor.submit(() -> referenceCache.getAll(List.of(1L), ids -> {
+                Map<Long, String> lidos = load(ids);
+                lido.countDown();
+                await(invalidado);
+                return lidos;
+            }));
+            await(lido);
+            referenceCache.invalidateAll();
+            invalidado.countDown();
+
+            assertEquals(Map.of(1L, "autor 1"), values.get(5, TimeUnit.SECONDS));
+            assertNull(referenceCache.getIfPresent(1L));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getAll_NoInvalidation_CachesLoadedValues() {
+        referenceCache.getAll(List.of(1L, 2L), ReferenceCacheTest::load);
+
+        assertEquals("autor 1", referenceCache.getIfPresent(1L));
+        assertEquals("autor 2", referenceCache.getIfPresent(2L));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<Long, String> load(Collection<Long> ids) {
+        return ids.stream().collect(Collectors.toMap(Function.identity(), id -> "autor " + id));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.biblioteca.service;
+
+import com.example.biblioteca.dto.SugestaoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuggestIndexTest {
+
+    private SuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SuggestIndex();
+        index.rebuild(List.of(
+                new SugestaoDTO(1L, "Machado de Assis"),
+                new SugestaoDTO(2L, "José de Alencar"),
+                new SugestaoDTO(3L, "Cecília Meireles"),
+                new SugestaoDTO(4L, "Assis Brasil")));
+    }
+
+    @Test
+    void suggest_MatchesAnyWordStartIgnoringCaseAndAccents() {
+        // "assis" itself sorts before "assis brasil"
+        assertEquals(List.of(1L, 4L), ids(index.suggest("ASSIS", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("jose", 10)));
+        assertEquals(List.of(3L), ids(index.suggest("cecilia mei", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("machado de a", 10)));
+        assertEquals("Cecília Meireles", index.suggest("meir", 10).get(0).getTexto());
+    }
+
+    @Test
+    void suggest_BlankPrefixOrNoMatch_ReturnsEmpty() {
+        assertTrue(index.suggest("  ", 10).isEmpty());
+        assertTrue(index.suggest(null, 10).isEmpty());
+        assertTrue(index.suggest("zzz", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_RespectsLimitWithoutRepeatingEntries() {
+        index.put(5L, "Ana Ana Ana");
+        index.put(6L, "Ana Maria Machado");
+
+        assertEquals(List.of(5L, 6L), ids(index.suggest("ana", 10)));
+        assertEquals(1, index.suggest("a", 1).size());
+    }
+
+    @Test
+    void putAndRemove_RenameReplacesOldEntries() {
+        index.put(1L, "Joaquim Maria Machado de Assis");
+        index.remove(2L);
+
+        assertEquals(List.of(1L), ids(index.suggest("joaquim", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("machado", 10)));
+        assertTrue(index.suggest("jose", 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void putAfterCommit_InsideTransaction_AppliedOnlyOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.putAfterCommit(9L, "Clarice Lispector");
+            assertTrue(index.suggest("clarice", 10).isEmpty());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(List.of(9L), ids(index.suggest("clarice", 10)));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @Tag("performance")
+    void suggest_LargeIndex_AnswersInMicroseconds() {
+        Random random = new Random(7);
+        List<SugestaoDTO> nomes = new ArrayList<>();
+        for (long id = 1; id <= 200_000; id++) {
+            nomes.add(new SugestaoDTO(id, randomWord(random) + " " + randomWord(random) + " " + randomWord(random)));
+        }
+        index.rebuild(nomes);
+        String[] prefixes = new String[10_000];
+        for (int i = 0; i < prefixes.length; i++) {
+            prefixes[i] = randomWord(random).substring(0, 1 + random.nextInt(3));
+        }
+        for (String prefix : prefixes) {
+            index.suggest(prefix, 10);
+        }
+
+        long start = System.nanoTime();
+        for (String prefix : prefixes) {
+            index.suggest(prefix, 10);
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / prefixes.length;
+        System.out.printf("suggest over %d names: %.2f µs per lookup%n", nomes.size(), micros);
+        assertTrue(micros < 100, "lookups took " + micros + " µs");
+    }
+
+    private static String randomWord(Random random) {
+        char[] word = new char[4 + random.nextInt(6)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+
+    private static List<Long> ids(List<SugestaoDTO> sugestoes) {
+        return sugestoes.stream().map(SugestaoDTO::getId).toList();
+    }
+}